@@ -0,0 +1,63 @@
+/*
+벤치마크용 실행 환경
+실제 MySQL, Redis 대신 프로세스 안에서 도는 H2(MySQL 모드)와 jedis-mock(자바 Redis 서버)으로
+스프링 애플리케이션 전체를 띄움 >> 외부 인프라 없이 같은 조건으로 반복 측정 가능
+ */
+package com.studycafe.benchmark;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.studycafe.Main;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+
+final class BenchmarkEnvironment implements AutoCloseable {
+    private final RedisServer redisServer;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkEnvironment(RedisServer redisServer, ConfigurableApplicationContext context) {
+        this.redisServer = redisServer;
+        this.context = context;
+    }
+
+    static BenchmarkEnvironment start(int seatCount) throws IOException {
+        RedisServer redisServer = RedisServer.newRedisServer().start();
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Main.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:studycafe;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.data.redis.host=" + redisServer.getHost(),
+                        "--spring.data.redis.port=" + redisServer.getBindPort(),
+                        "--app.seat.total-count=" + seatCount,
+                        "--app.lock.near-cache.configure-keyspace-events=false",
+                        "--logging.level.root=WARN"
+                );
+
+        return new BenchmarkEnvironment(redisServer, context);
+    }
+    /* 환경 시작
+    1. jedis-mock Redis 서버를 빈 포트로 실행
+    2. application.yml 설정 중 DB, Redis 접속 정보만 실행 인자(--)로 덮어써서 애플리케이션 실행
+    (실행 인자는 application.yml보다 우선순위가 높음)
+    SeatInitializer가 seatCount만큼 좌석을 만들어 둠
+     */
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        redisServer.stop();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+좌석 선점 경쟁에서 진 요청(SEAT_ALREADY_LOCKED) 1건의 실패 처리 비용 벤치마크
+좌석 오픈 때는 100명 중 99명이 이 경로를 타므로 실패 경로가 성공 경로보다 무거우면 안 됨
+DB 조회, Redis 락 시도는 세 경로가 같으므로 빼고 "실패를 호출한 쪽까지 전달 + 에러 응답 만들기"만 측정
+할당량(B/op)까지 보려면 : ./gradlew jmh -PjmhIncludes=ContentionBenchmark -PjmhProfilers=gc
+ */
+package com.studycafe.benchmark;
+
+import com.studycafe.global.exception.CustomException;
+import com.studycafe.global.exception.ErrorCode;
+import com.studycafe.global.exception.ErrorResponse;
+import com.studycafe.service.ReservationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ContentionBenchmark {
+
+    @Param({"20", "120"})
+    private int stackDepth;
+
+    @Benchmark
+    public ResponseEntity<?> legacyException() {
+        try {
+            legacyPreOccupy(stackDepth);
+            return ResponseEntity.ok().build();
+        } catch (CustomException e) {
+            return ResponseEntity
+                    .status(e.getErrorCode().getStatus())
+                    .body(ErrorResponse.builder()
+                            .status(e.getErrorCode().getStatus().value())
+                            .error(e.getErrorCode().getStatus().name())
+                            .code(e.getErrorCode().name())
+                            .message(e.getErrorCode().getMessage())
+                            .build());
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> stacklessException() {
+        try {
+            stacklessPreOccupy(stackDepth);
+            return ResponseEntity.ok().build();
+        } catch (CustomException e) {
+            return ErrorResponse.toResponseEntity(e.getErrorCode());
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> result() {
+        ReservationService.PreOccupyResult result = tryPreOccupy(stackDepth);
+        return result.success() ? ResponseEntity.ok().build() : ErrorResponse.toResponseEntity(result.errorCode());
+    }
+    /*
+    legacyException : 예전 실패 경로(스택 추적을 수집하는 new CustomException + 요청마다 새 ErrorResponse)
+    stacklessException : CustomException.contention(스택 추적 없음) + 미리 만든 응답(preOccupySeat를 쓰는 곳)
+    result : 예외 없이 결과 반환(tryPreOccupySeat) + 미리 만든 응답(/pre-occupy 컨트롤러)
+    stackDepth : 예외를 만드는 위치의 호출 깊이
+    실제 요청은 Tomcat, 스프링 시큐리티 필터, 프록시를 거쳐서 서비스까지 100단계 이상 깊어짐
+    >> 스택 추적은 깊이만큼 비싸지고, 나머지 두 경로는 깊이와 거의 무관
+     */
+
+    private static void legacyPreOccupy(int depth) {
+        if (depth > 0) {
+            legacyPreOccupy(depth - 1);
+            return;
+        }
+        throw new CustomException(ErrorCode.SEAT_ALREADY_LOCKED);
+    }
+
+    private static void stacklessPreOccupy(int depth) {
+        if (depth > 0) {
+            stacklessPreOccupy(depth - 1);
+            return;
+        }
+        throw CustomException.contention(ErrorCode.SEAT_ALREADY_LOCKED);
+    }
+
+    private static ReservationService.PreOccupyResult tryPreOccupy(int depth) {
+        if (depth > 0) {
+            return tryPreOccupy(depth - 1);
+        }
+        return ReservationService.PreOccupyResult.ALREADY_LOCKED;
+    }
+    /* 락 시도가 실패한 지점(호출 깊이 depth)에서 실패를 알리는 세 가지 방법 */
+}
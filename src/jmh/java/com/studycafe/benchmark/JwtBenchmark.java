@@ -0,0 +1,78 @@
+/*
+JWT 검증 벤치마크
+요청 1번마다 JwtAuthenticationFilter가 실행하는 토큰 검증 비용 측정
+ */
+package com.studycafe.benchmark;
+
+import com.studycafe.config.jwt.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("bench", Map.of(
+                "jwt.secret", "benchmark-secret-key-must-be-at-least-256-bits-long",
+                "jwt.access-token-validity-in-seconds", "1800"
+        )));
+        context.register(PropertySourcesPlaceholderConfigurer.class, JwtTokenProvider.class);
+        context.refresh();
+
+        jwtTokenProvider = context.getBean(JwtTokenProvider.class);
+        token = jwtTokenProvider.createToken("42");
+    }
+    /* JWT는 DB, Redis가 필요 없으므로 JwtTokenProvider 빈 1개만 담은 작은 컨테이너로 실행 */
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUserId() {
+        return jwtTokenProvider.getUserId(token);
+    }
+
+    @Benchmark
+    public String twoParses() {
+        return jwtTokenProvider.validateToken(token) ? jwtTokenProvider.getUserId(token) : null;
+    }
+
+    @Benchmark
+    public String filterPath() {
+        return jwtTokenProvider.authenticate(token);
+    }
+    /*
+    twoParses : 예전 JwtAuthenticationFilter의 호출 순서(검증 후 ID 추출, 서명 검증 2번)
+    filterPath : 지금 JwtAuthenticationFilter가 요청마다 호출하는 authenticate
+    같은 토큰을 반복하므로 첫 호출 뒤로는 검증된 토큰 캐시에서 바로 반환(같은 토큰으로 계속 요청하는 클라이언트)
+    validateToken : 캐시 없이 서명 검증 1번 비용
+     */
+}
@@ -0,0 +1,69 @@
+/*
+좌석 락 주인 조회 벤치마크
+Redis 파이프라인 조회(RedisLockService)와 근거리 캐시 조회(SeatLockOwnerCache) 비교
+ */
+package com.studycafe.benchmark;
+
+import com.studycafe.domain.seat.Seat;
+import com.studycafe.service.RedisLockService;
+import com.studycafe.service.SeatLockOwnerCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LockOwnersBenchmark {
+    private static final Long BRANCH_ID = Seat.DEFAULT_BRANCH_ID;
+
+
+    @Param({"100", "1000"})
+    private int seatCount;
+
+    private BenchmarkEnvironment environment;
+    private RedisLockService redisLockService;
+    private SeatLockOwnerCache seatLockOwnerCache;
+    private List<Integer> seatNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        environment = BenchmarkEnvironment.start(seatCount);
+        redisLockService = environment.getBean(RedisLockService.class);
+        seatLockOwnerCache = environment.getBean(SeatLockOwnerCache.class);
+        seatNumbers = IntStream.rangeClosed(1, seatCount).boxed().toList();
+
+        for (int seat = 1; seat <= seatCount; seat += 5) {
+            redisLockService.lockSeat(BRANCH_ID, String.valueOf(seat), "bench-" + seat);
+        }
+        seatLockOwnerCache.resync();
+    }
+    /* 좌석 5개 중 1개에 락을 걸고 근거리 캐시를 한 번 동기화해 둠 */
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        environment.close();
+    }
+
+    @Benchmark
+    public Map<Integer, String> redisPipeline() {
+        return redisLockService.getLockOwners(BRANCH_ID, seatNumbers);
+    }
+
+    @Benchmark
+    public Map<Integer, String> nearCache() {
+        return seatLockOwnerCache.getLockOwners(BRANCH_ID, seatNumbers);
+    }
+}
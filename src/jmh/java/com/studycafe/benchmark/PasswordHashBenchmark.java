@@ -0,0 +1,53 @@
+/*
+BCrypt 강도(cost)별 비밀번호 해싱 벤치마크
+app.password.bcrypt-strength를 정할 때 사용(로그인 1번 = matches 1번, 회원가입 1번 = encode 1번)
+ */
+package com.studycafe.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordHashBenchmark {
+    private static final String PASSWORD = "benchmark-password-1234";
+
+    @Param({"8", "10", "12"})
+    private int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        encoded = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, encoded);
+    }
+    /*
+    코어 1개가 1초에 처리할 수 있는 로그인 수 = 1000 / matches(ms)
+    >> 초당 로그인 수 = app.password.hash-threads x 1000 / matches(ms)
+    대기줄(app.password.queue-capacity)이 꽉 찼을 때 마지막 요청의 대기 시간
+    = queue-capacity / hash-threads x matches(ms) 가 로그인 지연 목표 안에 들어오는 강도를 고름
+     */
+}
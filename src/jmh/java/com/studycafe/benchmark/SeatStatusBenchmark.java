@@ -0,0 +1,75 @@
+/*
+좌석 현황판 조회 경로 벤치마크
+원본(DB + Redis 락)으로 목록을 새로 만드는 비용과 현황판(Hash, 비트맵)을 읽는 비용 비교
+ */
+package com.studycafe.benchmark;
+
+import com.studycafe.dto.SeatStatusDto;
+import com.studycafe.domain.seat.Seat;
+import com.studycafe.service.RedisLockService;
+import com.studycafe.service.ReservationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SeatStatusBenchmark {
+    private static final Long BRANCH_ID = Seat.DEFAULT_BRANCH_ID;
+
+
+    @Param({"100", "1000"})
+    private int seatCount;
+
+    private BenchmarkEnvironment environment;
+    private ReservationService reservationService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        environment = BenchmarkEnvironment.start(seatCount);
+        reservationService = environment.getBean(ReservationService.class);
+
+        RedisLockService redisLockService = environment.getBean(RedisLockService.class);
+        for (int seat = 1; seat <= seatCount; seat += 10) {
+            redisLockService.lockSeat(BRANCH_ID, String.valueOf(seat), "bench-" + seat);
+        }
+        reservationService.getAllSeatStatus(BRANCH_ID); // 현황판 최초 구성
+    }
+    /* 좌석 10개 중 1개에 락을 걸어두고 현황판을 미리 만들어 둠 */
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        environment.close();
+    }
+
+    @Benchmark
+    public List<SeatStatusDto> assembleFromSource() {
+        return reservationService.loadSeatStatusFromSource(BRANCH_ID);
+    }
+
+    @Benchmark
+    public List<SeatStatusDto> readSeatStatus() {
+        return reservationService.getAllSeatStatus(BRANCH_ID);
+    }
+
+    @Benchmark
+    public byte[] readSeatStatusBitmap() {
+        return reservationService.getSeatStatusBitmap(BRANCH_ID);
+    }
+    /*
+    assembleFromSource : seats 전체 조회 + 이용중 예약 조회 + 락 주인 조회로 목록 생성(현황판 재구성 비용)
+    readSeatStatus : 현황판 Hash(HGETALL) 조회(/seats)
+    readSeatStatusBitmap : 압축 비트맵(GET) 조회(/seats/bitmap)
+     */
+}
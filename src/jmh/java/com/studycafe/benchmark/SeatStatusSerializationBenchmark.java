@@ -0,0 +1,61 @@
+/*
+좌석 현황 직렬화 벤치마크
+HTTP 응답(JSON), Redis 캐시 값(GenericJackson2JsonRedisSerializer), 압축 비트맵 변환 비용 비교
+ */
+package com.studycafe.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studycafe.dto.SeatStatusBitmap;
+import com.studycafe.dto.SeatStatusDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SeatStatusSerializationBenchmark {
+    private static final String[] STATUSES = {"AVAILABLE", "LOCKED", "OCCUPIED"};
+
+    @Param({"100", "10000"})
+    private int seatCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GenericJackson2JsonRedisSerializer redisSerializer = new GenericJackson2JsonRedisSerializer();
+    private List<SeatStatusDto> statusList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        statusList = new ArrayList<>();
+        for (int seat = 1; seat <= seatCount; seat++) {
+            statusList.add(new SeatStatusDto(seat, STATUSES[seat % STATUSES.length]));
+        }
+    }
+
+    @Benchmark
+    public byte[] httpJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(statusList);
+    }
+
+    @Benchmark
+    public byte[] redisJson() {
+        return redisSerializer.serialize(statusList);
+    }
+
+    @Benchmark
+    public byte[] bitmap() {
+        return SeatStatusBitmap.encode(statusList);
+    }
+}
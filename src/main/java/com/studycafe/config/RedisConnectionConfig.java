@@ -0,0 +1,174 @@
+/*
+Redis 접속 방식(토폴로지)과 연결 공장(RedisConnectionFactory) 설정
+standalone(단일 노드), sentinel(마스터 + 복제본, 센티널이 장애 조치), cluster(여러 마스터에 slot 분산) 중 선택
+락/스케줄러 락/현황판 쓰기용 연결(마스터 전용)과 좌석 현황판 읽기용 연결(복제본 우선)을 따로 만듦
+ */
+package com.studycafe.config;
+
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.resource.ClientResources;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+
+@Slf4j
+@Configuration
+public class RedisConnectionConfig {
+    enum Topology { STANDALONE, SENTINEL, CLUSTER }
+
+    @Value("${app.redis.topology:standalone}")
+    private String topology;
+
+    @Value("${app.redis.nodes:}")
+    private List<String> nodes;
+
+    @Value("${app.redis.sentinel-master:mymaster}")
+    private String sentinelMaster;
+
+    @Value("${app.redis.read-from-replica:true}")
+    private boolean readFromReplica;
+
+    @Value("${spring.data.redis.host:localhost}")
+    private String host;
+
+    @Value("${spring.data.redis.port:6379}")
+    private int port;
+
+    @Value("${spring.data.redis.password:}")
+    private String password;
+
+    @Value("${spring.data.redis.timeout:2000ms}")
+    private Duration timeout;
+    /* 필드(application.yml)
+    topology : standalone, sentinel, cluster 중 하나
+    nodes : sentinel이면 센티널 주소 목록, cluster면 클러스터 노드 주소 목록(host:port, 쉼표로 구분)
+    sentinelMaster : 센티널이 감시하는 마스터 이름
+    readFromReplica : 좌석 현황판 조회를 복제본에서 읽을지 여부
+    host, port : standalone일 때 접속할 Redis 주소(스프링 기본 설정 spring.data.redis를 그대로 사용)
+    password : Redis 비밀번호(센티널/클러스터의 데이터 노드에도 같은 비밀번호 사용)
+    timeout : 명령 1개의 응답 대기 시간
+     */
+
+    @Bean
+    @Primary
+    public LettuceConnectionFactory redisConnectionFactory(ClientResources clientResources) {
+        Topology mode = topology();
+        log.info("Redis 접속 방식 : {}", mode);
+        return new LettuceConnectionFactory(configuration(mode), clientConfiguration(mode, clientResources, ReadFrom.UPSTREAM));
+    }
+    /* 기본 연결 공장(마스터 전용)
+    @Primary라서 RedisTemplate, ShedLock, Pub/Sub 구독 등 이름을 지정하지 않은 곳은 모두 이 연결을 사용
+    ReadFrom.UPSTREAM : 읽기 명령(GET 등)도 마스터에서만 실행
+    >> seat_lock:* 쓰기(Lua 스크립트)와 바로 뒤의 락 주인 조회가 항상 같은 마스터에서 일어나서
+    복제 지연 때문에 방금 잡은 락이 안 보이는 일이 없음
+    (쓰기 명령은 ReadFrom과 관계없이 항상 마스터로 감)
+    이 Bean이 있으면 스프링 부트의 기본 연결 공장 자동 설정은 적용되지 않음
+     */
+
+    @Bean
+    public LettuceConnectionFactory seatStatusReadConnectionFactory(ClientResources clientResources) {
+        Topology mode = topology();
+        ReadFrom readFrom = readFromReplica ? ReadFrom.REPLICA_PREFERRED : ReadFrom.UPSTREAM;
+        return new LettuceConnectionFactory(configuration(mode), clientConfiguration(mode, clientResources, readFrom));
+    }
+    /* 좌석 현황판 읽기 전용 연결 공장
+    REPLICA_PREFERRED : 복제본이 있으면 복제본에서 읽고, 복제본이 모두 죽었으면 마스터에서 읽음
+    >> 가장 자주 호출되는 /seats, /seats/bitmap 조회 부하를 마스터에서 떼어냄
+    현황판은 락 알림과 정합성 검사로 계속 맞춰지는 캐시라서 복제 지연(보통 수 ms) 동안 옛 값을 봐도 괜찮음
+    standalone에서는 복제본이 없으므로 같은 노드에 연결(ReadFrom 미적용)
+     */
+
+    @Bean
+    public RedisTemplate<String,String> seatStatusReadTemplate(
+            @Qualifier("seatStatusReadConnectionFactory") RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String,String> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new StringRedisSerializer());
+        return template;
+    }
+    /* 좌석 현황판 조회 전용 RedisTemplate(SeatStatusStore의 findAll, findBitmap에서 사용)
+    직렬화 방식은 기본 redisTemplate(RedisConfig)과 같음
+     */
+
+    private Topology topology() {
+        return Topology.valueOf(topology.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private RedisConfiguration configuration(Topology mode) {
+        RedisPassword redisPassword = RedisPassword.of(password);
+        switch (mode) {
+            case SENTINEL -> {
+                RedisSentinelConfiguration sentinel = new RedisSentinelConfiguration(sentinelMaster, new HashSet<>(requireNodes(mode)));
+                sentinel.setPassword(redisPassword);
+                return sentinel;
+            }
+            case CLUSTER -> {
+                RedisClusterConfiguration cluster = new RedisClusterConfiguration(requireNodes(mode));
+                cluster.setPassword(redisPassword);
+                return cluster;
+            }
+            default -> {
+                RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration(host, port);
+                standalone.setPassword(redisPassword);
+                return standalone;
+            }
+        }
+    }
+    /* 접속 방식별 접속 정보
+    sentinel : 센티널에게 마스터 주소를 물어봐서 접속, 장애 조치로 마스터가 바뀌면 자동으로 새 마스터에 접속
+    cluster : 노드 1곳 이상에 접속해서 전체 slot 배치(어느 slot이 어느 노드에 있는지)를 받아옴
+     */
+
+    private List<String> requireNodes(Topology mode) {
+        if (nodes == null || nodes.isEmpty()) {
+            throw new IllegalStateException("app.redis.nodes 설정이 필요합니다 (topology: " + mode + ")");
+        }
+        return nodes;
+    }
+
+    private LettuceClientConfiguration clientConfiguration(Topology mode, ClientResources clientResources, ReadFrom readFrom) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder()
+                .clientResources(clientResources)
+                .commandTimeout(timeout);
+
+        if (mode == Topology.CLUSTER) {
+            builder.clientOptions(ClusterClientOptions.builder()
+                    .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                            .enablePeriodicRefresh(Duration.ofSeconds(30))
+                            .enableAllAdaptiveRefreshTriggers()
+                            .build())
+                    .build());
+        }
+        if (mode != Topology.STANDALONE) {
+            builder.readFrom(readFrom);
+        }
+        return builder.build();
+    }
+    /* 연결 옵션
+    두 연결 공장이 스레드(이벤트 루프) 묶음(ClientResources)을 함께 사용
+    cluster : 30초마다 + MOVED/ASK 응답을 받거나 노드 연결이 끊기면 바로 slot 배치를 다시 읽음
+    >> 장애 조치나 slot 이동 후에도 명령이 새 노드로 바로 감
+    ReadFrom은 복제본 개념이 있는 sentinel, cluster에서만 적용
+     */
+}
@@ -0,0 +1,113 @@
+/*
+seats 테이블의 예전 unique 인덱스(seat_number 단독)를 지점별 unique 키(branch_id, seat_number)로 바꾸는 시작 시 마이그레이션
+ddl-auto: update는 새 제약조건은 만들어도 예전 인덱스는 지우지 않으므로
+예전 인덱스가 남아 있으면 두 번째 지점의 1번 좌석부터 모두 "이미 있는 좌석번호"로 막힘
+ */
+package com.studycafe.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // SeatInitializer(좌석 생성)보다 먼저 실행
+@RequiredArgsConstructor
+public class SeatIndexMigration implements CommandLineRunner {
+    private static final String TABLE = "seats";
+    private static final String BRANCH_UNIQUE_KEY = "uk_branch_seat_number";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.seat.migrate-legacy-index:true}")
+    private boolean migrateLegacyIndex;
+    /* 필드(application.yml)
+    migrateLegacyIndex : 예전 인덱스를 찾으면 직접 지울지 여부
+    false면 지우지 않고 시작을 멈춤(운영 DB에 DDL 권한이 없거나 DBA가 직접 바꿔야 하는 환경)
+     */
+
+    @Override
+    public void run(String... args) {
+        Map<String, List<String>> uniqueIndexes = uniqueIndexes();
+        if (uniqueIndexes.isEmpty()) {
+            log.warn("seats 테이블의 unique 인덱스를 읽지 못해서 인덱스 확인을 건너뜁니다(좌석 생성 시 행 수 검사로 확인)");
+            return;
+        }
+        List<String> legacyIndexes = uniqueIndexes.entrySet().stream()
+                .filter(index -> index.getValue().equals(List.of("seat_number")))
+                .map(Map.Entry::getKey)
+                .toList();
+        boolean hasBranchKey = uniqueIndexes.values().stream()
+                .anyMatch(columns -> columns.equals(List.of("branch_id", "seat_number")));
+
+        if (!legacyIndexes.isEmpty() && !migrateLegacyIndex) {
+            throw new IllegalStateException("seats 테이블에 예전 unique 인덱스 " + legacyIndexes + "가 남아 있습니다. "
+                    + "ALTER TABLE seats DROP INDEX <인덱스 이름>으로 지운 뒤 다시 시작하세요(app.seat.migrate-legacy-index=false)");
+        }
+        if (!hasBranchKey) {
+            log.warn("seats 테이블에 지점별 unique 키를 추가합니다 - {}", BRANCH_UNIQUE_KEY);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + BRANCH_UNIQUE_KEY
+                    + " UNIQUE (branch_id, seat_number)");
+        }
+        for (String index : legacyIndexes) {
+            log.warn("seats 테이블의 예전 unique 인덱스를 삭제합니다 - {}", index);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP INDEX " + index);
+        }
+    }
+    /* 시작 시 1번 실행
+    1. seats 테이블의 unique 인덱스를 모두 읽어서 {인덱스 이름 = 컬럼 목록(순서대로)}로 모음
+    하나도 못 읽으면(메타데이터를 주지 않는 드라이버 등) 건너뜀 >> 이미 있는 키를 또 추가하다 시작이 멈추지 않게
+    2. seat_number 단독 unique 인덱스 = 예전 인덱스
+    migrateLegacyIndex가 false면 지우지 않고 예외로 시작을 멈춤(조용히 0건 생성되는 것보다 바로 알 수 있게)
+    3. (branch_id, seat_number) unique 키가 없으면 먼저 추가하고 나서 예전 인덱스를 삭제
+    >> 두 인덱스가 모두 없는 순간이 없으므로 마이그레이션 도중에도 같은 지점 좌석번호 중복이 막힘
+    DDL이 실패하면 예외가 그대로 올라가서 시작이 멈춤(반쯤 바뀐 상태로 서비스하지 않음)
+    이미 바뀐 DB에서는 아무것도 하지 않음(여러 번 실행해도 결과 같음)
+     */
+
+    private Map<String, List<String>> uniqueIndexes() {
+        return jdbcTemplate.execute((ConnectionCallback<Map<String, List<String>>>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, List<String>> indexes = new LinkedHashMap<>();
+            for (String table : List.of(TABLE, TABLE.toUpperCase(Locale.ROOT))) {
+                try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, false)) {
+                    while (rs.next()) {
+                        String indexName = rs.getString("INDEX_NAME");
+                        String column = rs.getString("COLUMN_NAME");
+                        if (indexName == null || column == null || "PRIMARY".equalsIgnoreCase(indexName)) {
+                            continue;
+                        }
+                        List<String> columns = indexes.computeIfAbsent(indexName, name -> new ArrayList<>());
+                        int position = rs.getShort("ORDINAL_POSITION");
+                        while (columns.size() < position) {
+                            columns.add(null);
+                        }
+                        columns.set(position - 1, column.toLowerCase(Locale.ROOT));
+                    }
+                }
+                if (!indexes.isEmpty()) {
+                    break;
+                }
+            }
+            return indexes;
+        });
+    }
+    /* JDBC 메타데이터로 seats 테이블의 unique 인덱스 조회(기본키 제외)
+    DB마다 테이블 이름 대소문자 처리가 달라서(MySQL 소문자, H2 대문자) 두 가지로 찾아봄
+    컬럼은 인덱스 안의 순서(ORDINAL_POSITION)대로 담음
+     */
+}
@@ -5,6 +5,7 @@ package com.studycafe.config;
 
 import com.studycafe.domain.seat.Seat;
 import com.studycafe.domain.seat.SeatRepository;
+import com.studycafe.service.SeatProvisioningService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -17,6 +18,7 @@ import org.springframework.stereotype.Component;
 public class SeatInitializer implements CommandLineRunner {
 
     private final SeatRepository seatRepository;
+    private final SeatProvisioningService seatProvisioningService;
 
     @Value("${app.seat.total-count:100}")
     private int totalSeatCount;
@@ -24,17 +26,16 @@ public class SeatInitializer implements CommandLineRunner {
 
     @Override
     public void run(String... args) {
-        long existingSeatCount = seatRepository.count();
+        long existingSeatCount = seatRepository.countByBranchId(Seat.DEFAULT_BRANCH_ID);
 
         if (existingSeatCount == 0) {
             log.info("좌석 데이터가 없습니다. {}개의 좌석을 생성합니다.", totalSeatCount);
-
-            for (int i = 1; i <= totalSeatCount; i++) {
-                Seat seat = new Seat(i);
-                seatRepository.save(seat);
-            }
-
+            seatProvisioningService.provision(Seat.DEFAULT_BRANCH_ID, 1, totalSeatCount, false);
             log.info("좌석 {}개 생성이 완료되었습니다.", totalSeatCount);
+        } else if (existingSeatCount < totalSeatCount) {
+            log.info("좌석 수가 설정보다 적습니다. (현재: {}개, 설정: {}개) 부족한 좌석을 추가합니다.",
+                    existingSeatCount, totalSeatCount);
+            seatProvisioningService.provision(Seat.DEFAULT_BRANCH_ID, 1, totalSeatCount, true);
         } else {
             log.info("이미 좌석 데이터가 존재합니다. (현재: {}개)", existingSeatCount);
         }
@@ -49,15 +50,17 @@ app.seat.total-count라는 값이 있으면 그 값을 가져오고 없으면 
 
 2. 실행
 2-1. 좌석 개수 확인
-seatRepository의 count메서드를 호출해서 DB에 저장된 좌석 개수를 확인
+seatRepository의 countByBranchId메서드를 호출해서 기본 지점(1)에 저장된 좌석 개수를 확인
 
 2-2. 데이터가 하나도 없을 때만 로직 수행(0개일때)
 만약 데이터가 없다면 좌석을 생성한다는 로직 출력
-for문으로 1부터 100(설정된 수)만큼 반복
-seat 엔티티 생성자를 호출해서 좌석 객체(seat)를 생성하고 seatRepository로
-DB에 저장(INSERT)
+SeatProvisioningService로 1부터 100(설정된 수)번 좌석을 JDBC 배치 INSERT로 한꺼번에 생성
+(seatRepository.save 반복은 좌석 1개당 DB 왕복 1번이라 좌석이 많으면 시작이 느려짐)
+
+2-3. 좌석이 설정값보다 적은 경우(설정값을 늘려서 좌석을 추가한 경우)
+덮어쓰기(upsert) 모드로 1~설정값 전체를 다시 넣음 >> 이미 있는 좌석은 건너뛰고 없는 좌석만 추가
 
-2-3. 데이터가 존재하는 경우 로그만 남기고 종료
+2-4. 좌석이 충분히 존재하는 경우 로그만 남기고 종료
 
  */
 }
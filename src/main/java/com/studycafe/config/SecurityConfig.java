@@ -4,7 +4,10 @@
 package com.studycafe.config;
 
 import com.studycafe.config.jwt.JwtAuthenticationFilter;
+import com.studycafe.config.ratelimit.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -27,13 +30,17 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
     /* 비밀번호 암호화 장치
        PasswordEncoder : 스프링 시큐리티가 제공하는 비밀번호 암호화 인터페이스
        BCryptPasswordEncoder : 강력한 해싱 알고리즘인 BCrypt를 사용한 암호화 인트페이스
+       strength(app.password.bcrypt-strength)는 BCrypt의 강도(cost)로 1 올릴 때마다 해싱 시간이 2배
+       >> PasswordHashBenchmark로 서버에서 걸리는 시간을 재보고 정함
+       이미 저장된 해시에는 만들 때의 강도가 적혀 있어서 강도를 바꿔도 기존 비밀번호 비교는 그대로 됨
 
        현재 이 코드가 없다면 DB에 비밀번호가 그대로 저장되어 위험성이 존재함
        이 코드가 존재한다면 알 수 없는 언어로 비밀번호가 암호화됨
@@ -60,10 +67,14 @@ public class SecurityConfig {
 
                 .authorizeHttpRequests(auth ->
                         auth
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -87,12 +98,19 @@ public class SecurityConfig {
        추가로 swagger-ui, swagger-resources 로 시작하는 요청도 통과
        그러나 이 이외의 URL의 요청(anyRequest())은 인증 도장이 있는 사람만 통과(authenticated)
        >> 허락없이 /api/auth/에 접근하면 에러를 내보냄(403 forbidden)
+       dispatcherTypeMatchers(ASYNC)는 실시간 구독(SSE)처럼 응답을 나중에 이어서 쓰는 비동기 재진입 요청
+       >> 처음 요청에서 이미 인증 검사를 통과했으므로 재진입 때는 다시 막지 않음
+       /actuator/health, /actuator/prometheus는 로드밸런서 상태 확인과 Prometheus 수집용이라 토큰 없이 통과
+       (노출 범위는 application.yml의 management.endpoints.web.exposure.include로 제한)
+       /api/admin/**은 ROLE_ADMIN 권한이 있는 사람만 통과(권한은 JwtAuthenticationFilter가 부여)
 
        4. 내가 만든 필터 끼워 넣기
        이미 UsernamePasswordAuthenticationFilter라는 기본 검사관이 스프링 시큐리티 안에 내장되어 있음
        .addFilterBefore(A,B)는 B가 일하기 전에 A를 먼저 투입하라는 의미
        그러므로 기존 검사관이 일하기 전에 내가 만든 jwtAuthenticationFilter가 먼저 실행됨
        >> 이미 인증 도장이 찍힌 상태로 기존 검사관이 오므로 검사관은 바로 통과함
+       .addFilterAfter(rateLimitFilter, ...)로 JWT 검사 바로 뒤에 요청 횟수 제한 필터를 둠
+       >> 토큰 주인(유저 ID)을 알고 난 뒤에 유저별로 좌석 선점/확정 요청 횟수를 제한
 
        5. 설정 마무리(확정)
        지금까지 http라는 객체에 설정을 입력했고 .build()를 통해 이 모든 설정을 묶어서 최종적으로
@@ -1,6 +1,8 @@
 package com.studycafe.config;
 
+import net.javacrumbs.shedlock.core.DefaultLockingTaskExecutor;
 import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.LockingTaskExecutor;
 import net.javacrumbs.shedlock.provider.redis.spring.RedisLockProvider;
 import net.javacrumbs.shedlock.spring.annotation.EnableSchedulerLock;
 import org.springframework.context.annotation.Bean;
@@ -26,5 +28,14 @@ ShedLock 라이브러리가 락 데이터를 어디에 저장할지 알려주는
 내 Redis 연결 정보(RedisConnectionFactory)는 이거라고 LockProvider 객체에
 알려줘야 ShedLock이 작동함
 >> ShedLock이 락을 할 때 락 정보를 기록하는 곳을 지정해주는 것
+ */
+
+    @Bean
+    public LockingTaskExecutor lockingTaskExecutor(LockProvider lockProvider) {
+        return new DefaultLockingTaskExecutor(lockProvider);
+    }
+/* 코드에서 직접 ShedLock을 잡을 때 사용하는 실행기
+락 이름이 실행 중에 정해지는 경우(지점별 스케줄러 락 ex. ExpiryQueue_Lock_1)
+@SchedulerLock 대신 이 실행기로 락을 잡고 작업을 실행
  */
 }
@@ -8,7 +8,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -16,12 +18,18 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
+
+    @Value("${app.admin.user-ids:}")
+    private Set<String> adminUserIds;
+    /* adminUserIds : 관리자 권한(ROLE_ADMIN)을 줄 유저 ID 목록(application.yml, 쉼표로 구분) */
     /*
     OncePerRequestFilter는 사용자의 요청 1번당 딱 1번만 실행하는 것을 보장하는 필터
     검사를 1번 시행 후 검사 완료 딱지를 붙여서 다른 메서드로 포워딩해도 검사 완료함을 증명하여 검사를 하지 않음
@@ -38,16 +46,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 1. 헤더에서 토큰 꺼내기
         String token = resolveToken(request);
 
-        // 2. 토큰이 있고, 유효하다면
-        if (token != null && jwtTokenProvider.validateToken(token)) {
+        // 2~3. 토큰이 있다면 검증하고 유저 ID(숫자) 꺼내기 (유효하지 않으면 null)
+        String userId = token == null ? null : jwtTokenProvider.authenticate(token);
 
-            // 3. 토큰에서 유저 ID(숫자) 꺼내기
-            String userId = jwtTokenProvider.getUserId(token);
+        if (userId != null) {
 
             // 4. "이 사람은 인증된 사람입니다"라고 도장을 찍어서 서버 메모리(Context)에 저장
-            // (권한은 없으므로 빈 리스트 new ArrayList<>() 전달)
+            // (일반 유저는 권한이 없으므로 빈 리스트, 관리자 목록에 있으면 ROLE_ADMIN 전달)
             UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(userId, null, new ArrayList<>());
+                    new UsernamePasswordAuthenticationToken(userId, null,
+                            adminUserIds.contains(userId)
+                                    ? List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))
+                                    : new ArrayList<>());
 
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -58,15 +68,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
     /* 핵심 로직
     1. resolveToken 메서드를 사용자의 요청(request)를 매개변수로 하여 토큰 문자열을 token에 저장
-    2. token이 null이 아니고 JwtTokenProvider의 validateToken메서드로 정상적인지 판단하고 도장을 찍음
-    이 if문 안으로 들어온 코인은 정상코인임
-    3. JwtTokenProvider의 getUserId메서드로 토큰 주인의 ID를 꺼내서 userId에 저장
+    2~3. token이 null이 아니면 JwtTokenProvider의 authenticate메서드로 정상적인지 판단하면서
+    토큰 주인의 ID를 함께 꺼내서 userId에 저장(서명 검증은 최대 1번, 최근에 검증한 토큰이면 0번)
+    userId가 null이 아니면 if문 안으로 들어오고, 이 if문 안으로 들어온 토큰은 정상토큰임
     4. 출입증 발급 및 등록
     스프링 시큐리티가 인정하는 Authentication 객체인 UsernamePasswordAuthenticationToken 객체 생성
     (Principal, Credentials, Authorities) 총 3개의 인자가 들어감
     1번째 인자는 보통 UserDetails 객체를 넣지만 여기서는 userId가 들어감
     2번째 인자는 비밀번호지만 이미 토큰으로 인증을 완료해서 보안상 null 처리
     3번째 인자는 권한으로 빈 ArrayList를 넣어서 일반 인증 유저로 처리
+    단, app.admin.user-ids에 들어있는 유저는 ROLE_ADMIN 권한을 넣어서 관리자 API(/api/admin/**) 허용
 
     객체의 .setDetails() 메서드로 이 토큰의 IP 주소등의 부가 정보를 적음(로그 남길 시 유용)
     SecurityContext는 서버의 임시 보안 금고(저장소)로 여기에 객체를 넣어서 스프링 부트가
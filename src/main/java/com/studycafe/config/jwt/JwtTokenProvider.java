@@ -5,6 +5,7 @@ package com.studycafe.config.jwt;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,6 +14,9 @@ import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 
 @Slf4j
@@ -25,12 +29,20 @@ public class JwtTokenProvider {
     @Value("${jwt.access-token-validity-in-seconds}")
     private long tokenValidTime;
 
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
     private Key key;
+    private JwtParser parser;
+    private VerifiedTokenCache verifiedTokens;
     /* 필드 변수 및 초기화
     @Value는 application.yml에 있는 설정된 값을 가져옴
     jwt.secret은 토큰을 암호화하고 복호화할 때 쓰는 비밀키 문자열로 secretKey에 저장
     jwt.access-token ...은 토큰의 유효시간으로 tokenValidTime에 저장
+    jwt.verified-cache-size는 검증을 마친 토큰을 기억해 둘 최대 개수로 verifiedCacheSize에 저장
     key는 실제로 암호화 알고리즘에 사용될 Key 객체를 담을 변수
+    parser는 key를 장착한 JwtParser로 init에서 1번만 만들고 계속 재사용(불변 객체라 여러 스레드가 같이 써도 안전)
+    verifiedTokens는 검증을 마친 토큰의 {SHA-256 요약값 = 유저 ID + 만료 시각} 캐시(VerifiedTokenCache)
      */
 
     @PostConstruct
@@ -49,6 +61,11 @@ public class JwtTokenProvider {
 
         byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+
+        this.verifiedTokens = new VerifiedTokenCache(verifiedCacheSize);
     }
     /* 의존성 주입 완료된 후 실행되는 메서드(필드 변수 수정 과정)
        @PostContruct는 스프링이 JwtTokenProvider 객체를 생성하고 @Value에 있는 변수들을
@@ -66,6 +83,13 @@ public class JwtTokenProvider {
         로 사용함을 알리면서 전용 객체인 Key로 만드는 과정을 수행
         이때 들어온 바이트 배열의 길이를 체크하고 암호화 알고리즘에 맞게 세팅된 SecretKey 객체를 반환하여
         this.key에 저장 >> this.key는 이제 서명처럼 사용됨
+
+        Jwts.parserBuilder()에 key를 장착하고 .build()한 JwtParser를 this.parser에 저장
+        >> 토큰을 검사할 때마다 파서를 새로 만들지 않음
+
+        verifiedTokens는 ConcurrentHashMap 기반이라 요청 스레드들이 락 하나를 두고 줄 서지 않음
+        (조회할 때마다 순서를 바꾸는 LRU는 읽기도 쓰기라서 전체 락이 필요 >> 모든 요청이 한 줄로 섬)
+        개수가 jwt.verified-cache-size를 넘을 때만 만료된 것, 만료가 가까운 것 순으로 정리
      */
 
 
@@ -90,18 +114,44 @@ public class JwtTokenProvider {
 
 
 
+    public String authenticate(String token) {
+        String digest = digest(token);
+        String cachedUserId = verifiedTokens.get(digest);
+        if (cachedUserId != null) {
+            return cachedUserId;
+        }
+
+        Claims claims = verify(token);
+        if (claims == null) {
+            return null;
+        }
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, claims.getSubject(), claims.getExpiration().getTime());
+        }
+        return claims.getSubject();
+    }
+    /* 토큰 검증 + 유저 ID 추출을 한 번에(JwtAuthenticationFilter가 요청마다 호출)
+    1. 캐시 확인
+    토큰의 SHA-256 요약값으로 verifiedTokens를 찾아서 아직 만료 전이면 서명 검증 없이 바로 유저 ID 반환
+    >> 좌석 현황을 몇 초마다 조회하는 화면처럼 같은 토큰으로 계속 요청하면 만료될 때까지 HMAC 계산을 건너뜀
+    만료된 항목은 지우고 2로 넘어감(파서가 ExpiredJwtException으로 거절)
+
+    2. 검증(캐시에 없을 때만)
+    재사용하는 parser로 서명과 만료를 1번만 검사하고 꺼낸 Claims에서 sub(유저 ID)를 바로 반환
+    (예전에는 validateToken, getUserId가 각각 파서를 만들고 서명을 검사해서 요청 1번에 2번 검증)
+    통과한 토큰은 유저 ID + 만료 시각을 캐시에 저장, 실패하면 null
+
+    캐시 키를 토큰 원문이 아닌 요약값으로 해서 서버 메모리에 토큰 원문이 쌓이지 않게 함
+    위조된 토큰은 요약값이 달라서 캐시에 걸리지 않고 2에서 서명 검사로 걸러짐
+     */
+
     public String getUserId(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
+        return parser.parseClaimsJws(token)
                 .getBody()
                 .getSubject();
     }
     /* 유저 ID 추출(토큰의 주인 찾는 과정)
-    토큰을 해석(파싱)하기 위한 빌더인 Jwts.parserBuilder()를 열고
-    .setSigningKey(key)로 토큰을 만들 때 사용했던 비밀키(key)를 설정 >> 다르면 파싱 불가
-    .build()로 JwtParser 객체를 생성
+    init에서 만들어 둔 parser(JwtParser)를 재사용 >> 만들 때 사용했던 비밀키(key)와 다르면 파싱 불가
     .parseClaimsJws(token)은 JwtParser로 토큰을 검증하고 파싱 >> 서명이 잘못되면 여기서 에러 발생
     .getBody()는 토큰의 내용(Claims,페이로드)를 가져옴
     .getSubject()는 내용 중에서 Payload에 넣었던 값(userId)를 꺼내서 반환
@@ -110,12 +160,13 @@ public class JwtTokenProvider {
 
 
     public boolean validateToken(String token) {
+        return verify(token) != null;
+    }
+    /* 토큰의 유효성 검사(토큰이 사용 가능한지 검사하는 메서드) */
+
+    private Claims verify(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (SecurityException | MalformedJwtException e) {
             log.info("잘못된 JWT 서명입니다."); // 위조 또는 깨진 토큰
         } catch (ExpiredJwtException e) {
@@ -125,11 +176,22 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException e) {
             log.info("JWT 토큰이 잘못되었습니다.(비어있음)"); // 값이 비어있는 토큰
         }
-        return false;
-        /* 토큰의 유효성 검사(토큰이 사용 가능한지 검사하는 메서드)
-        getUserId와 같이 key를 장착하고 .build()하여 JwtParser 겍체를 생성하고
-        .parseClaimsJws(token)으로 서명을 검증하고 일치하는 지 확인 >> true면 메서드 통과
-        만약 false라면 각 상황별로 log 출력
+        return null;
+        /* 서명 검증 + 내용(Claims) 꺼내기
+        parser로 .parseClaimsJws(token)해서 서명을 검증하고 일치하면 내용(Claims)을 반환
+        만약 실패라면 각 상황별로 log 출력 후 null
          */
     }
-}
\ No newline at end of file
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256을 사용할 수 없습니다.", e);
+        }
+    }
+    /* 토큰의 SHA-256 요약값(캐시 키)
+    MessageDigest는 여러 스레드가 같이 쓰면 안 되므로 호출할 때마다 새로 받음(HMAC 검증보다 훨씬 가벼움)
+     */
+}
@@ -0,0 +1,97 @@
+/*
+검증을 마친 JWT를 만료 시각까지 기억해 두는 캐시(JwtTokenProvider 전용)
+요청마다 모든 스레드가 거치는 곳이라 전체를 잠그는 락 없이 ConcurrentHashMap으로 읽고 씀
+개수가 최대치를 넘으면 그때만 정리(만료된 것 먼저, 그래도 많으면 만료가 가장 가까운 것부터)
+ */
+package com.studycafe.config.jwt;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+final class VerifiedTokenCache {
+    private final int maxSize;
+    private final int lowWaterMark;
+    private final LongSupplier clock;
+    private final Map<String, VerifiedToken> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    /* 필드
+    maxSize : 최대 개수(jwt.verified-cache-size), 넘으면 정리 시작
+    lowWaterMark : 정리할 때 줄이는 목표 개수(최대치의 90%) >> 최대치 근처에서 넣을 때마다 정리가 반복되지 않음
+    clock : 현재 시각(밀리초), 테스트에서 시간을 직접 움직일 수 있게 받음
+    entries : {토큰 SHA-256 요약값 = 유저 ID + 만료 시각}
+    evicting : 정리는 한 번에 1개 스레드만(나머지 스레드는 정리를 기다리지 않고 그냥 지나감)
+     */
+
+    private record VerifiedToken(String userId, long expiresAt) {
+    }
+    /* 검증된 토큰 정보 : 토큰 주인(sub) + 만료 시각(exp, 밀리초) */
+
+    VerifiedTokenCache(int maxSize) {
+        this(maxSize, System::currentTimeMillis);
+    }
+
+    VerifiedTokenCache(int maxSize, LongSupplier clock) {
+        this.maxSize = Math.max(maxSize, 1);
+        this.lowWaterMark = Math.max(this.maxSize - this.maxSize / 10, 1);
+        this.clock = clock;
+    }
+
+    String get(String digest) {
+        VerifiedToken cached = entries.get(digest);
+        if (cached == null) {
+            return null;
+        }
+        if (clock.getAsLong() < cached.expiresAt()) {
+            return cached.userId();
+        }
+        entries.remove(digest, cached);
+        return null;
+    }
+    /* 조회 : 만료 전이면 유저 ID, 없거나 만료됐으면 null(만료된 항목은 바로 지움)
+    ConcurrentHashMap 조회는 락이 없으므로 요청 스레드끼리 서로 기다리지 않음
+     */
+
+    void put(String digest, String userId, long expiresAt) {
+        entries.put(digest, new VerifiedToken(userId, expiresAt));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+    /* 저장 : 넣은 뒤 최대치를 넘었을 때만 정리 */
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        while (entries.size() > maxSize && evicting.compareAndSet(false, true)) {
+            try {
+                long now = clock.getAsLong();
+                entries.values().removeIf(token -> token.expiresAt() <= now);
+
+                int excess = entries.size() - lowWaterMark;
+                if (excess > 0) {
+                    entries.entrySet().stream()
+                            .sorted(Comparator.comparingLong(entry -> entry.getValue().expiresAt()))
+                            .limit(excess)
+                            .toList()
+                            .forEach(entry -> entries.remove(entry.getKey(), entry.getValue()));
+                }
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+    /* 정리(최대치를 넘었을 때만, 한 번에 1개 스레드)
+    1. 만료된 토큰을 모두 지움
+    2. 그래도 lowWaterMark보다 많으면 만료 시각이 가장 가까운 토큰부터 지움
+    토큰 유효시간이 모두 같으므로 만료가 가까운 토큰 = 가장 먼저 발급된 토큰
+    >> 지워져도 다음 요청 때 서명 검증 1번 후 다시 들어옴
+    최대치까지 줄이지 않고 90%까지 줄여서 정리(정렬)는 새 토큰 약 10%마다 1번만 일어남
+    정리 중에 다른 스레드가 넣어서 다시 넘었으면 정리를 마친 스레드가 한 번 더 정리
+    >> 정리를 건너뛴 스레드가 있어도 모든 put이 끝난 뒤에는 항상 최대치 이하
+     */
+}
@@ -0,0 +1,114 @@
+/*
+좌석 선점/확정 요청 횟수 제한 필터
+JwtAuthenticationFilter 바로 뒤에서 토큰 주인(JWT sub) 기준으로 구간별 토큰 버킷을 확인하고
+너무 자주 요청하면 컨트롤러까지 가지 않고 429 + Retry-After 헤더로 돌려보냄
+>> 이미 선점된 좌석에 계속 재시도하는 스크립트 클라이언트가 Redis 락을 두드리지 못하게 함
+ */
+package com.studycafe.config.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studycafe.global.exception.ErrorCode;
+import com.studycafe.global.exception.ErrorResponse;
+import com.studycafe.global.metrics.ReservationMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String PRE_OCCUPY = "pre-occupy";
+    private static final String CONFIRM = "confirm";
+
+    private final RedisRateLimiter redisRateLimiter;
+    private final ReservationMetrics reservationMetrics;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.pre-occupy.capacity:10}")
+    private int preOccupyCapacity;
+
+    @Value("${app.rate-limit.pre-occupy.refill-per-second:1}")
+    private double preOccupyRefillPerSecond;
+
+    @Value("${app.rate-limit.confirm.capacity:5}")
+    private int confirmCapacity;
+
+    @Value("${app.rate-limit.confirm.refill-per-second:1}")
+    private double confirmRefillPerSecond;
+    /* 필드(application.yml)
+    enabled : 요청 제한 사용 여부
+    구간별 capacity : 한꺼번에 보낼 수 있는 최대 요청 수(버킷 크기)
+    구간별 refill-per-second : 1초에 다시 채워지는 요청 수(오래 보면 이 속도까지만 허용)
+    pre-occupy 구간 : /pre-occupy, /pre-occupy/any, /pre-occupy/group (버킷 1개를 같이 씀)
+    confirm 구간 : /confirm, /confirm/group
+     */
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || bucket(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            filterChain.doFilter(request, response); // 토큰이 없으면 뒤에서 인증 실패로 막힘
+            return;
+        }
+
+        String bucket = bucket(request.getRequestURI());
+        long retryAfterMs = PRE_OCCUPY.equals(bucket)
+                ? redisRateLimiter.tryAcquire(bucket, authentication.getName(), preOccupyCapacity, preOccupyRefillPerSecond)
+                : redisRateLimiter.tryAcquire(bucket, authentication.getName(), confirmCapacity, confirmRefillPerSecond);
+        if (retryAfterMs <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        reservationMetrics.rateLimited(bucket);
+        ErrorCode errorCode = ErrorCode.RATE_LIMITED;
+        response.setStatus(errorCode.getStatus().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RedisRateLimiter.retryAfterSeconds(retryAfterMs));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), ErrorResponse.toResponseEntity(errorCode).getBody());
+    }
+    /* 핵심 로직
+    1. JwtAuthenticationFilter가 넣어둔 인증 정보에서 토큰 주인(유저 ID)을 꺼냄
+    요청 본문의 userId가 아닌 토큰 주인 기준이라 userId를 바꿔가며 보내도 같은 버킷을 씀
+    2. 구간 버킷에서 토큰 1개를 꺼내고 통과면 다음 필터(컨트롤러)로
+    3. 거절이면 429(RATE_LIMITED) + Retry-After(초, 올림) 헤더와 함께 바로 응답
+    필터는 컨트롤러 밖이라 GlobalExceptionHandler가 처리하지 못하므로 같은 ErrorResponse 양식을 직접 JSON으로 씀
+     */
+
+    private static String bucket(String uri) {
+        return switch (uri) {
+            case "/api/reservations/pre-occupy",
+                 "/api/reservations/pre-occupy/any",
+                 "/api/reservations/pre-occupy/group" -> PRE_OCCUPY;
+            case "/api/reservations/confirm",
+                 "/api/reservations/confirm/group" -> CONFIRM;
+            default -> null;
+        };
+    }
+    /* 요청 주소 >> 제한 구간 이름(제한 대상이 아니면 null) */
+}
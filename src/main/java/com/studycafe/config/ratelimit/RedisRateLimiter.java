@@ -0,0 +1,120 @@
+/*
+요청 횟수 제한(토큰 버킷)을 Redis에 들고 있는 곳(유저별 : RateLimitFilter, 좌석별 : ReservationController)
+버킷마다 토큰을 최대 capacity개까지 담고 1초에 refillPerSecond개씩 다시 채움
+요청 1번에 토큰 1개를 쓰고, 토큰이 없으면 거절 + 토큰 1개가 찰 때까지 남은 시간을 알려줌
+서버가 여러 대여도 같은 Redis 버킷을 쓰므로 유저 1명의 전체 요청 속도가 제한됨
+ */
+package com.studycafe.config.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisRateLimiter {
+    private static final String KEY_PREFIX = "rate_limit:";
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<Long>> TAKE_SCRIPT = new DefaultRedisScript(
+            "local capacity = tonumber(ARGV[1]) " +
+            "local rate = tonumber(ARGV[2]) " +
+            "local now = tonumber(ARGV[3]) " +
+            "local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts') " +
+            "local tokens = tonumber(bucket[1]) " +
+            "local ts = tonumber(bucket[2]) " +
+            "if tokens == nil or ts == nil then tokens = capacity ts = now end " +
+            "if now > ts then " +
+            "  tokens = math.min(capacity, tokens + (now - ts) * rate / 1000) ts = now " +
+            "end " +
+            "local retryAfter = 0 " +
+            "if tokens >= 1 then tokens = tokens - 1 " +
+            "else retryAfter = math.ceil((1 - tokens) * 1000 / rate) end " +
+            "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(ts)) " +
+            "redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000) " +
+            "return {retryAfter}",
+            List.class
+    );
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final Map<String, Long> blockedUntil = new ConcurrentHashMap<>();
+    /* 필드
+    키 : rate_limit:구간이름:대상(ex. 유저 구간 rate_limit:pre-occupy:42, 좌석 구간 rate_limit:seat:1:5)
+    Hash {tokens = 남은 토큰, ts = 마지막 계산 시각(ms)}
+
+    TAKE_SCRIPT : 지난 계산 이후 흐른 시간만큼 토큰을 채우고(최대 capacity) 1개를 꺼냄
+    꺼냈으면 0, 토큰이 모자라면 1개가 찰 때까지 남은 시간(ms)을 반환
+    읽기 + 채우기 + 꺼내기를 스크립트 1개로 하므로 여러 서버가 동시에 요청해도 토큰이 중복으로 나가지 않음
+    버킷이 가득 찰 만큼 시간이 지나면(+1초) 키가 자동 삭제 >> 다시 오면 가득 찬 버킷으로 시작하는 것과 같음
+
+    blockedUntil : {키 = 다시 시도해도 되는 시각(System.nanoTime 기준)}(이 서버의 메모리)
+    Redis가 거절한 버킷은 그 시각 전까지 Redis에 묻지 않고 이 서버에서 바로 거절
+    다른 서버가 같은 버킷을 써도 토큰이 줄기만 할 뿐 빨리 차지는 않으므로 미리 거절해도 결과가 같음
+    >> 실패를 계속 재시도하는 클라이언트의 요청이 Redis까지 가지 않음
+     */
+
+    public long tryAcquire(String bucket, String subject, int capacity, double refillPerSecond) {
+        String key = KEY_PREFIX + bucket + ":" + subject;
+        long now = System.nanoTime();
+        Long until = blockedUntil.get(key);
+        if (until != null) {
+            if (until - now > 0) {
+                return TimeUnit.NANOSECONDS.toMillis(until - now) + 1;
+            }
+            blockedUntil.remove(key, until);
+        }
+
+        try {
+            long retryAfterMs = take(key, capacity, refillPerSecond, System.currentTimeMillis());
+            if (retryAfterMs > 0) {
+                blockedUntil.put(key, now + TimeUnit.MILLISECONDS.toNanos(retryAfterMs));
+            }
+            return retryAfterMs;
+        } catch (Exception e) {
+            log.warn("요청 제한 확인 중 오류 발생(제한 없이 통과) - Key: {}, Error: {}", key, e.getMessage());
+            return 0;
+        }
+    }
+    /* 토큰 1개 꺼내기 : 통과면 0, 거절이면 다시 시도해도 되는 시간(ms)
+    1. 이 서버가 최근에 거절한 버킷이면 Redis 왕복 없이 남은 시간만 계산해서 거절
+    2. 아니면 TAKE_SCRIPT 1번(Redis 왕복 1번)으로 꺼내고, 거절되면 다시 시도할 시각을 메모리에 기억
+    Redis 장애 중에는 제한 없이 통과(요청 제한 때문에 좌석 선점 자체가 막히지 않게)
+     */
+
+    long take(String key, int capacity, double refillPerSecond, long nowMs) {
+        List<Long> result = redisTemplate.execute(TAKE_SCRIPT, List.of(key),
+                String.valueOf(capacity), String.valueOf(refillPerSecond), String.valueOf(nowMs));
+        return result == null || result.isEmpty() ? 0 : result.get(0);
+    }
+    /* TAKE_SCRIPT 1번 실행(Redis 왕복 1번) : 통과면 0, 거절이면 토큰 1개가 찰 때까지 남은 시간(ms)
+    현재 시각(nowMs)을 받아서 넘기므로 테스트에서 시간을 정해서 토큰 계산을 확인할 수 있음
+     */
+
+    public static String retryAfterSeconds(long retryAfterMs) {
+        return String.valueOf(Math.max((retryAfterMs + 999) / 1000, 1));
+    }
+    /* Retry-After 헤더 값(초) : 남은 시간(ms)을 초 단위로 올림(ex. 1ms, 1000ms >> 1, 1001ms >> 2)
+    내림하면 너무 일찍 다시 시도해서 또 거절되므로 올림, 0초는 보내지 않음(최소 1)
+    RateLimitFilter(유저 구간)와 ReservationController(좌석 구간)가 같이 사용
+     */
+
+    @Scheduled(fixedDelay = 10000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        blockedUntil.entrySet().removeIf(entry -> entry.getValue() - now <= 0);
+    }
+    /* 시간이 지난 거절 기록 정리(10초마다, 이 서버 메모리라서 ShedLock 사용 안 함)
+    다시 요청하지 않은 클라이언트의 기록이 메모리에 쌓이지 않게 함
+     */
+}
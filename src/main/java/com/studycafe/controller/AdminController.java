@@ -0,0 +1,39 @@
+/*
+관리자 전용 요청을 받는 역할(ROLE_ADMIN만 접근 가능, SecurityConfig 참고)
+ */
+package com.studycafe.controller;
+
+import com.studycafe.dto.SeatProvisionDto;
+import com.studycafe.service.SeatProvisioningService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+    private final SeatProvisioningService seatProvisioningService;
+
+    // 좌석 일괄 생성 API
+    @PostMapping("/seats") // POST /api/admin/seats
+    public ResponseEntity<SeatProvisionDto.Response> provisionSeats(
+            @RequestBody @Valid SeatProvisionDto.Request request) {
+        return ResponseEntity.ok(seatProvisioningService.provision(
+                request.getBranchId(),
+                request.getFromSeatNumber(),
+                request.getToSeatNumber(),
+                request.isUpsert()
+        ));
+    }
+    /* 좌석 일괄 생성(/api/admin/seats, post)
+    새 지점(홀)을 열거나 기존 지점에 좌석을 추가할 때 사용
+    ex. {"branchId": 2, "fromSeatNumber": 1, "toSeatNumber": 200} >> 2지점에 1~200번 좌석 200개 생성
+    upsert(기본값 true)면 이미 있는 좌석번호는 건너뛰므로 같은 요청을 여러 번 보내도 안전
+    새로 만들어진 좌석 수와 전체 좌석 수를 응답으로 반환
+     */
+}
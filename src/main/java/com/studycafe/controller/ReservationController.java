@@ -3,15 +3,31 @@
  */
 package com.studycafe.controller;
 
+import com.studycafe.config.ratelimit.RedisRateLimiter;
 import com.studycafe.dto.ReservationDto;
 import com.studycafe.dto.SeatStatusDto;
+import com.studycafe.dto.WaitingRoomDto;
+import com.studycafe.global.exception.ErrorCode;
+import com.studycafe.global.exception.ErrorResponse;
+import com.studycafe.global.metrics.ReservationMetrics;
+import com.studycafe.service.GroupReservationService;
 import com.studycafe.service.ReservationService;
+import com.studycafe.service.SeatStatusStreamService;
+import com.studycafe.service.SlotReservationService;
+import com.studycafe.service.WaitingRoomService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
+import java.util.Base64;
 import java.util.List;
 
 @RestController // 데이터(JSON)을 주는 컨트롤러임을 선언
@@ -19,28 +35,179 @@ import java.util.List;
 @RequiredArgsConstructor // final이 붙은 필드 생성자 자동 생성
 public class ReservationController {
     private final ReservationService reservationService; // 서비스 객체 의존성 주입
+    private final SeatStatusStreamService seatStatusStreamService; // 실시간 좌석 현황 전송
+    private final ReservationMetrics reservationMetrics; // 단계별 처리 시간 기록
+    private final WaitingRoomService waitingRoomService; // 좌석 오픈 대기열
+    private final GroupReservationService groupReservationService; // 단체석 선점/확정
+    private final SlotReservationService slotReservationService; // 미래 시간대 예약
+    private final RedisRateLimiter redisRateLimiter; // 좌석별 선점 요청 횟수 제한
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean rateLimitEnabled;
+
+    @Value("${app.rate-limit.seat.capacity:20}")
+    private int seatRateCapacity;
+
+    @Value("${app.rate-limit.seat.refill-per-second:10}")
+    private double seatRateRefillPerSecond;
+    /* 필드(application.yml)
+    rateLimitEnabled : 요청 횟수 제한 사용 여부(RateLimitFilter와 같은 설정)
+    seatRateCapacity : 좌석 1개에 한꺼번에 들어올 수 있는 최대 선점 요청 수
+    seatRateRefillPerSecond : 좌석 1개에 1초에 다시 채워지는 선점 요청 수
+     */
+
+    // 대기열 입장 API
+    @PostMapping("/waiting-room") // POST /api/reservations/waiting-room
+    public ResponseEntity<WaitingRoomDto.Status> enterWaitingRoom(
+            @RequestBody @Valid WaitingRoomDto.EnterRequest request) {
+        return ResponseEntity.ok(waitingRoomService.enter(request.getBranchId(), request.getUserId()));
+    }
+    /* 대기열 입장(/waiting-room, post) : 좌석 오픈 전에 호출해서 줄을 서고 입장권(admissionToken)을 받음
+    여러 번 호출해도 같은 자리와 같은 입장권을 돌려줌(새로고침해도 순서가 밀리지 않음)
+    대기열이 꺼져 있으면 바로 ADMITTED
+     */
+
+    // 대기 순번 조회 API
+    @GetMapping("/waiting-room")
+    public ResponseEntity<WaitingRoomDto.Status> getWaitingRoomStatus(
+            @RequestParam(defaultValue = "1") Long branchId,
+            @RequestParam Long userId) {
+        return ResponseEntity.ok(waitingRoomService.status(branchId, userId));
+    }
+    /* 대기 순번 조회(/waiting-room?branchId=1&userId=10, get)
+    state가 ADMITTED가 될 때까지 응답의 pollAfterMs 간격으로 다시 조회
+    ADMITTED가 되면 입장 요청 때 받은 입장권을 /pre-occupy에 함께 보냄
+    NONE이면 입장 시간이 지났거나 줄을 서지 않은 것이므로 다시 입장 요청
+     */
     
     // 좌석 선점(임시 점유) API
     @PostMapping("/pre-occupy") // POST /api/reservations/pre-occupy
-    public ResponseEntity<String> preOccupySeat(
+    public ResponseEntity<?> preOccupySeat(
             @RequestBody @Valid ReservationDto.PreOccupyRequest request) {
 
-            String result = reservationService
-                    .preOccupySeat(request.getUserId(), request.getSeatNumber());
-            return ResponseEntity.ok(result);
+            if (rateLimitEnabled) {
+                long retryAfterMs = redisRateLimiter.tryAcquire("seat", request.getBranchId() + ":" + request.getSeatNumber(),
+                        seatRateCapacity, seatRateRefillPerSecond);
+                if (retryAfterMs > 0) {
+                    reservationMetrics.rateLimited("seat");
+                    return ResponseEntity.status(ErrorCode.RATE_LIMITED.getStatus())
+                            .header(HttpHeaders.RETRY_AFTER, RedisRateLimiter.retryAfterSeconds(retryAfterMs))
+                            .body(ErrorResponse.toResponseEntity(ErrorCode.RATE_LIMITED).getBody());
+                }
+            }
+
+            ReservationService.PreOccupyResult result = reservationMetrics.recordOperation("pre_occupy", () -> {
+                waitingRoomService.checkAdmitted(request.getBranchId(), request.getUserId(), request.getAdmissionToken());
+                ReservationService.PreOccupyResult preOccupied = reservationService
+                        .tryPreOccupySeat(request.getUserId(), request.getBranchId(), request.getSeatNumber());
+                if (preOccupied.success()) {
+                    waitingRoomService.leave(request.getBranchId(), request.getUserId());
+                }
+                return preOccupied;
+            }, ReservationService.PreOccupyResult::errorCode);
+
+            if (!result.success()) {
+                return ErrorResponse.toResponseEntity(result.errorCode());
+            }
+            return ResponseEntity.ok("좌석 " + request.getSeatNumber() + "번을 5분간 선점했습니다.");
     }
     /* 좌석 선점 요청(/pre-occupy) : 사용자가 좌석을 클릭했을 때 호출되는 API
     ResponseEntity<String> : 글자와 함께 HTTP 상태코드를 같이 조절해서 보내주는 포장지 역할
     @RequestBody : 사용자가 보낸 JSON데이터 객체를 JAVA 객체(PreOccupyRequest)로 변환
     @Valid는 Reservation에서 만든 규칙이 제대로 되어있는지 검사
 
+    좌석별 요청 횟수 제한(좌석 구간 버킷, 키 rate_limit:seat:지점ID:좌석번호)을 먼저 확인
+    유저별 제한(RateLimitFilter)은 유저 1명의 속도만 막으므로, 여러 계정이 같은 좌석 1개에 몰리면
+    그 좌석의 Redis 락 시도가 계정 수만큼 늘어남 >> 좌석 1개당 초당 시도 수를 제한하고 넘으면 429 + Retry-After
+    대기열이 켜져 있으면 먼저 입장권을 확인하고(입장 전이면 429), 선점에 성공하면 입장 자리를 반납
     Service에게 Redis로 가서 선점 요청을 시킴
     Redis에서 좌석 선점 요청을 한 결과를 result에 저장
-    이때 변환된 JAVA 객체인 request에서 UserId, SeatNumber를 가져와서 매개변수에 넣음
+    이때 변환된 JAVA 객체인 request에서 UserId, BranchId(지점), SeatNumber를 가져와서 매개변수에 넣음
 
     만약 성공하면 200 OK라는 Http 상태코드와 함께 결과 메시지 전송
-    만약 실패하면 자동으로 ExceptionHandler로 넘어감
-    e.getMessage()에는 "이미 선택된 좌석입니다"라는 같은 문구가 들어감
+    이미 선점된 좌석(SEAT_ALREADY_LOCKED), 이미 이용 중(SEAT_ALREADY_OCCUPIED)은 예외 없이 결과로 받아서
+    미리 만들어 둔 에러 응답(ErrorResponse.toResponseEntity)을 바로 반환
+    >> 좌석 오픈 때 대부분을 차지하는 실패 응답이 예외 생성, ExceptionHandler를 거치지 않음
+    그 외 실패(입력값 오류, 대기열 미입장 등)는 지금처럼 ExceptionHandler로 넘어감
+    처리 시간과 결과(성공, 실패 ErrorCode)는 reservationMetrics가 reservation.operation 타이머로 기록
+     */
+
+
+    // 빈 좌석 자동 선점 API
+    @PostMapping("/pre-occupy/any") // POST /api/reservations/pre-occupy/any
+    public ResponseEntity<ReservationDto.PreOccupyAnyResponse> preOccupyAnySeat(
+            @RequestBody @Valid ReservationDto.PreOccupyAnyRequest request) {
+
+            Integer seatNumber = reservationMetrics.recordOperation("pre_occupy_any", () -> {
+                waitingRoomService.checkAdmitted(request.getBranchId(), request.getUserId(), request.getAdmissionToken());
+                Integer allocated = reservationService.preOccupyAnySeat(
+                        request.getUserId(),
+                        request.getBranchId(),
+                        request.getFromSeatNumber(),
+                        request.getToSeatNumber(),
+                        request.getNearSeatNumber()
+                );
+                waitingRoomService.leave(request.getBranchId(), request.getUserId());
+                return allocated;
+            });
+            return ResponseEntity.ok(new ReservationDto.PreOccupyAnyResponse(
+                    seatNumber, "좌석 " + seatNumber + "번을 5분간 선점했습니다."));
+    }
+    /* 빈 좌석 자동 선점 요청(/pre-occupy/any) : 좌석을 고르지 않고 "아무 자리나" 선점
+    ex. {"userId": 10, "fromSeatNumber": 1, "toSeatNumber": 30} >> 1~30번 구역의 빈 좌석 1개
+    ex. {"userId": 11, "nearSeatNumber": 15} >> 15번과 가장 가까운 빈 좌석 1개
+    배정된 좌석번호를 응답으로 받아서 결제 후 /confirm에 그대로 사용
+    빈 좌석이 없으면 NO_AVAILABLE_SEAT(409)
+    대기열 입장 확인/반납은 /pre-occupy와 같음
+     */
+
+    // 단체석 선점 API
+    @PostMapping("/pre-occupy/group") // POST /api/reservations/pre-occupy/group
+    public ResponseEntity<ReservationDto.GroupPreOccupyResponse> preOccupyGroupSeats(
+            @RequestBody @Valid ReservationDto.GroupPreOccupyRequest request) {
+
+            List<Integer> seatNumbers = reservationMetrics.recordOperation("pre_occupy_group", () -> {
+                waitingRoomService.checkAdmitted(request.getBranchId(), request.getUserId(), request.getAdmissionToken());
+                List<Integer> locked = groupReservationService.preOccupyGroupSeats(
+                        request.getUserId(),
+                        request.getBranchId(),
+                        request.getSeatNumbers(),
+                        request.getGroupSize(),
+                        request.getFromSeatNumber(),
+                        request.getToSeatNumber()
+                );
+                waitingRoomService.leave(request.getBranchId(), request.getUserId());
+                return locked;
+            });
+            return ResponseEntity.ok(new ReservationDto.GroupPreOccupyResponse(
+                    seatNumbers, "좌석 " + seatNumbers + "번을 5분간 선점했습니다."));
+    }
+    /* 단체석 선점 요청(/pre-occupy/group) : 여러 좌석을 한 번에 선점(전부 잡히거나 하나도 안 잡힘)
+    ex. {"userId": 10, "seatNumbers": [3, 4, 5]} >> 3, 4, 5번을 한 번에 선점(하나라도 이미 잡혀 있으면 409)
+    ex. {"userId": 10, "seatNumbers": [3, 5]} >> 번호가 이어지지 않아서 400(SEATS_NOT_ADJACENT)
+    ex. {"userId": 10, "groupSize": 4, "fromSeatNumber": 1, "toSeatNumber": 30} >> 1~30번 구역에서 번호가 이어진 빈 좌석 4개
+    선점한 좌석을 하나씩 취소할 때는 기존 /cancel 사용
+     */
+
+    // 단체석 예약 확정 API
+    @PostMapping("/confirm/group") // POST /api/reservations/confirm/group
+    public ResponseEntity<String> confirmGroupReservation(
+            @RequestBody @Valid ReservationDto.GroupReserveRequest request) {
+
+            List<Long> reservationIds = reservationMetrics.recordOperation("confirm_group", () ->
+                    groupReservationService.confirmGroupReservation(
+                            request.getUserId(),
+                            request.getBranchId(),
+                            request.getSeatNumbers(),
+                            request.getMemberUserIds(),
+                            request.getHours()
+                    ));
+            return ResponseEntity.ok("단체석 예약이 확정되었습니다. 예약 ID : " + reservationIds);
+    }
+    /* 단체석 확정 요청(/confirm/group) : 대표자가 결제를 마친 뒤 호출
+    ex. {"userId": 10, "seatNumbers": [3, 4, 5], "memberUserIds": [10, 11, 12], "hours": 2}
+    >> 3번은 10번, 4번은 11번, 5번은 12번 사용자의 예약(일행마다 예약 1건, 퇴실도 각자 /end-use)
+    하나라도 실패하면 모든 예약이 롤백됨
      */
 
 
@@ -49,11 +216,13 @@ public class ReservationController {
     public ResponseEntity<String> confirmReservation(
             @RequestBody @Valid ReservationDto.ReserveRequest request) {
 
-            Long reservationId = reservationService.confirmReservation(
-                    request.getUserId(),
-                    request.getSeatNumber(),
-                    request.getHours()
-            );
+            Long reservationId = reservationMetrics.recordOperation("confirm", () ->
+                    reservationService.confirmReservation(
+                            request.getUserId(),
+                            request.getBranchId(),
+                            request.getSeatNumber(),
+                            request.getHours()
+                    ));
             return ResponseEntity.ok("예약이 확정되었습니다. 예약 ID : " + reservationId);
 
     }
@@ -63,6 +232,7 @@ ResponseEntity<String> : 글자와 함께 HTTP 상태코드를 같이 조절해
 
 Service에게 진짜 저장을 시킴(DB 저장 + Redis 락 해제)
 Service에게 데이터를 진짜 DB에 INSERT하도록 지시
+서비스 호출을 reservationMetrics로 감싸서 트랜잭션 커밋까지 포함한 처리 시간을 기록
 
 만약 성공하면 예약 ID를 포함해서 응답 메시지 전송
 만약 실패하면 자동으로 GlobalExceptionHandler로 넘어감
@@ -72,17 +242,109 @@ Service에게 데이터를 진짜 DB에 INSERT하도록 지시
 
     // 좌석 현황판 요청 API
     @GetMapping("/seats")
-    public ResponseEntity<List<SeatStatusDto>> getSeatStatus() {
-        return ResponseEntity.ok(reservationService.getAllSeatStatus());
+    public ResponseEntity<List<SeatStatusDto>> getSeatStatus(
+            @RequestParam(defaultValue = "1") Long branchId) {
+        return ResponseEntity.ok(reservationService.getAllSeatStatus(branchId));
     }
-    /* 좌석 현황판 요청(/seats, get(데이터조회))
-reservationService의 메서드를 호출해서 DB(이용중), Redis(결제 중)인 사람들을
-뒤져서 100개의 좌석 리스트를 생성받고 이를 ResponseEntity.ok()로
+    /* 좌석 현황판 요청(/seats?branchId=1, get(데이터조회))
+branchId(지점)를 생략하면 기본 지점(1)의 현황판을 반환
+reservationService의 메서드를 호출해서 해당 지점 좌석 현황판(SeatStatusStore)에 좌석 단위로
+관리되는 100개의 좌석 리스트를 받고 이를 ResponseEntity.ok()로
 상태코드 200 성공 도장을 찍어서 전송
 
 ResponseEntity는 HTTP응답을 감싸는 포장지 역할로 데이터와 함께 상태코드를 전송
  */
 
+    // 압축 좌석 현황판 요청 API(좌석당 2비트)
+    @GetMapping("/seats/bitmap")
+    public ResponseEntity<byte[]> getSeatStatusBitmap(
+            @RequestParam(defaultValue = "1") Long branchId,
+            @RequestParam(defaultValue = "binary") String encoding) {
+        byte[] bitmap = reservationService.getSeatStatusBitmap(branchId);
+
+        if ("base64".equalsIgnoreCase(encoding)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(Base64.getEncoder().encode(bitmap));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(bitmap);
+    }
+    /* 압축 좌석 현황판 요청(/seats/bitmap, get)
+좌석 N번의 상태는 (N-1)*2 번째 비트부터 2비트(00 빈자리, 01 결제중, 10 이용중)
+1바이트에 좌석 4개가 들어가므로 좌석 100개 = 25바이트
+encoding=base64면 텍스트(Base64)로, 기본값은 바이너리 그대로 전송
+>> JSON 리스트보다 응답 크기와 직렬화 비용이 훨씬 작음
+ */
+
+    // 미래 시간대 예약 API
+    @PostMapping("/slots") // POST /api/reservations/slots
+    public ResponseEntity<String> reserveSlot(
+            @RequestBody @Valid ReservationDto.SlotReserveRequest request) {
+
+            Long reservationId = reservationMetrics.recordOperation("reserve_slot", () ->
+                    slotReservationService.reserveSlot(
+                            request.getUserId(),
+                            request.getBranchId(),
+                            request.getSeatNumber(),
+                            request.getStartTime(),
+                            request.getMinutes()
+                    ));
+            return ResponseEntity.ok("예약이 확정되었습니다. 예약 ID : " + reservationId);
+    }
+    /* 미래 시간대 예약(/slots, post) : 좌석 선점 없이 날짜 + 시작 시각 + 이용 시간(분)으로 바로 예약
+    ex. {"userId": 10, "seatNumber": 7, "startTime": "2026-10-18T14:00:00", "minutes": 120}
+    시작 시각과 이용 시간은 15분 단위, 이미 예약된 시간대와 겹치면 SLOT_ALREADY_RESERVED(409)
+     */
+
+    // 미래 시간대 예약 취소 API
+    @PostMapping("/slots/cancel") // POST /api/reservations/slots/cancel
+    public ResponseEntity<String> cancelSlot(
+            @RequestBody @Valid ReservationDto.SlotCancelRequest request) {
+        reservationMetrics.recordOperation("cancel_slot", () ->
+                slotReservationService.cancelSlot(request.getUserId(), request.getReservationId()));
+        return ResponseEntity.ok("예약이 취소되었습니다.");
+    }
+    /* 시작 전인 시간대 예약 취소(/slots/cancel, post) : 취소한 시간대는 바로 다른 사람이 예약 가능 */
+
+    // 하루치 좌석 x 시간대 예약표 API
+    @GetMapping("/slots")
+    public ResponseEntity<byte[]> getDaySlots(
+            @RequestParam(defaultValue = "1") Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "binary") String encoding) {
+        byte[] slots = slotReservationService.getDaySlots(branchId, date);
+
+        if ("base64".equalsIgnoreCase(encoding)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(Base64.getEncoder().encode(slots));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(slots);
+    }
+    /* 하루치 좌석 x 시간대 예약표(/slots?branchId=1&date=2026-10-18, get)
+좌석 N번의 하루치는 (N-1)*12 바이트부터 12바이트(96비트), 각 비트는 15분 칸(0번 비트 = 00:00~00:15)
+비트가 1이면 예약된 칸, 0이면 빈 칸(바이트의 최상위 비트가 먼저)
+응답 길이가 짧으면 그 뒤 좌석은 모두 빈 칸
+좌석 100개 x 96칸 = 1,200바이트를 Redis GET 1번으로 반환(예약 테이블 조회 없음)
+encoding=base64면 텍스트(Base64)로, 기본값은 바이너리 그대로 전송
+ */
+
+    // 실시간 좌석 현황 구독 API(Server-Sent Events)
+    @GetMapping(value = "/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSeatStatus(@RequestParam(defaultValue = "1") Long branchId) {
+        return seatStatusStreamService.connect(branchId);
+    }
+    /* 실시간 좌석 현황 구독(/seats/stream, get)
+/seats를 계속 호출(polling)하는 대신 연결을 1번 열어두고 서버가 변경분을 밀어줌
+접속 직후 snapshot 이벤트로 전체 현황을, 이후 delta 이벤트로 바뀐 좌석만 전송
+branchId로 구독한 지점의 변경분만 받음(다른 지점 이벤트는 전달하지 않음)
+선점/확정/취소/퇴실/자동 만료 모두 좌석 현황판을 거치므로 빠짐없이 전달됨
+ */
+
 
 
     // 취소 시 즉시 락 해제 요청 API
@@ -90,18 +352,19 @@ ResponseEntity는 HTTP응답을 감싸는 포장지 역할로 데이터와 함
     public ResponseEntity<String> cancelPreOccupy(
             @RequestBody @Valid ReservationDto.PreOccupyRequest request) {
 
-        reservationService.cancelPreOccupy(request.getSeatNumber());
+        reservationMetrics.recordOperation("cancel", () ->
+                reservationService.cancelPreOccupy(request.getUserId(), request.getBranchId(), request.getSeatNumber()));
         return ResponseEntity.ok("선점 취소되었습니다.");
     }
     /*
 reservationService가 Redis에게 현재 좌석 lock(선점)을 즉시 풀으라고 요청
-Redis에서 해당 좌석의 키가 즉시 삭제되어 다른 사용자가 즉시 선택 가능
+요청한 사용자의 락이면 Redis에서 해당 좌석의 키가 즉시 삭제되어 다른 사용자가 즉시 선택 가능
  */
 
     @PostMapping("/end-use")
     public ResponseEntity<String> endUse(
             @RequestBody @Valid ReservationDto.PreOccupyRequest request) {
-        reservationService.endUse(request.getUserId());
+        reservationMetrics.recordOperation("end_use", () -> reservationService.endUse(request.getUserId()));
         return ResponseEntity.ok("이용이 종료되었습니다");
     }
     /* 사용자로부터 퇴실 요청을 받아서 reservationService에게 넘겨주는 역할
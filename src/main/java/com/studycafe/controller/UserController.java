@@ -8,12 +8,12 @@ import io.jsonwebtoken.Jwt;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import com.studycafe.config.jwt.JwtTokenProvider;
+import com.studycafe.service.PasswordHashingService;
 import com.studycafe.global.exception.ErrorCode;
 import com.studycafe.global.exception.CustomException;
 
@@ -26,16 +26,17 @@ import java.util.Map;
 public class UserController {
     private final UserRepository userRepository; // 의존성 주입
     private final JwtTokenProvider jwtTokenProvider;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     @PostMapping("/login")
     public ResponseEntity<Map<String, Object>> login (@RequestBody LoginDto loginDto) {
         User user = userRepository.findByUsername(loginDto.getUsername())
                 .orElseThrow(() -> new CustomException(ErrorCode.USER_NOT_FOUND));
 
-        if(!passwordEncoder.matches(loginDto.getPassword(), user.getPassword())) {
+        if(!passwordHashingService.matches(loginDto.getPassword(), user.getPassword())) {
             throw new CustomException(ErrorCode.INVALID_PASSWORD);
         }
+        passwordHashingService.rehashIfNeeded(user, loginDto.getPassword());
 
         String token = jwtTokenProvider.createToken(String.valueOf(user.getId()));
 
@@ -54,8 +55,10 @@ public class UserController {
     만약 유저 없으면 자동으로 GlobalExceptionHandler가 처리
 
     loginDto.getPassword()는 사용자가 입력한 PW이고 user.getPassword()는 DB에 저장된 암호화된 PW
-    passwordEncoder.matches()는 내부적으로 사용자가 입력한 PW를 암호화해보고
+    passwordHashingService.matches()는 내부적으로 사용자가 입력한 PW를 암호화해보고
     그 결과가 DB에 있는 암호화된 값과 같은지 확인하고 아니면 CustomException 발생
+    (BCrypt는 전용 스레드에서 실행되고, 대기줄이 꽉 차면 429)
+    비밀번호가 맞았는데 저장된 해시의 강도가 설정보다 낮으면 rehashIfNeeded가 새 강도로 다시 저장
 
     유저의 기본키(ID)를 가지고 jwtTokenProvider의 createToken메서드를 호출해서 토큰 객체 생성
 
@@ -74,7 +77,7 @@ public class UserController {
 
         User user = new User(
                 request.getUsername(),
-                passwordEncoder.encode(request.getPassword()),
+                passwordHashingService.encode(request.getPassword()),
                 request.getEmail()
         );
 
@@ -91,6 +94,7 @@ public class UserController {
     그러므로 ResponseEntity.badRequest()로 오류와 함께 에러 메시지 전송
 
     입력받은 DTO(request)를 DB에 실제 저장할 수 있는 엔티티로 변환하고 user에 저장
+    비밀번호는 passwordHashingService.encode()로 전용 스레드에서 암호화
 
     userRepository.save(user)메서드로 실제 DB에 INSERT 쿼리가 들어감
 
@@ -0,0 +1,70 @@
+/*
+reservation_outbox 테이블 생성
+예약 상태 변경(확정, 취소, 이용 완료)을 예약과 같은 트랜잭션에서 기록해두는 보낼 편지함(outbox)
+OutboxRelay가 모아서 Redis Stream으로 보낸 뒤 지움
+ */
+package com.studycafe.domain.outbox;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reservation_outbox")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // 이벤트 번호(INSERT 때 매겨짐, 커밋 순서와 다를 수 있음 >> 받는 쪽 중복 제거용)
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EventType eventType;
+
+    @Column(nullable = false)
+    private Long reservationId;
+
+    @Column(nullable = false)
+    private Long branchId;
+
+    @Column(nullable = false)
+    private Integer seatNumber;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt; // 상태가 바뀐 시각
+
+    public enum EventType {
+        CONFIRMED, CANCELLED, COMPLETED
+        // 예약 확정, 예약 취소(퇴실 포함), 이용 완료(자동 퇴실)
+    }
+
+    public OutboxEvent(EventType eventType, Long reservationId, Long branchId, Integer seatNumber, Long userId,
+                       LocalDateTime startTime, LocalDateTime endTime, LocalDateTime occurredAt) {
+        this.eventType = eventType;
+        this.reservationId = reservationId;
+        this.branchId = branchId;
+        this.seatNumber = seatNumber;
+        this.userId = userId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.occurredAt = occurredAt;
+    }
+}
+/*
+이벤트 1건 = 예약 1건의 상태 변경 1번
+받는 쪽(캐시, 알림, 분석)이 예약 테이블을 다시 조회하지 않아도 되도록 좌석번호, 유저, 이용 시간을 함께 저장
+전송이 끝나면 행을 지우므로 테이블은 아직 보내지 못한 이벤트만큼만 커짐(기본키 순서로만 읽어서 별도 인덱스 없음)
+ */
@@ -0,0 +1,16 @@
+package com.studycafe.domain.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    @Query("SELECT e FROM OutboxEvent e ORDER BY e.id")
+    List<OutboxEvent> findOldest(Pageable pageable);
+    /* findOldest : 아직 보내지 않은 이벤트를 id 순서대로 최대 pageable 크기만큼 조회
+    기본키 순서로 앞에서부터 읽으므로 정렬 비용 없음
+    id는 INSERT 때 매겨지고 커밋은 그 뒤라서 id 순서가 커밋 순서는 아님(늦게 커밋된 작은 id는 다음 조회에서 나옴)
+     */
+}
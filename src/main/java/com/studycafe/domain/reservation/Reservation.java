@@ -9,6 +9,7 @@ import jakarta.persistence.*;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 
 import java.time.LocalDateTime;
@@ -16,14 +17,20 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "reservations", indexes = {
         @Index(
-                name = "idx_seat_time",
-                columnList = "seat_id, start_time"),
+                name = "idx_seat_start_end",
+                columnList = "seat_id, start_time, end_time"),
+        @Index(
+                name = "idx_user_start_end",
+                columnList = "user_id, start_time, end_time"),
         @Index(
                 name = "idx_user_status_end",
                 columnList = "user_id, status, end_time"),
         @Index(
                 name = "idx_status_end",
-                columnList = "status, end_time")
+                columnList = "status, end_time"),
+        @Index(
+                name = "idx_branch_status_end",
+                columnList = "branch_id, status, end_time")
 })
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -34,8 +41,9 @@ import java.time.LocalDateTime;
  */
 
 /*
-1. 좌석 중복 예약 방지용
-특정 좌석(seat_id)이 특정 시간(start_time)에 예약되어있는지 확인
+1. 좌석/유저 중복 예약 방지용(existsConflictingReservation)
+특정 좌석(seat_id), 특정 유저(user_id)에 [start_time, end_time)이 겹치는 예약이 있는지 확인
+좌석 쿼리와 유저 쿼리가 각자 인덱스 1개로 끝나도록 따로 둠(종료 시간까지 인덱스 안에서 비교)
 
 2. 유저의 현재 이용중인 예약 조회용
 이 유저(user_id)가 지금 이용중(CONFIRMED+end_time)인가를 조회
@@ -46,6 +54,10 @@ import java.time.LocalDateTime;
 이용중(CONFIRMED)인데 시간 끝난(end_time)거 다 찾음
 updateExpiredReservations 메서드를 최적화(속도개선)
 CONFIRMED 목록으로 바로 점프해서 시간순으로 정렬된 데이터 중 만료된 건만 뽑음
+
+4. 지점별 이용중인 예약 조회용
+이 지점(branch_id)의 이용중(CONFIRMED+end_time) 예약만 조회
+findActiveReservations(지점 현황판 구성)를 최적화, 다른 지점 예약은 읽지 않음
  */
 public class Reservation {
     @Id
@@ -60,6 +72,12 @@ public class Reservation {
     @JoinColumn(name = "seat_id", nullable = false)
     private Seat seat;
 
+    @ColumnDefault("1")
+    @Column(nullable = false)
+    private Long branchId; // 좌석이 속한 지점 ID(좌석 조인 없이 지점별 조회하기 위해 함께 저장)
+
+    private Long fencingToken; // 예약을 확정한 좌석 락의 펜싱 토큰(기존 데이터는 null)
+
     @Column(nullable = false)
     private LocalDateTime startTime; // 시작 시간
 
@@ -84,9 +102,11 @@ public class Reservation {
     }
 
 
-    public Reservation(User user, Seat seat, LocalDateTime startTime, LocalDateTime endTime, ReservationStatus status) {
+    public Reservation(User user, Seat seat, Long branchId, Long fencingToken, LocalDateTime startTime, LocalDateTime endTime, ReservationStatus status) {
         this.user = user;
         this.seat = seat;
+        this.branchId = branchId;
+        this.fencingToken = fencingToken;
         this.startTime = startTime;
         this.endTime = endTime;
         this.status = status;
@@ -1,8 +1,10 @@
 package com.studycafe.domain.reservation;
 
-import com.studycafe.domain.seat.Seat;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
@@ -11,40 +13,67 @@ import java.util.List;
 import java.util.Optional;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
-    @Modifying(clearAutomatically = true)
-   @Query("UPDATE Reservation r " + // 예약 상태 변경
-           "SET r.status = 'COMPLETED' " + // 상태를 COMPLETED로 변경
-           "WHERE r.endTime <= :now AND r.status = 'CONFIRMED'")
-    int updateExpiredReservations(
+    @Query("SELECT r.id " +
+            "FROM Reservation r " +
+            "WHERE r.status = 'CONFIRMED' AND r.endTime <= :now " +
+            "ORDER BY r.endTime")
+    List<Long> findExpiredIds(
+            @Param("now") LocalDateTime now,
+            Pageable pageable
+    );
+    /* findExpiredIds : 시간이 다 된 예약의 ID만 종료 시간 순으로 최대 pageable 크기만큼 조회
+만료 큐가 놓친 예약을 처리하기 위해 10분마다 실행하는 안전장치 스케줄러가 이 메서드 호출
+idx_status_end(상태, 종료 시간) 인덱스만 읽고 끝남
+조회한 ID는 만료 큐와 같은 completeExpiredReservations로 넘겨서 예약마다 COMPLETED 이벤트를 남김
+(예전에는 UPDATE 1번으로 한꺼번에 바꿔서 바뀐 개수만 알 수 있었음)
+ */
+
+    @Query("SELECT r " +
+            "FROM Reservation r " +
+            "JOIN FETCH r.seat " +
+            "WHERE r.id IN :ids " +
+            "AND r.endTime <= :now " +
+            "AND r.status = 'CONFIRMED'")
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Reservation> findExpiredByIds(
+            @Param("ids") List<Long> ids,
             @Param("now") LocalDateTime now
     );
-    /* updateExpiredReservations : 시간이 다 된 예약들을 찾아서 상태를 이용완료(COMPLETED)로 변경
-1분마다 실행하는 스케줄러가 이 메서드 호출
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Reservation r " +
+            "SET r.status = 'COMPLETED' " +
+            "WHERE r.id IN :ids AND r.status = 'CONFIRMED'")
+    int completeReservations(
+            @Param("ids") List<Long> ids
+    );
+    /* 만료 큐(ReservationExpiryQueue)와 안전장치 스케줄러에서 넘겨받은 예약만 골라서 처리
+findExpiredByIds : 넘겨받은 ID 중 아직 CONFIRMED이고 종료 시간이 지난 예약만 좌석 정보와 함께 조회
+(이미 퇴실했거나 처리된 예약은 제외)
+@Lock(PESSIMISTIC_WRITE) : 조회한 행을 커밋까지 잠금(SELECT ... FOR UPDATE)
+>> 조회와 변경 사이에 퇴실 처리가 끼어들어 이미 취소된 예약에 COMPLETED 이벤트를 남기는 일 방지
+completeReservations : 그 예약들만 PK(id)로 찾아서 COMPLETED로 변경
 
 @Modifying : @Query 어노테이션으로 SELECT가 아닌 UPDATE, DELETE 쿼리를 실행할 때는
 반드시 이 어노테이션을 붙이기(수정관련)
 clearAutomatically = true : 이 쿼리를 실행한 직후에 1차 캐시(영속성 컨텍스트)를 비우기
-이런 쿼리는 Bulk Operation(벌크 연산)으로 JPA를 거치지 않고 DB에 직접 쿼리를 전송
-ex.
-자바 메모리(영속성 컨택스트,1차 캐시)는 여전히 45번예약상태가 CONFIRMED라고 되어있음
-이 쿼리로 DB에서는 COMPLETED로 변경됨
-이후 로직에서 45번을 조회하면 DB가 아닌 자바메모리로 가져오기 때문에 여전히 CONFIRMED로 착각함(데이터 불일치)
->> 강제로 다음 조회때 DB에서 새 데이터를 가져오게 함
-
-종료 시간이 현재 시간보다 과거이고(지났고) 아직 이용중(확정)인 상태만 골라서
-이용완료(COMPLETED) 상태로 예약 상태를 변경 >> 업데이트된 행의 개수 반환(몇 건 처리 완료)
+이런 쿼리는 Bulk Operation(벌크 연산)으로 JPA를 거치지 않고 DB에 직접 쿼리를 전송하므로
+자바 메모리(1차 캐시)에는 여전히 CONFIRMED로 남아있는 데이터 불일치를 막음
  */
 
     @Query("SELECT r " +
             "FROM Reservation r " +
             "JOIN FETCH r.seat" +
-            " WHERE r.startTime <= :now " +
+            " WHERE r.branchId = :branchId " +
+            "AND r.startTime <= :now " +
             "AND r.endTime > :now " +
             "AND r.status = 'CONFIRMED'")
     List<Reservation> findActiveReservations(
+            @Param("branchId") Long branchId,
             @Param("now") LocalDateTime now
     );
-    /* findActiveReservations : 현재 이용중인 예약 조회(현재 앉아있는 사람 조회)
+    /* findActiveReservations : 한 지점에서 현재 이용중인 예약 조회(현재 앉아있는 사람 조회)
+지점(branchId)이 같은 예약만 idx_branch_status_end 인덱스로 골라냄
 
 시작 시간이 현재 시간보다 과거이고(입실했고) 종료 시간은 현재 시간보다 미래인(퇴실 전)
 현재 시간 범위 안에 있는 예약만 찾음 >> 현재 사용하고 있는 것을 리스트로 반환
@@ -59,6 +88,7 @@ JOIN FETCH를 사용하여 DB에게 예약 정보와 함께 Seat 테이블이랑
             "FROM Reservation r " +
             "WHERE r.user.id = :userId " +
             "AND r.status = 'CONFIRMED' " +
+            "AND r.startTime <= :now " +
             "AND r.endTime > :now")
     boolean existsActiveReservation(
             @Param("userId") Long userId,
@@ -69,6 +99,7 @@ Reservation테이블에서 조건에 맞는 예약 데이터가 1개 이상이
 조건 1 : 지금 예약을 시도하는 사람(userId)
 조건 2 : 유효한(CONFIRMED)예약
 조건 2 : 종료 시간이 현재 시간보다 미래(아직 안끝난 사람)
+조건 4 : 시작 시간이 현재 시간보다 과거(미리 예약한 미래 시간대 예약은 지금 이용중이 아님)
 
 만약 자리를 예약한 이용자가 또 다른 자리를 이용하려고 한다면
 유저 일치(조건1), CONFIRMED상태(조건2), 종료 시간남음(조건3)이
@@ -80,6 +111,7 @@ Reservation테이블에서 조건에 맞는 예약 데이터가 1개 이상이
             "JOIN FETCH r.seat "+
             "WHERE r.user.id = :userId " +
             "AND r.status = 'CONFIRMED' " +
+            "AND r.startTime <= :now " +
             "AND r.endTime > :now")
     Optional<Reservation> findActiveReservation(
             @Param("userId") Long userId,
@@ -92,20 +124,63 @@ Reservation테이블에서 조건에 맞는 예약 데이터가 1개 이상이
       없을 수도 있으므로 Optional로 반환받음
       Optional<Reservation>은 상자로 상자 안에 예약 정보가 있을 수도 없을 수도
        */
-     boolean existsBySeatAndStatus(
-             Seat seat,
-             Reservation.ReservationStatus status
-     );
-/*
-JPA의 쿼리 메서드 기능으로 이름만으로 자동으로 쿼리 생성됨
-exists(데이터 존재하는지 확인,boolean 반환)
-BySeat(seat 컬럼을 기준으로)
-AndStatus(status 컬럼을 기준으로)
+    default boolean existsConflictingReservation(Long seatId, Long userId, LocalDateTime startTime, LocalDateTime endTime) {
+        return existsBySeatIdAndStatusAndStartTimeBeforeAndEndTimeAfter(
+                        seatId, Reservation.ReservationStatus.CONFIRMED, endTime, startTime)
+                || existsByUserIdAndStatusAndStartTimeBeforeAndEndTimeAfter(
+                        userId, Reservation.ReservationStatus.CONFIRMED, endTime, startTime);
+    }
+
+    boolean existsBySeatIdAndStatusAndStartTimeBeforeAndEndTimeAfter(
+            Long seatId, Reservation.ReservationStatus status, LocalDateTime endTime, LocalDateTime startTime);
+
+    boolean existsByUserIdAndStatusAndStartTimeBeforeAndEndTimeAfter(
+            Long userId, Reservation.ReservationStatus status, LocalDateTime endTime, LocalDateTime startTime);
+/* existsConflictingReservation : 예약 확정 직전 중복 검사
+좌석 중복(이 좌석에 [startTime, endTime)과 겹치는 CONFIRMED 예약이 있는지)과
+유저 중복(이 유저가 같은 시간대에 겹치는 CONFIRMED 예약을 가지고 있는지)을 따로 물어봄
+>> 둘 중 하나라도 있으면 true(SEAT_ALREADY_OCCUPIED), 좌석 중복이면 유저 쿼리는 보내지 않음
+두 구간이 겹치는 조건 : 기존 시작 < 새 종료 AND 기존 종료 > 새 시작
+(지금 바로 이용은 [지금, 지금+이용시간), 미래 시간대 예약은 [예약 시작, 예약 종료))
+
+existsBy... : Spring Data가 SELECT ... LIMIT 1로 만들어서 겹치는 예약 1건을 찾는 즉시 멈춤(EXISTS)
+좌석 쿼리는 idx_seat_start_end(seat_id, start_time, end_time), 유저 쿼리는 idx_user_start_end(user_id, start_time, end_time)를 탐
+>> (seat.id = ? OR user.id = ?)를 한 쿼리에 넣으면 MySQL이 인덱스 하나를 고르지 못해서
+   index merge나 테이블 전체 훑기로 빠질 수 있으므로 인덱스 1개씩만 쓰는 쿼리 2개로 나눔
  */
-}
-
-
-
-
 
+    default boolean existsConflictingReservations(List<Long> seatIds, List<Long> userIds,
+                                                  LocalDateTime startTime, LocalDateTime endTime) {
+        return existsBySeatIdInAndStatusAndStartTimeBeforeAndEndTimeAfter(
+                        seatIds, Reservation.ReservationStatus.CONFIRMED, endTime, startTime)
+                || existsByUserIdInAndStatusAndStartTimeBeforeAndEndTimeAfter(
+                        userIds, Reservation.ReservationStatus.CONFIRMED, endTime, startTime);
+    }
+
+    boolean existsBySeatIdInAndStatusAndStartTimeBeforeAndEndTimeAfter(
+            List<Long> seatIds, Reservation.ReservationStatus status, LocalDateTime endTime, LocalDateTime startTime);
+
+    boolean existsByUserIdInAndStatusAndStartTimeBeforeAndEndTimeAfter(
+            List<Long> userIds, Reservation.ReservationStatus status, LocalDateTime endTime, LocalDateTime startTime);
+/* existsConflictingReservations : 단체석 확정 직전 중복 검사(existsConflictingReservation의 여러 좌석/여러 유저 버전)
+좌석 중 하나라도, 일행 중 한 명이라도 같은 시간대에 겹치는 예약이 있으면 true
+좌석 N개, 일행 N명이어도 좌석 쿼리 1번 + 유저 쿼리 1번(IN 목록마다 같은 인덱스를 탐)
+ */
 
+    @Query("SELECT r " +
+            "FROM Reservation r " +
+            "JOIN FETCH r.seat " +
+            "WHERE r.branchId = :branchId " +
+            "AND r.status = 'CONFIRMED' " +
+            "AND r.endTime > :from " +
+            "AND r.startTime < :to")
+    List<Reservation> findReservationsBetween(
+            @Param("branchId") Long branchId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+/* findReservationsBetween : 한 지점에서 [from, to) 구간과 겹치는 예약을 좌석 정보와 함께 조회
+시간대 예약표(SeatSlotIndex)가 Redis에 없을 때(재시작, 만료) 하루치 예약표를 다시 만들 때만 사용
+idx_branch_status_end(지점, 상태, 종료 시간)로 from 이후에 끝나는 예약부터 읽음
+ */
+}
@@ -8,23 +8,46 @@ import jakarta.persistence.*;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 
 @Entity
-@Table(name = "seats") // seats 테이블 이름 지정
+@Table(name = "seats", // seats 테이블 이름 지정
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_branch_seat_number",
+                columnNames = {"branch_id", "seat_number"}))
 @Getter // 모든 필드에 get 메서드 자동 생성
 @NoArgsConstructor(access = AccessLevel.PROTECTED) // 기본 생성자 생성
 public class Seat {
+    public static final Long DEFAULT_BRANCH_ID = 1L; // 지점을 지정하지 않은 요청이 사용하는 기본 지점
+
     @Id // 기본키
     @GeneratedValue(strategy = GenerationType.IDENTITY) // 자동으로 1 증가
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @ColumnDefault("1")
+    @Column(nullable = false)
+    private Long branchId;
+    // 좌석이 속한 지점(홀) ID, 기존 데이터는 기본 지점(1)으로 채워짐
+
+    @Column(nullable = false)
     private Integer seatNumber;
-    // 겹치면 안되고 null일 수 없음
+    // null일 수 없고 같은 지점 안에서만 겹치면 안됨(uk_branch_seat_number)
+    // 지점이 다르면 같은 좌석번호 사용 가능(1지점 1번, 2지점 1번)
 
-    public Seat(Integer seatNumber) {
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long fenceToken = 0L;
+    // 이 좌석에 마지막으로 예약을 확정한 락의 펜싱 토큰(SeatRepository.advanceFenceToken으로만 증가)
+    // 이보다 작은 토큰을 들고 온 예약 확정은 이미 만료된 락으로 보고 거절
+
+    public Seat(Long branchId, Integer seatNumber) {
+        this.branchId = branchId;
         this.seatNumber = seatNumber;
     }
     // PROTECTED이기 때문에 외부에서는 이 생성자로 객체 생성
 }
+/* 지점(branch) 추가 시 주의
+예전 테이블에는 seat_number 단독 unique 인덱스가 남아 있음(ddl-auto: update는 인덱스를 지우지 않음)
+>> 앱 시작 시 SeatIndexMigration이 찾아서 uk_branch_seat_number로 바꿈(app.seat.migrate-legacy-index=false면 시작을 멈춤)
+ */
@@ -2,9 +2,38 @@ package com.studycafe.domain.seat;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface SeatRepository extends JpaRepository<Seat,Long> {
-    Optional<Seat> findBySeatNumber(Integer seatNumber);
+    Optional<Seat> findByBranchIdAndSeatNumber(Long branchId, Integer seatNumber);
+
+    List<Seat> findAllByBranchId(Long branchId);
+
+    long countByBranchId(Long branchId);
+
+    long countByBranchIdAndSeatNumberBetween(Long branchId, Integer fromSeatNumber, Integer toSeatNumber);
+
+    @Query("SELECT DISTINCT s.branchId FROM Seat s ORDER BY s.branchId")
+    List<Long> findBranchIds();
+
+    @Modifying
+    @Query("UPDATE Seat s SET s.fenceToken = :token " +
+            "WHERE s.id = :seatId AND s.fenceToken < :token")
+    int advanceFenceToken(@Param("seatId") Long seatId, @Param("token") long token);
 }
+/*
+findByBranchIdAndSeatNumber : 지점 + 좌석번호로 좌석 1개 조회(uk_branch_seat_number 인덱스 사용)
+findAllByBranchId : 한 지점의 좌석 전체 조회(현황판 구성용)
+countByBranchId : 한 지점의 좌석 수
+countByBranchIdAndSeatNumberBetween : 한 지점에서 좌석번호 범위(양 끝 포함) 안에 이미 있는 좌석 수(uk_branch_seat_number 인덱스 범위 조회)
+findBranchIds : 좌석이 있는 지점 ID 목록(스케줄러가 지점별로 나눠서 처리할 때 사용)
+advanceFenceToken : 좌석의 펜싱 토큰을 더 큰 값으로만 올림(바뀐 행 수 반환, 0이면 더 크거나 같은 토큰이 이미 확정됨)
+UPDATE라서 좌석 행에 쓰기 락이 걸리고 트랜잭션이 끝날 때까지 유지됨
+>> 같은 좌석의 예약 확정은 여기서 한 줄로 세워지고, 늦게 온 옛 토큰은 0행이 되어 거절됨
+Seat 엔티티를 1차 캐시에 올려두지 않으므로(getReferenceById 프록시만 사용) clearAutomatically는 필요 없음
+ */
@@ -4,11 +4,22 @@
 package com.studycafe.domain.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User,Long> {
     Optional<User> findByUsername(String username);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :oldPassword")
+    int updatePassword(@Param("id") Long id,
+                       @Param("oldPassword") String oldPassword,
+                       @Param("newPassword") String newPassword);
 }
 /*
 SELECT *
@@ -34,4 +45,10 @@ SELECT * FROM users WHERE username = ?;
 String username
 이 매개변수에 들어온 값을 쿼리의 ? 에 넣음
 
+ 
+*updatePassword
+UPDATE users SET password = ? WHERE id = ? AND password = ?
+로그인 시 해시 강도 올리기(PasswordHashingService.rehashIfNeeded)에서 사용
+DB의 해시가 아직 예전 값일 때만 바꿔서(바뀐 행 수 1) 그 사이 바뀐 비밀번호를 덮어쓰지 않음
+전용 스레드에서 따로 호출되므로 메서드 자체에 @Transactional을 붙임
  */
@@ -3,12 +3,19 @@
  */
 package com.studycafe.dto;
 
+import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 
 public class ReservationDto {
     // 좌석 선점(Lock) 요청용 Dto
@@ -18,11 +25,104 @@ public class ReservationDto {
         @NotNull(message = "사용자 ID는 필수입니다")
         private Long userId; // 사용자 ID
         // 빈 문자열과 공백은 통과되고 null만 막음
+
+        @NotNull(message = "지점 ID는 null일 수 없습니다")
+        @Positive(message = "지점 ID는 양수여야 합니다")
+        private Long branchId = 1L; // 지점 ID(생략하면 기본 지점 1)
         
         @NotNull(message = "좌석 번호는 필수입니다")
         @Positive(message = "좌석 번호는 양수여야 합니다")
         private Integer seatNumber; // 좌석 번호
         // 숫자가 0보다 커야만 통과
+
+        private String admissionToken; // 대기열 입장권(대기열이 켜져 있을 때만 필요)
+    }
+
+    // 빈 좌석 자동 선점 요청용 Dto
+    @Getter
+    @NoArgsConstructor
+    public static class PreOccupyAnyRequest{
+        @NotNull(message = "사용자 ID는 필수입니다")
+        private Long userId; // 사용자 ID
+
+        @NotNull(message = "지점 ID는 null일 수 없습니다")
+        @Positive(message = "지점 ID는 양수여야 합니다")
+        private Long branchId = 1L; // 지점 ID(생략하면 기본 지점 1)
+
+        @Positive(message = "좌석 번호는 양수여야 합니다")
+        private Integer fromSeatNumber; // 원하는 구역 시작 좌석 번호(생략하면 처음부터)
+
+        @Positive(message = "좌석 번호는 양수여야 합니다")
+        private Integer toSeatNumber; // 원하는 구역 끝 좌석 번호(생략하면 끝까지)
+
+        @Positive(message = "좌석 번호는 양수여야 합니다")
+        private Integer nearSeatNumber; // 이 좌석과 가까운 자리 우선(생략하면 번호 순)
+
+        private String admissionToken; // 대기열 입장권(대기열이 켜져 있을 때만 필요)
+    }
+
+    // 빈 좌석 자동 선점 결과 Dto
+    @Getter
+    @AllArgsConstructor
+    public static class PreOccupyAnyResponse{
+        private Integer seatNumber; // 배정된 좌석 번호(확정 요청에 사용)
+        private String message;
+    }
+
+    // 단체석 선점 요청용 Dto
+    @Getter
+    @NoArgsConstructor
+    public static class GroupPreOccupyRequest{
+        @NotNull(message = "사용자 ID는 필수입니다")
+        private Long userId; // 대표자 사용자 ID
+
+        @NotNull(message = "지점 ID는 null일 수 없습니다")
+        @Positive(message = "지점 ID는 양수여야 합니다")
+        private Long branchId = 1L; // 지점 ID(생략하면 기본 지점 1)
+
+        @Size(max = 10, message = "단체석은 최대 10자리까지 선점할 수 있습니다")
+        private List<Integer> seatNumbers; // 직접 고른 좌석 번호들(번호가 이어진 좌석만, 생략하면 groupSize만큼 붙어 있는 자리 자동 배정)
+
+        @Min(value = 2, message = "단체석 인원은 2명 이상이어야 합니다")
+        private Integer groupSize; // 자동 배정할 인원 수
+
+        @Positive(message = "좌석 번호는 양수여야 합니다")
+        private Integer fromSeatNumber; // 원하는 구역 시작 좌석 번호(생략하면 처음부터)
+
+        @Positive(message = "좌석 번호는 양수여야 합니다")
+        private Integer toSeatNumber; // 원하는 구역 끝 좌석 번호(생략하면 끝까지)
+
+        private String admissionToken; // 대기열 입장권(대기열이 켜져 있을 때만 필요)
+    }
+
+    // 단체석 선점 결과 Dto
+    @Getter
+    @AllArgsConstructor
+    public static class GroupPreOccupyResponse{
+        private List<Integer> seatNumbers; // 선점한 좌석 번호들(확정 요청에 사용)
+        private String message;
+    }
+
+    // 단체석 확정 요청용 Dto
+    @Getter
+    @NoArgsConstructor
+    public static class GroupReserveRequest{
+        @NotNull(message = "사용자 ID는 필수입니다")
+        private Long userId; // 대표자 사용자 ID(선점한 사람)
+
+        @NotNull(message = "지점 ID는 null일 수 없습니다")
+        @Positive(message = "지점 ID는 양수여야 합니다")
+        private Long branchId = 1L; // 지점 ID(생략하면 기본 지점 1)
+
+        @NotEmpty(message = "좌석 번호는 필수입니다")
+        private List<Integer> seatNumbers; // 선점한 좌석 번호들
+
+        @NotEmpty(message = "일행 사용자 ID는 필수입니다")
+        private List<Long> memberUserIds; // 좌석마다 앉을 일행(seatNumbers와 같은 순서, 대표자 포함 가능)
+
+        @NotNull(message = "이용 시간은 필수입니다")
+        @Min(value = 1, message = "이용 시간은 최소 1시간 이상이어야 합니다")
+        private Integer hours; // 이용 시간
     }
 
     // 예약 확정 요청용 Dto
@@ -31,6 +131,10 @@ public class ReservationDto {
     public static class ReserveRequest{
         @NotNull(message = "사용자 ID는 필수입니다")
         private Long userId; // 사용자 ID
+
+        @NotNull(message = "지점 ID는 null일 수 없습니다")
+        @Positive(message = "지점 ID는 양수여야 합니다")
+        private Long branchId = 1L; // 지점 ID(생략하면 기본 지점 1)
         
         @NotNull(message = "좌석 번호는 필수입니다")
         @Positive(message = "좌석 번호는 양수여야 합니다")
@@ -41,4 +145,39 @@ public class ReservationDto {
         private Integer hours; // 이용 시간
         // 숫자가 지정한 값인 1보다 크거나 같아야 함
     }
+
+    // 미래 시간대 예약 요청용 Dto
+    @Getter
+    @NoArgsConstructor
+    public static class SlotReserveRequest{
+        @NotNull(message = "사용자 ID는 필수입니다")
+        private Long userId; // 사용자 ID
+
+        @NotNull(message = "지점 ID는 null일 수 없습니다")
+        @Positive(message = "지점 ID는 양수여야 합니다")
+        private Long branchId = 1L; // 지점 ID(생략하면 기본 지점 1)
+
+        @NotNull(message = "좌석 번호는 필수입니다")
+        @Positive(message = "좌석 번호는 양수여야 합니다")
+        private Integer seatNumber; // 좌석 번호
+
+        @NotNull(message = "시작 시각은 필수입니다")
+        @Future(message = "시작 시각은 현재 이후여야 합니다")
+        private LocalDateTime startTime; // 시작 시각(15분 단위, ex. 2026-10-18T14:30:00)
+
+        @NotNull(message = "이용 시간은 필수입니다")
+        @Min(value = 15, message = "이용 시간은 최소 15분 이상이어야 합니다")
+        private Integer minutes; // 이용 시간(분, 15분 단위)
+    }
+
+    // 미래 시간대 예약 취소 요청용 Dto
+    @Getter
+    @NoArgsConstructor
+    public static class SlotCancelRequest{
+        @NotNull(message = "사용자 ID는 필수입니다")
+        private Long userId; // 사용자 ID
+
+        @NotNull(message = "예약 ID는 필수입니다")
+        private Long reservationId; // 취소할 예약 ID
+    }
 }
@@ -0,0 +1,41 @@
+/*
+좌석 일괄 생성(관리자) 요청/응답 바구니
+ */
+package com.studycafe.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+public class SeatProvisionDto {
+    // 좌석 일괄 생성 요청용 Dto
+    @Getter
+    @NoArgsConstructor
+    public static class Request {
+        @NotNull(message = "지점 ID는 null일 수 없습니다")
+        @Positive(message = "지점 ID는 양수여야 합니다")
+        private Long branchId = 1L; // 좌석을 만들 지점 ID(생략하면 기본 지점 1)
+
+        @NotNull(message = "시작 좌석 번호는 필수입니다")
+        @Positive(message = "좌석 번호는 양수여야 합니다")
+        private Integer fromSeatNumber; // 시작 좌석 번호(포함)
+
+        @NotNull(message = "끝 좌석 번호는 필수입니다")
+        @Positive(message = "좌석 번호는 양수여야 합니다")
+        private Integer toSeatNumber; // 끝 좌석 번호(포함)
+
+        private boolean upsert = true;
+        // true면 이미 있는 좌석은 건너뜀, false면 하나라도 이미 있으면 전체 실패
+    }
+
+    // 좌석 일괄 생성 결과 Dto
+    @Getter
+    @AllArgsConstructor
+    public static class Response {
+        private int requestedCount; // 요청한 좌석 수
+        private int insertedCount; // 실제로 새로 만들어진 좌석 수
+        private long totalSeatCount; // 생성 후 해당 지점 전체 좌석 수
+    }
+}
@@ -0,0 +1,76 @@
+/*
+좌석 현황을 좌석당 2비트로 압축한 비트맵
+좌석이 늘어나도 좌석 1개당 2비트만 늘어나므로 응답 크기와 직렬화 비용이 거의 일정함
+ */
+package com.studycafe.dto;
+
+import java.util.List;
+
+public final class SeatStatusBitmap {
+    public static final int AVAILABLE = 0b00;
+    public static final int LOCKED = 0b01;
+    public static final int OCCUPIED = 0b10;
+
+    private SeatStatusBitmap() {
+    }
+    /* 상태 코드(2비트)
+    00 : AVAILABLE(빈자리), 01 : LOCKED(결제중), 10 : OCCUPIED(이용중)
+    객체를 만들 필요가 없는 유틸 클래스이므로 생성자를 막아둠
+     */
+
+    public static int codeOf(String status) {
+        return switch (status) {
+            case "LOCKED" -> LOCKED;
+            case "OCCUPIED" -> OCCUPIED;
+            default -> AVAILABLE;
+        };
+    }
+
+    public static String statusOf(int code) {
+        return switch (code) {
+            case LOCKED -> "LOCKED";
+            case OCCUPIED -> "OCCUPIED";
+            default -> "AVAILABLE";
+        };
+    }
+
+    public static byte[] encode(List<SeatStatusDto> statusList) {
+        int maxSeatNumber = 0;
+        for (SeatStatusDto dto : statusList) {
+            maxSeatNumber = Math.max(maxSeatNumber, dto.getSeatNumber());
+        }
+
+        byte[] bitmap = new byte[(maxSeatNumber + 3) / 4];
+        for (SeatStatusDto dto : statusList) {
+            set(bitmap, dto.getSeatNumber(), codeOf(dto.getStatus()));
+        }
+        return bitmap;
+    }
+    /* 좌석 리스트 -> 비트맵 변환
+    가장 큰 좌석 번호 기준으로 바이트 배열 크기를 정함(1바이트에 좌석 4개)
+     */
+
+    public static void set(byte[] bitmap, int seatNumber, int code) {
+        int index = seatNumber - 1;
+        int shift = 6 - (index % 4) * 2;
+        int cleared = bitmap[index / 4] & ~(0b11 << shift);
+        bitmap[index / 4] = (byte) (cleared | (code << shift));
+    }
+
+    public static int get(byte[] bitmap, int seatNumber) {
+        int index = seatNumber - 1;
+        if (index / 4 >= bitmap.length) {
+            return AVAILABLE;
+        }
+        int shift = 6 - (index % 4) * 2;
+        return (bitmap[index / 4] >> shift) & 0b11;
+    }
+    /* 비트 위치 계산
+    좌석 N번은 (N-1)*2 번째 비트부터 2비트를 차지
+    Redis BITFIELD와 같은 순서(바이트의 가장 왼쪽 비트가 0번)를 사용하므로
+    Redis의 BITFIELD SET u2 #(N-1) 명령으로 쓴 값과 자바에서 읽은 값이 일치함
+
+    ex. 좌석 1~4번 = [OCCUPIED, AVAILABLE, LOCKED, AVAILABLE]
+    >> 10 00 01 00 = 0x84 (1바이트)
+     */
+}
@@ -0,0 +1,36 @@
+/*
+좌석 오픈 대기열 요청/응답 바구니
+ */
+package com.studycafe.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+public class WaitingRoomDto {
+    // 대기열 입장 요청용 Dto
+    @Getter
+    @NoArgsConstructor
+    public static class EnterRequest {
+        @NotNull(message = "사용자 ID는 필수입니다")
+        private Long userId; // 사용자 ID
+
+        @NotNull(message = "지점 ID는 null일 수 없습니다")
+        @Positive(message = "지점 ID는 양수여야 합니다")
+        private Long branchId = 1L; // 지점 ID(생략하면 기본 지점 1)
+    }
+
+    // 대기 상태 응답용 Dto
+    @Getter
+    @AllArgsConstructor
+    public static class Status {
+        private String state; // "WAITING"(대기 중), "ADMITTED"(선점 가능), "NONE"(대기열에 없음)
+        private String admissionToken; // 입장권(입장 요청 응답에만 포함, 좌석 선점 요청에 함께 보냄)
+        private long position; // 내 앞 대기 인원 + 1(입장했거나 대기열에 없으면 0)
+        private long waitingCount; // 전체 대기 인원
+        private long estimatedWaitMs; // 예상 대기 시간
+        private long pollAfterMs; // 다음 상태 조회까지 기다릴 시간
+    }
+}
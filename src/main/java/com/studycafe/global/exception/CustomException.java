@@ -3,16 +3,37 @@ ErrorCode를 전송하기 위한 운송 수단
  */
 package com.studycafe.global.exception;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 
-@AllArgsConstructor
 @Getter
 public class CustomException extends RuntimeException{
     private final ErrorCode errorCode;
+
+    public CustomException(ErrorCode errorCode) {
+        super(errorCode.getMessage());
+        this.errorCode = errorCode;
+    }
+
+    private CustomException(ErrorCode errorCode, boolean writableStackTrace) {
+        super(errorCode.getMessage(), null, false, writableStackTrace);
+        this.errorCode = errorCode;
+    }
+
+    public static CustomException contention(ErrorCode errorCode) {
+        return new CustomException(errorCode, false);
+    }
 }
 /*
 RuntimeException을 상속받음, RuntimeException은 자바에서 예외 처리를 강제하지않아
 Service코드가 깔끔해지게 됨
 ErrorCode는 에러 발생 시 그 원인(ErrorCode Enum)을 저장함
+
+new CustomException(ErrorCode) : 보통의 예외처럼 스택 추적(호출 경로)을 수집
+>> 잘못된 입력, 없는 유저처럼 드물게 일어나는 실패는 어디서 던졌는지 로그로 추적 가능
+
+CustomException.contention(ErrorCode) : 스택 추적을 수집하지 않는 예외(경쟁 경로 전용)
+super(메시지, 원인, suppression, writableStackTrace)에서 마지막 값을 false로 주면 예외를 만들 때 스레드 스택을 훑지 않음
+좌석 선점 경쟁(SEAT_ALREADY_LOCKED, NO_AVAILABLE_SEAT), 시간대 경쟁(SLOT_ALREADY_RESERVED),
+대기열 미입장(WAITING_ROOM_NOT_ADMITTED)처럼 몰리는 시간에 대부분의 요청이 겪는 정상적인 실패에만 사용
+>> 던지는 위치가 항상 같아서 호출 경로가 필요 없고, 요청마다 스택을 훑는 비용만 줄어듦
  */
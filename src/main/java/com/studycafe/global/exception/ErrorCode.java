@@ -18,6 +18,7 @@ public enum ErrorCode {
     INVALID_PASSWORD(HttpStatus.BAD_REQUEST, "비밀번호가 일치하지 않습니다"),
     INVALID_INPUT_VALUE(HttpStatus.BAD_REQUEST, "잘못된 입력값입니다."),
     INVALID_LOCK(HttpStatus.BAD_REQUEST, "좌석 선점 시간이 만료되었거나 본인의 선점이 아닙니다."),
+    SEATS_NOT_ADJACENT(HttpStatus.BAD_REQUEST, "단체석은 번호가 이어진 좌석만 선택할 수 있습니다"),
 
     USER_NOT_FOUND(HttpStatus.NOT_FOUND,"사용자를 찾을 수 없습니다"),
     SEAT_NOT_FOUND(HttpStatus.NOT_FOUND,"좌석 정보를 찾을 수 없습니다"),
@@ -26,19 +27,36 @@ public enum ErrorCode {
     DUPLICATE_USERNAME(HttpStatus.CONFLICT,"이미 존재하는 아이디입니다"),
     SEAT_ALREADY_OCCUPIED(HttpStatus.CONFLICT,"이미 이용중인 좌석입니다"),
     SEAT_ALREADY_LOCKED(HttpStatus.CONFLICT,"다른 사용자가 결제 중인 좌석입니다"),
+    DUPLICATE_SEAT_NUMBER(HttpStatus.CONFLICT,"이미 존재하는 좌석 번호가 포함되어 있습니다"),
+    NO_AVAILABLE_SEAT(HttpStatus.CONFLICT,"선점 가능한 빈 좌석이 없습니다"),
+    SLOT_ALREADY_RESERVED(HttpStatus.CONFLICT,"이미 예약된 시간대입니다"),
 
-    INTERNAL_SERVER_ERROR(HttpStatus.INTERNAL_SERVER_ERROR,"서버에 오류가 발생했습니다");
+    WAITING_ROOM_NOT_ADMITTED(HttpStatus.TOO_MANY_REQUESTS,"대기 순서가 아직 오지 않았습니다. 대기열에서 순서를 기다려주세요"),
+    PASSWORD_HASHING_BUSY(HttpStatus.TOO_MANY_REQUESTS,"로그인 요청이 많습니다. 잠시 후 다시 시도해주세요"),
+    RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS,"요청이 너무 많습니다. 잠시 후 다시 시도해주세요"),
+
+    INTERNAL_SERVER_ERROR(HttpStatus.INTERNAL_SERVER_ERROR,"서버에 오류가 발생했습니다"),
+    SEAT_PROVISION_INCOMPLETE(HttpStatus.INTERNAL_SERVER_ERROR,"좌석 일부가 생성되지 않아 전체를 취소했습니다. 좌석 테이블 인덱스를 확인해주세요"),
+    LOCK_SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE,"좌석 선점 기능을 일시적으로 사용할 수 없습니다. 잠시 후 다시 시도해주세요");
 
     private final HttpStatus status;
     private final String message;
 }
 /* 에러 목록
-잘못된 요청(400) : INVALID_PASSWORD, INVALID_INPUT_VALUE, INVALID_LOCK
+잘못된 요청(400) : INVALID_PASSWORD, INVALID_INPUT_VALUE, INVALID_LOCK, SEATS_NOT_ADJACENT
+>> 단체석 좌석을 직접 고를 때 번호가 이어지지 않은 좌석이 섞여 있을 때
 찾을 수 없음(404) : USER_NOT_FOUND, SEAT_NOT_FOUND, RESERVATION_NOT_FOUND
-충돌 및 중복(409) : DUPLICATE_USERNAME, SEAT_ALEADY_OCCUPIED, SEAT_ALREADY_LOCKED
+충돌 및 중복(409) : DUPLICATE_USERNAME, SEAT_ALEADY_OCCUPIED, SEAT_ALREADY_LOCKED, DUPLICATE_SEAT_NUMBER, NO_AVAILABLE_SEAT, SLOT_ALREADY_RESERVED
 >> 아이디 중복, 누군가 내 자리를 예약하려고 할 떄
 >> + 2명의 사용자가 동시에 한 자리를 예약하려고 할 때
-서버 에러(500) : INTERVAL_SERVER_ERROR
+요청 과다(429) : WAITING_ROOM_NOT_ADMITTED, PASSWORD_HASHING_BUSY, RATE_LIMITED
+>> 대기열이 켜진 동안 입장하지 않은(또는 입장 시간이 지난) 사용자가 좌석 선점을 시도할 때
+>> 로그인/회원가입이 몰려서 비밀번호 해싱 대기줄이 꽉 찼을 때
+>> 한 사용자가 좌석 선점/확정을 너무 자주 요청할 때(Retry-After 헤더로 다시 시도할 시간 안내)
+서버 에러(500) : INTERVAL_SERVER_ERROR, SEAT_PROVISION_INCOMPLETE
+>> 좌석 일괄 생성에서 만들어야 할 좌석 수와 실제로 INSERT된 행 수가 다를 때(예전 seat_number unique 인덱스 등)
+일시적 사용 불가(503) : LOCK_SERVICE_UNAVAILABLE
+>> Redis 장애로 락을 확인할 수 없을 때(이미 선점된 좌석(409)과 구분해서 재시도 유도)
 
 
 필드(저장하는 값)
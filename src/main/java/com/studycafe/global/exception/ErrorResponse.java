@@ -10,6 +10,9 @@ import lombok.Builder;
 import lombok.Getter;
 import org.springframework.http.ResponseEntity;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 @Getter // Getter가 있어야 JSON으로 변환함
 @Builder // 객체 생성시 .을 사용하여 깔끔하게 생성가능함
 public class ErrorResponse {
@@ -24,22 +27,34 @@ code : ErrorCode의 이름(INVALID_PASSWORD, DUPLICATE_USERNAME)
 message : 사용자에게 보여줄 메시지
 프론트엔드는 code를 보고 분기 처리
  */
+    private static final Map<ErrorCode, ResponseEntity<ErrorResponse>> RESPONSES = new EnumMap<>(ErrorCode.class);
+
+    static {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            RESPONSES.put(errorCode, ResponseEntity
+                    .status(errorCode.getStatus())
+                    .body(ErrorResponse.builder()
+                            .status(errorCode.getStatus().value())
+                            .error(errorCode.getStatus().name())
+                            .code(errorCode.name())
+                            .message(errorCode.getMessage())
+                            .build()
+                    ));
+        }
+    }
+    /* ErrorCode별 응답 미리 만들기(클래스가 처음 쓰일 때 1번)
+    ErrorCode마다 내용이 항상 같고 ErrorResponse는 Getter만 있어서 바뀌지 않으므로
+    요청마다 새로 만들지 않고 같은 응답 객체를 계속 재사용
+     */
+
     public static ResponseEntity<ErrorResponse> toResponseEntity(ErrorCode errorCode) {
-        return ResponseEntity
-                .status(errorCode.getStatus())
-                .body(ErrorResponse.builder()
-                        .status(errorCode.getStatus().value())
-                        .error(errorCode.getStatus().name())
-                        .code(errorCode.name())
-                        .message(errorCode.getMessage())
-                        .build()
-                );
+        return RESPONSES.get(errorCode);
     }
     /* 자동 변환기(ErrorCode Enum만 있어도 알아서 ResponseEntity로 변환)
     static인 이유는 어디서든 ErrorResponse.toResponseEntity()로 호출 가능하게 함
 
     header에는 HTTP 상태코드(404,400)를 넣음
-    body에는 앞서 정헀던 필드들 4개를 모두 넣고 .build()하여
-    ResponseEntity<> DTO 객체로 생성
+    body에는 앞서 정헀던 필드들 4개를 모두 넣은 ResponseEntity<> DTO 객체
+    >> 위에서 미리 만들어 둔 것을 꺼내서 반환
      */
 }
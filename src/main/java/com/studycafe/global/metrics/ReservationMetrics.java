@@ -0,0 +1,139 @@
+/*
+예약 흐름 전체의 지표(Metric)를 Micrometer에 기록하는 곳
+/actuator/prometheus로 노출되어 Prometheus가 수집함
+ */
+package com.studycafe.global.metrics;
+
+import com.studycafe.global.exception.CustomException;
+import com.studycafe.global.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class ReservationMetrics {
+    private final MeterRegistry registry;
+
+    public <T> T recordOperation(String operation, Supplier<T> action) {
+        return recordOperation(operation, action, result -> null);
+    }
+
+    public <T> T recordOperation(String operation, Supplier<T> action, Function<T, ErrorCode> failure) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        try {
+            T result = action.get();
+            ErrorCode errorCode = failure.apply(result);
+            if (errorCode != null) {
+                outcome = errorCode.name();
+            }
+            return result;
+        } catch (CustomException e) {
+            outcome = e.getErrorCode().name();
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("reservation.operation")
+                    .description("예약 단계별 처리 시간")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    public void recordOperation(String operation, Runnable action) {
+        recordOperation(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+    /* 예약 단계(pre_occupy, confirm, cancel, end_use) 처리 시간 기록
+    reservation.operation 타이머에 단계(operation)와 결과(outcome)를 태그로 붙여서 기록
+    outcome : 성공이면 success, CustomException이면 ErrorCode 이름(ex. SEAT_ALREADY_LOCKED), 그 외는 error
+    실패를 예외 대신 결과로 돌려주는 작업(tryPreOccupySeat)은 failure로 결과에서 ErrorCode를 꺼내서 같은 태그로 기록
+    publishPercentileHistogram()으로 히스토그램 구간을 함께 내보내서 p95, p99 지연시간 계산 가능
+     */
+
+    public void lockAttempt(boolean acquired, String reason) {
+        Counter.builder("seat.lock.attempts")
+                .description("좌석 락 획득/갱신 시도 횟수")
+                .tag("result", acquired ? "success" : "failure")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+    /* 락 시도 결과 카운터
+    result : success / failure
+    reason : 실패 원인 ErrorCode 이름(SEAT_ALREADY_LOCKED, INVALID_LOCK), 성공이면 none
+     */
+
+    public void seatStatusRead(boolean hit) {
+        Counter.builder("seat.status.reads")
+                .description("좌석 현황판 조회 시 저장소 적중/재구성 횟수")
+                .tag("result", hit ? "hit" : "miss")
+                .register(registry)
+                .increment();
+    }
+    /* 좌석 현황판 조회 결과(hit : 현황판에서 바로 반환, miss : 원본 데이터로 재구성)
+    적중률 = hit / (hit + miss)
+     */
+
+    public void waitingRoomAdmitted(int count) {
+        Counter.builder("waiting.room.admitted")
+                .description("대기열에서 좌석 선점으로 입장시킨 사용자 수")
+                .register(registry)
+                .increment(count);
+    }
+    /* 대기열 입장 인원 누적(초당 증가량 = 실제 입장 속도) */
+
+    public void outboxRelayed(int count) {
+        Counter.builder("reservation.outbox.relayed")
+                .description("Redis Stream으로 보낸 예약 이벤트 수")
+                .register(registry)
+                .increment(count);
+    }
+    /* 예약 이벤트 전송 건수 누적(OutboxRelay) */
+
+    public void rateLimited(String bucket) {
+        Counter.builder("reservation.rate.limited")
+                .description("요청 횟수 제한으로 거절한 요청 수")
+                .tag("bucket", bucket)
+                .register(registry)
+                .increment();
+    }
+    /* 요청 횟수 제한 거절 누적(RateLimitFilter, ReservationController), bucket : pre-occupy / confirm / seat */
+
+    public Timer lockOwnersPipelineTimer() {
+        return Timer.builder("redis.lock.owners.pipeline")
+                .description("getLockOwners Redis 파이프라인 왕복 시간")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void expiryRun(String job, long startNanos, int completedCount) {
+        Timer.builder("reservation.expiry.run")
+                .description("자동 퇴실 처리 1회 실행 시간")
+                .tag("job", job)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, java.util.concurrent.TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("reservation.expiry.completed")
+                .description("자동 퇴실 처리 1회당 처리한 예약 수")
+                .tag("job", job)
+                .register(registry)
+                .record(completedCount);
+    }
+    /* 자동 퇴실 스케줄러 1회 실행 기록
+    job : queue(1초 만료 큐 처리), sweep(10분 안전장치 전체 처리)
+    실행 시간(타이머)과 처리 건수(분포 요약)를 함께 기록
+     */
+}
@@ -0,0 +1,246 @@
+/*
+서비스 코드가 실제로 사용하는 좌석 락(@Primary)
+평소에는 Redis 락(RedisLockService)을 쓰고, Redis가 계속 실패하면 서킷 브레이커가 열려서
+Redis를 부르지 않고 바로 서버 메모리 락(InMemorySeatLockService)으로 처리
+서버 1대로 운영하는 지점(app.lock.local-branch-ids)은 처음부터 메모리 락만 사용
+ */
+package com.studycafe.service;
+
+import com.studycafe.global.exception.CustomException;
+import com.studycafe.global.exception.ErrorCode;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+@Slf4j
+@Primary
+@Service
+@RequiredArgsConstructor
+public class FailoverSeatLockService implements SeatLockService {
+    private final RedisLockService redisLockService;
+    private final InMemorySeatLockService inMemorySeatLockService;
+
+    @Value("${app.lock.local-branch-ids:}")
+    private Set<Long> localBranchIds;
+
+    @Value("${app.lock.fallback.enabled:true}")
+    private boolean fallbackEnabled;
+
+    @Value("${app.lock.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${app.lock.circuit-breaker.sliding-window-size:20}")
+    private int slidingWindowSize;
+
+    @Value("${app.lock.circuit-breaker.open-duration-ms:10000}")
+    private long openDurationMs;
+
+    private CircuitBreaker circuitBreaker;
+    /* 필드(application.yml)
+    localBranchIds : Redis 없이 메모리 락만 쓰는 지점 목록(서버 1대로 운영하는 지점만 넣어야 함)
+    fallbackEnabled : Redis 장애 시 메모리 락으로 전환할지 여부
+    false면 전환하지 않고 LOCK_SERVICE_UNAVAILABLE(503)로 응답(서버 여러 대가 락을 반드시 공유해야 할 때)
+    failureRateThreshold : 최근 호출 중 실패 비율(%)이 이 값 이상이면 서킷을 엶
+    slidingWindowSize : 실패 비율을 계산할 최근 호출 수
+    openDurationMs : 서킷이 열린 뒤 Redis를 다시 시험해보기까지 기다리는 시간
+     */
+
+    @PostConstruct
+    void init() {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(Math.max(1, slidingWindowSize / 2))
+                .waitDurationInOpenState(Duration.ofMillis(openDurationMs))
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .recordExceptions(DataAccessException.class)
+                .build();
+        circuitBreaker = CircuitBreaker.of("seatLock", config);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("좌석 락 서킷 브레이커 상태 변경: {}", event.getStateTransition()));
+    }
+    /* 서킷 브레이커 생성
+    CLOSED(정상) : 모든 호출을 Redis로 보내고 성공/실패를 기록
+    OPEN(차단) : 실패 비율이 기준을 넘으면 openDurationMs 동안 Redis를 아예 부르지 않음
+    >> Redis 응답 시간 초과(2초)를 요청마다 기다리지 않고 바로 메모리 락으로 처리
+    HALF_OPEN(시험) : 대기 시간이 지나면 3번만 Redis로 보내보고 성공하면 CLOSED, 실패하면 다시 OPEN
+    Redis 연결 실패, 시간 초과는 스프링이 DataAccessException으로 바꿔서 던지므로 이것만 실패로 기록
+     */
+
+    private boolean isLocal(Long branchId) {
+        return localBranchIds.contains(branchId);
+    }
+
+    private <T> T withRedis(Supplier<T> redisCall, Supplier<T> fallback) {
+        try {
+            return circuitBreaker.executeSupplier(redisCall);
+        } catch (CallNotPermittedException | DataAccessException e) {
+            if (!fallbackEnabled) {
+                throw new CustomException(ErrorCode.LOCK_SERVICE_UNAVAILABLE);
+            }
+            if (e instanceof DataAccessException) {
+                log.warn("Redis 락 호출 실패, 메모리 락으로 처리: {}", e.getMessage());
+            }
+            return fallback.get();
+        }
+    }
+    /* Redis 호출을 서킷 브레이커로 감싸서 실행
+    성공하면 Redis 결과 그대로 반환
+    Redis가 실패했거나(DataAccessException) 서킷이 열려서 호출이 막혔으면(CallNotPermittedException) fallback 실행
+    fallback이 꺼져 있으면 "이미 선점됨"과 구분되도록 503 에러
+     */
+
+    @Override
+    public long lockSeat(Long branchId, String seatNumber, String userId) {
+        if (isLocal(branchId)) {
+            return inMemorySeatLockService.lockSeat(branchId, seatNumber, userId);
+        }
+        String localOwner = inMemorySeatLockService.getLockOwner(branchId, seatNumber);
+        if (localOwner != null) {
+            return localOwner.equals(userId) ? inMemorySeatLockService.lockSeat(branchId, seatNumber, userId) : NO_TOKEN;
+        }
+        return withRedis(
+                () -> redisLockService.lockSeat(branchId, seatNumber, userId),
+                () -> inMemorySeatLockService.lockSeat(branchId, seatNumber, userId));
+    }
+    /* 좌석 선점
+    1. 메모리 락 지점이면 메모리 락만 사용
+    2. Redis 장애 중에 메모리에 잡아둔 락이 아직 살아있으면 그 락을 따름
+    (Redis가 복구되어도 장애 중 선점한 사용자의 결제가 이어지도록)
+    3. 나머지는 Redis 락, Redis가 안 되면 메모리 락
+    ! 메모리 락은 이 서버 안에서만 유효하므로 장애 중에는 서버끼리 같은 좌석을 동시에 선점할 수 있음
+    >> 최종 확정 단계의 펜싱 토큰 검사(seats.fence_token)와 DB 중복 검사(existsConflictingReservation)가 이중 예약을 막음
+    메모리 락 토큰도 시각 기반 하한값(fenceFloor)을 쓰므로 장애 전 Redis 토큰보다 큼
+     */
+
+    @Override
+    public Allocation lockAnySeat(Long branchId, String userId, int fromSeatNumber, int toSeatNumber, Integer nearSeatNumber) {
+        if (isLocal(branchId)) {
+            return inMemorySeatLockService.lockAnySeat(branchId, userId, fromSeatNumber, toSeatNumber, nearSeatNumber);
+        }
+        return withRedis(
+                () -> redisLockService.lockAnySeat(branchId, userId, fromSeatNumber, toSeatNumber, nearSeatNumber),
+                () -> {
+                    throw new CustomException(ErrorCode.LOCK_SERVICE_UNAVAILABLE);
+                });
+    }
+    /* 빈 좌석 자동 배정
+    빈 좌석 목록 자체가 Redis에 있으므로 Redis가 안 되면 고를 후보가 없음
+    >> 503으로 응답(사용자는 좌석을 직접 골라서 선점하면 메모리 락으로 처리됨)
+     */
+
+    @Override
+    public long refreshLock(Long branchId, String seatNumber, String userId) {
+        if (isLocal(branchId) || inMemorySeatLockService.getLockOwner(branchId, seatNumber) != null) {
+            return inMemorySeatLockService.refreshLock(branchId, seatNumber, userId);
+        }
+        return withRedis(
+                () -> redisLockService.refreshLock(branchId, seatNumber, userId),
+                () -> {
+                    throw new CustomException(ErrorCode.LOCK_SERVICE_UNAVAILABLE);
+                });
+    }
+    /* 락 연장(예약 확정 직전 본인 확인)
+    메모리에 있는 락이면 메모리에서 연장
+    Redis에 잡은 락인데 Redis가 안 되면 본인 락인지 확인할 방법이 없음
+    >> INVALID_LOCK(본인 락 아님)이 아니라 LOCK_SERVICE_UNAVAILABLE(503, 잠시 후 재시도)로 응답
+     */
+
+    @Override
+    public List<Long> lockSeats(Long branchId, List<Integer> seatNumbers, String userId) {
+        if (isLocal(branchId) || hasLocalLock(branchId, seatNumbers)) {
+            return inMemorySeatLockService.lockSeats(branchId, seatNumbers, userId);
+        }
+        return withRedis(
+                () -> redisLockService.lockSeats(branchId, seatNumbers, userId),
+                () -> inMemorySeatLockService.lockSeats(branchId, seatNumbers, userId));
+    }
+
+    @Override
+    public List<Long> refreshLocks(Long branchId, List<Integer> seatNumbers, String userId) {
+        if (isLocal(branchId) || hasLocalLock(branchId, seatNumbers)) {
+            return inMemorySeatLockService.refreshLocks(branchId, seatNumbers, userId);
+        }
+        return withRedis(
+                () -> redisLockService.refreshLocks(branchId, seatNumbers, userId),
+                () -> {
+                    throw new CustomException(ErrorCode.LOCK_SERVICE_UNAVAILABLE);
+                });
+    }
+
+    private boolean hasLocalLock(Long branchId, List<Integer> seatNumbers) {
+        return !inMemorySeatLockService.isEmpty() && !inMemorySeatLockService.getLockOwners(branchId, seatNumbers).isEmpty();
+    }
+    /* 여러 좌석 락(단체석) : 한 좌석 락과 같은 규칙
+    좌석 중 하나라도 장애 중에 잡은 메모리 락이 남아 있으면 모두 메모리 락으로 처리
+    (Redis 락과 메모리 락에 나눠서 잡으면 전부 아니면 전무를 지킬 수 없음)
+     */
+
+    @Override
+    public boolean unlockSeat(Long branchId, String seatNumber, String userId) {
+        if (isLocal(branchId) || inMemorySeatLockService.getLockOwner(branchId, seatNumber) != null) {
+            return inMemorySeatLockService.unlockSeat(branchId, seatNumber, userId);
+        }
+        return withRedis(() -> redisLockService.unlockSeat(branchId, seatNumber, userId), () -> false);
+    }
+    /* 락 해제, Redis가 안 되면 false(Redis 락은 5분 TTL로 자동 만료) */
+
+    @Override
+    public String getLockOwner(Long branchId, String seatNumber) {
+        String localOwner = inMemorySeatLockService.getLockOwner(branchId, seatNumber);
+        if (isLocal(branchId) || localOwner != null) {
+            return localOwner;
+        }
+        return withRedis(() -> redisLockService.getLockOwner(branchId, seatNumber), () -> null);
+    }
+
+    @Override
+    public void forceUnlockSeat(Long branchId, String seatNumber) {
+        inMemorySeatLockService.forceUnlockSeat(branchId, seatNumber);
+        if (!isLocal(branchId)) {
+            withRedis(() -> {
+                redisLockService.forceUnlockSeat(branchId, seatNumber);
+                return null;
+            }, () -> null);
+        }
+    }
+
+    @Override
+    public Map<Integer, String> getLockOwners(Long branchId, List<Integer> seatNumbers) {
+        if (isLocal(branchId)) {
+            return inMemorySeatLockService.getLockOwners(branchId, seatNumbers);
+        }
+        Map<Integer, String> owners = new HashMap<>(withRedis(
+                () -> redisLockService.getLockOwners(branchId, seatNumbers), Map::of));
+        if (!inMemorySeatLockService.isEmpty()) {
+            owners.putAll(inMemorySeatLockService.getLockOwners(branchId, seatNumbers));
+        }
+        return owners;
+    }
+    /* 여러 좌석 락 주인 조회
+    Redis 락은 Redis에서 직접 읽고(파이프라인 1번)
+    현황판 재구성/정합성 검사의 기준 데이터이므로 근거리 캐시(SeatLockOwnerCache)는 쓰지 않음
+    (Cluster에서는 다른 노드의 알림이 오지 않아 캐시가 resync 주기만큼 늦을 수 있음)
+    장애 중에 잡은 메모리 락이 있으면 합쳐서 반환
+    Redis가 안 되면 메모리 락만으로 반환(좌석표 조회 자체는 계속 가능)
+     */
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+    /* 현재 서킷 상태(CLOSED, OPEN, HALF_OPEN) 조회 */
+}
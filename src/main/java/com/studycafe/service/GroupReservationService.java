@@ -0,0 +1,255 @@
+/*
+여러 좌석(단체석)을 한 번에 선점하고 확정하는 서비스
+스터디 모임처럼 붙어 있는 N개 좌석이 필요할 때 좌석을 하나씩 잡지 않고
+전부 아니면 전무(all-or-nothing)로 잡아서 일부만 잡힌 채로 남는 일을 막음
+ */
+package com.studycafe.service;
+
+import com.studycafe.domain.outbox.OutboxEvent;
+import com.studycafe.domain.reservation.Reservation;
+import com.studycafe.domain.reservation.ReservationRepository;
+import com.studycafe.domain.seat.SeatRepository;
+import com.studycafe.global.exception.CustomException;
+import com.studycafe.global.exception.ErrorCode;
+import com.studycafe.global.metrics.ReservationMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GroupReservationService {
+    private static final int MAX_GROUP_SIZE = 10;
+    private static final int ADJACENT_LOCK_ATTEMPTS = 3;
+    private static final String INSERT_SQL =
+            "INSERT INTO reservations (user_id, seat_id, branch_id, fencing_token, start_time, end_time, status, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ReservationRepository reservationRepository;
+    private final SeatRepository seatRepository;
+    private final SeatDirectory seatDirectory;
+    private final SeatLockService seatLockService;
+    private final SeatStatusStore seatStatusStore;
+    private final ReservationExpiryQueue reservationExpiryQueue;
+    private final ReservationMetrics reservationMetrics;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReservationService reservationService;
+    private final ReservationOutbox reservationOutbox;
+    /* 필드
+    MAX_GROUP_SIZE : 한 번에 잡을 수 있는 최대 좌석 수
+    ADJACENT_LOCK_ATTEMPTS : 붙어 있는 빈 좌석을 찾았는데 그 사이에 다른 사람이 잡았을 때 다시 찾는 횟수
+    INSERT_SQL : 예약 행 일괄 INSERT(JDBC 배치)
+     */
+
+    public List<Integer> preOccupyGroupSeats(Long userId, Long branchId, List<Integer> seatNumbers,
+                                             Integer groupSize, Integer fromSeatNumber, Integer toSeatNumber) {
+        if (userId == null || branchId == null) {
+            throw new CustomException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        if (reservationRepository.existsActiveReservation(userId, LocalDateTime.now())) {
+            throw new CustomException(ErrorCode.SEAT_ALREADY_OCCUPIED);
+        }
+
+        String owner = String.valueOf(userId);
+        List<Integer> locked;
+        if (seatNumbers != null && !seatNumbers.isEmpty()) {
+            validateSeats(seatNumbers);
+            locked = seatLockService.lockSeats(branchId, seatNumbers, owner).isEmpty() ? List.of() : seatNumbers;
+            if (locked.isEmpty()) {
+                reservationMetrics.lockAttempt(false, ErrorCode.SEAT_ALREADY_LOCKED.name());
+                throw CustomException.contention(ErrorCode.SEAT_ALREADY_LOCKED);
+            }
+        } else {
+            int from = fromSeatNumber == null ? 1 : fromSeatNumber;
+            int to = toSeatNumber == null ? Integer.MAX_VALUE : toSeatNumber;
+            if (groupSize == null || groupSize < 2 || groupSize > MAX_GROUP_SIZE || from <= 0 || from > to) {
+                throw new CustomException(ErrorCode.INVALID_INPUT_VALUE);
+            }
+            locked = lockAdjacentSeats(branchId, owner, groupSize, from, to);
+            if (locked.isEmpty()) {
+                reservationMetrics.lockAttempt(false, ErrorCode.NO_AVAILABLE_SEAT.name());
+                throw CustomException.contention(ErrorCode.NO_AVAILABLE_SEAT);
+            }
+        }
+        reservationMetrics.lockAttempt(true, "none");
+        seatStatusStore.markLocked(branchId, locked);
+        log.info("단체석 선점 - User: {}, Branch: {}, Seats: {}", userId, branchId, locked);
+        return locked;
+    }
+    /* 단체석 선점
+    1. 좌석을 직접 고른 경우(seatNumbers) : 번호가 이어진 좌석인지 확인하고(아니면 SEATS_NOT_ADJACENT) 고른 좌석 전부를 락 스크립트 1번으로 잡음
+    하나라도 다른 사람이 잡고 있으면 아무 좌석도 잡지 않고 SEAT_ALREADY_LOCKED(409)
+    2. 인원수만 보낸 경우(groupSize) : 범위(from~to) 안에서 번호가 이어진 빈 좌석 groupSize개를 찾아서 잡음
+    찾을 수 없으면 NO_AVAILABLE_SEAT(409)
+    잡은 좌석은 현황판에 한 번에(파이프라인 1번) LOCKED로 표시하고 좌석번호 목록을 반환
+    대표자(userId) 1명이 모든 좌석의 락 주인이 됨(취소는 좌석마다 기존 /cancel 사용)
+     */
+
+    private List<Integer> lockAdjacentSeats(Long branchId, String owner, int size, int from, int to) {
+        int searchFrom = from;
+        for (int attempt = 0; attempt < ADJACENT_LOCK_ATTEMPTS && searchFrom <= to; attempt++) {
+            List<Integer> candidate = seatStatusStore.findAdjacentFreeSeats(branchId, size, searchFrom, to);
+            if (candidate.isEmpty()) {
+                return List.of();
+            }
+            if (!seatLockService.lockSeats(branchId, candidate, owner).isEmpty()) {
+                return candidate;
+            }
+            searchFrom = candidate.get(0) + 1;
+        }
+        return List.of();
+    }
+    /* 붙어 있는 빈 좌석 찾기 + 잡기
+    찾은 구간을 잡는 사이에 다른 사람이 그중 한 좌석을 먼저 잡았으면 그 구간 다음 번호부터 다시 찾음(최대 3번)
+     */
+
+    @Transactional
+    public List<Long> confirmGroupReservation(Long userId, Long branchId, List<Integer> seatNumbers,
+                                              List<Long> memberUserIds, int hours) {
+        validateSeats(seatNumbers);
+        if (userId == null || branchId == null || hours <= 0 || memberUserIds == null
+                || memberUserIds.size() != seatNumbers.size()
+                || new HashSet<>(memberUserIds).size() != memberUserIds.size()) {
+            throw new CustomException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+
+        String owner = String.valueOf(userId);
+        List<Long> tokens = seatLockService.refreshLocks(branchId, seatNumbers, owner);
+        if (tokens.isEmpty()) {
+            reservationMetrics.lockAttempt(false, ErrorCode.INVALID_LOCK.name());
+            throw new CustomException(ErrorCode.INVALID_LOCK);
+        }
+        reservationMetrics.lockAttempt(true, "none");
+
+        try {
+            Long[] seatIds = new Long[seatNumbers.size()];
+            List<Integer> order = IntStream.range(0, seatNumbers.size()).boxed()
+                    .sorted(Comparator.comparing(seatNumbers::get)).toList();
+            for (int i : order) {
+                seatIds[i] = seatDirectory.resolveId(branchId, seatNumbers.get(i));
+                if (seatRepository.advanceFenceToken(seatIds[i], tokens.get(i)) == 0) {
+                    reservationMetrics.lockAttempt(false, "STALE_FENCING_TOKEN");
+                    throw new CustomException(ErrorCode.INVALID_LOCK);
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime endTime = now.plusHours(hours);
+            reservationService.claimSlots(branchId, seatNumbers, now, endTime);
+            if (reservationRepository.existsConflictingReservations(Arrays.asList(seatIds), memberUserIds, now, endTime)) {
+                throw new CustomException(ErrorCode.SEAT_ALREADY_OCCUPIED);
+            }
+
+            List<Long> reservationIds;
+            try {
+                reservationIds = insertReservations(branchId, Arrays.asList(seatIds), memberUserIds, tokens, now, endTime);
+            } catch (DataIntegrityViolationException e) {
+                throw ReservationService.userNotFoundOrRethrow(e);
+            }
+            List<OutboxEvent> events = new ArrayList<>();
+            for (int i = 0; i < reservationIds.size(); i++) {
+                events.add(new OutboxEvent(OutboxEvent.EventType.CONFIRMED, reservationIds.get(i), branchId,
+                        seatNumbers.get(i), memberUserIds.get(i), now, endTime, now));
+            }
+            reservationOutbox.append(events);
+
+            ReservationService.afterCommit(() -> {
+                seatStatusStore.markOccupied(branchId, seatNumbers);
+                reservationIds.forEach(id -> reservationExpiryQueue.schedule(branchId, id, endTime));
+            });
+            return reservationIds;
+        } finally {
+            ReservationService.afterCompletion(committed -> {
+                seatNumbers.forEach(seat -> seatLockService.unlockSeat(branchId, String.valueOf(seat), owner));
+                if (!committed) {
+                    seatStatusStore.markUnlocked(branchId, seatNumbers);
+                }
+            });
+        }
+    }
+    /* 단체석 확정(결제 후)
+    좌석 i번은 일행 i번(memberUserIds)의 예약이 됨 >> 1인 1좌석 규칙과 퇴실(/end-use)이 그대로 동작
+
+    1. 대표자의 락인지 모든 좌석을 한 번에 확인/연장하고 좌석별 펜싱 토큰을 받음(아니면 INVALID_LOCK)
+    2. 좌석마다 펜싱 토큰 검사(advanceFenceToken), 좌석 행 락은 항상 좌석번호 순으로 잡음(두 트랜잭션이 서로 기다리는 데드락 방지)
+    3. 모든 좌석의 시간대 예약표 칸을 스크립트 1번으로 확인(claimSlots, 미래 시간대 예약과 겹치면 409)
+    좌석 중복 + 일행 중복을 좌석 쿼리 1번 + 유저 쿼리 1번으로 검사(existsConflictingReservations)
+    4. 예약 N건을 JDBC 배치 INSERT 1번으로 저장(insertReservations), 예약 확정 이벤트 N건도 배치 INSERT 1번으로 기록
+    5. 커밋 후 현황판 OCCUPIED 표시(파이프라인 1번), 예약마다 만료 큐 등록
+    6. 성공/실패와 관계없이 트랜잭션이 끝난 뒤 락 반납(finally에서 afterCompletion 등록)
+    커밋이면 5번(OCCUPIED 표시) 다음에 락만 반납, 롤백이면 락 반납 + LOCKED 표시를 AVAILABLE로 복구
+    >> 커밋 전에 좌석이 빈 좌석 목록으로 돌아가서 다른 사람에게 배정되는 틈이 없음
+    2~4는 트랜잭션 1개 >> 하나라도 실패하면 전부 롤백(일부 좌석만 예약되는 일 없음)
+     */
+
+    private List<Long> insertReservations(Long branchId, List<Long> seatIds, List<Long> memberUserIds,
+                                          List<Long> tokens, LocalDateTime startTime, LocalDateTime endTime) {
+        Timestamp start = Timestamp.valueOf(startTime);
+        Timestamp end = Timestamp.valueOf(endTime);
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < seatIds.size(); i++) {
+                    ps.setLong(1, memberUserIds.get(i));
+                    ps.setLong(2, seatIds.get(i));
+                    ps.setLong(3, branchId);
+                    ps.setLong(4, tokens.get(i));
+                    ps.setTimestamp(5, start);
+                    ps.setTimestamp(6, end);
+                    ps.setString(7, Reservation.ReservationStatus.CONFIRMED.name());
+                    ps.setTimestamp(8, start);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                List<Long> ids = new ArrayList<>();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+    /* 예약 행 일괄 INSERT
+    Reservation은 IDENTITY 전략이라 JPA saveAll은 INSERT를 1개씩 보냄
+    JDBC 배치 + rewriteBatchedStatements=true면 INSERT ... VALUES (...),(...) 한 문장(DB 왕복 1번)
+    생성된 예약 ID는 getGeneratedKeys로 받아서 만료 큐 등록에 사용
+    JdbcTemplate은 현재 JPA 트랜잭션과 같은 DB 연결을 쓰므로 롤백도 함께 됨
+     */
+
+    private void validateSeats(List<Integer> seatNumbers) {
+        if (seatNumbers == null || seatNumbers.size() < 2 || seatNumbers.size() > MAX_GROUP_SIZE
+                || seatNumbers.stream().anyMatch(seat -> seat == null || seat <= 0)
+                || new HashSet<>(seatNumbers).size() != seatNumbers.size()) {
+            throw new CustomException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        int min = seatNumbers.stream().mapToInt(Integer::intValue).min().orElseThrow();
+        int max = seatNumbers.stream().mapToInt(Integer::intValue).max().orElseThrow();
+        if (max - min != seatNumbers.size() - 1) {
+            throw new CustomException(ErrorCode.SEATS_NOT_ADJACENT);
+        }
+    }
+    /* 좌석 목록 검사 : 2~10개, 양수, 중복 없음, 번호가 이어짐
+    중복 없는 N개의 번호가 (가장 큰 번호 - 가장 작은 번호) = N - 1이면 빈 번호 없이 이어진 좌석(순서는 상관없음)
+    ex. [5, 3, 4] 통과, [3, 5] >> SEATS_NOT_ADJACENT(400)
+    인원수로 자동 배정(groupSize)할 때와 같은 "붙어 있는 자리" 규칙을 직접 고른 좌석에도 적용
+     */
+}
@@ -0,0 +1,222 @@
+/*
+서버 메모리(JVM)에 좌석 락을 저장하는 구현체
+Redis 왕복이 없어서 빠르지만 이 서버 안에서만 유효함
+1. 서버 1대로 운영하는 소규모 지점(app.lock.local-branch-ids)의 기본 락
+2. Redis 장애 중 FailoverSeatLockService가 임시로 사용하는 락
+ */
+package com.studycafe.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+public class InMemorySeatLockService implements SeatLockService {
+    private static final long TTL_NANOS = LOCK_TTL.toNanos();
+    private static final int ALLOCATION_CANDIDATES = 256;
+
+    private final SeatStatusStore seatStatusStore;
+
+    private final Map<Long, ConcurrentHashMap<Integer, LockEntry>> locks = new ConcurrentHashMap<>();
+    private final AtomicLong lastToken = new AtomicLong();
+    /* 필드
+    locks : {지점ID = {좌석번호 = 락 정보}}
+    lastToken : 마지막으로 발급한 펜싱 토큰(모든 좌석 공용이라 좌석별로도 항상 증가)
+    synchronized 없이 ConcurrentHashMap의 원자적 비교 교체(putIfAbsent, replace, remove)만으로 락을 다룸
+    >> 같은 좌석을 동시에 잡으려고 해도 1명만 성공하고, 다른 좌석끼리는 서로 기다리지 않음
+     */
+
+    private record LockEntry(String owner, long expiresAt, long token) {
+        boolean expired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+    /* 락 정보 : 주인(userId) + 만료 시각(System.nanoTime 기준) + 펜싱 토큰
+    nanoTime은 시스템 시계를 바꿔도 뒤로 가지 않으므로 만료 판정이 흔들리지 않음
+    값이 넘칠(overflow) 수 있으므로 크기 비교 대신 차이(now - expiresAt)의 부호로 비교
+     */
+
+    private ConcurrentHashMap<Integer, LockEntry> branch(Long branchId) {
+        return locks.computeIfAbsent(branchId, id -> new ConcurrentHashMap<>());
+    }
+
+    private long nextToken() {
+        long floor = SeatLockService.fenceFloor();
+        return lastToken.updateAndGet(last -> Math.max(last + 1, floor));
+    }
+
+    @Override
+    public long lockSeat(Long branchId, String seatNumber, String userId) {
+        ConcurrentHashMap<Integer, LockEntry> branch = branch(branchId);
+        Integer seat = Integer.valueOf(seatNumber);
+        while (true) {
+            long now = System.nanoTime();
+            LockEntry current = branch.get(seat);
+            if (current == null) {
+                LockEntry next = new LockEntry(userId, now + TTL_NANOS, nextToken());
+                if (branch.putIfAbsent(seat, next) == null) {
+                    return next.token();
+                }
+            } else if (current.expired(now) || current.owner().equals(userId)) {
+                long token = current.expired(now) ? nextToken() : current.token();
+                LockEntry next = new LockEntry(userId, now + TTL_NANOS, token);
+                if (branch.replace(seat, current, next)) {
+                    return token;
+                }
+            } else {
+                return NO_TOKEN;
+            }
+        }
+    }
+    /* 락 획득(Redis의 ACQUIRE 스크립트와 같은 규칙)
+    비어 있으면 putIfAbsent, 만료됐거나 내 락이면 replace(기존 값이 그대로일 때만 교체)
+    다른 스레드가 사이에 먼저 바꿨으면 교체가 실패하므로 최신 값을 다시 읽고 재시도
+    새로 잡으면 새 펜싱 토큰, 살아있는 내 락을 다시 잡으면 기존 토큰 유지
+    살아있는 남의 락이면 NO_TOKEN(0)
+    (재시도로 버려진 토큰 번호는 건너뛰어질 뿐 증가 순서는 유지됨)
+     */
+
+    @Override
+    public Allocation lockAnySeat(Long branchId, String userId, int fromSeatNumber, int toSeatNumber, Integer nearSeatNumber) {
+        List<Integer> candidates = seatStatusStore.findFreeSeats(branchId, fromSeatNumber, toSeatNumber, ALLOCATION_CANDIDATES);
+        if (nearSeatNumber != null) {
+            candidates.sort(Comparator.comparingInt(seat -> Math.abs(seat - nearSeatNumber)));
+        }
+        for (Integer seat : candidates) {
+            long token = lockSeat(branchId, String.valueOf(seat), userId);
+            if (token != NO_TOKEN) {
+                seatStatusStore.markLocked(branchId, seat);
+                return new Allocation(seat, token);
+            }
+        }
+        return null;
+    }
+    /* 빈 좌석 자동 배정(서버 메모리 락 지점)
+    빈 좌석 목록(Redis)에서 후보를 최대 256개 받아(가까운 좌석 우선이면 거리 순으로 정렬) 차례로 메모리 락 시도
+    메모리 락은 Redis 왕복이 없으므로 후보를 여러 개 시도해도 빠름
+     */
+
+    @Override
+    public long refreshLock(Long branchId, String seatNumber, String userId) {
+        ConcurrentHashMap<Integer, LockEntry> branch = branch(branchId);
+        Integer seat = Integer.valueOf(seatNumber);
+        while (true) {
+            long now = System.nanoTime();
+            LockEntry current = branch.get(seat);
+            if (current == null || current.expired(now) || !current.owner().equals(userId)) {
+                return NO_TOKEN;
+            }
+            if (branch.replace(seat, current, new LockEntry(userId, now + TTL_NANOS, current.token()))) {
+                return current.token();
+            }
+        }
+    }
+    /* 락 연장 : 살아있는 내 락일 때만 만료 시각을 5분 뒤로 교체하고 펜싱 토큰 반환 */
+
+    @Override
+    public List<Long> lockSeats(Long branchId, List<Integer> seatNumbers, String userId) {
+        List<Integer> ordered = seatNumbers.stream().sorted().toList();
+        List<Integer> acquired = new ArrayList<>();
+        Map<Integer, Long> tokens = new HashMap<>();
+        for (Integer seat : ordered) {
+            boolean alreadyMine = userId.equals(getLockOwner(branchId, String.valueOf(seat)));
+            long token = lockSeat(branchId, String.valueOf(seat), userId);
+            if (token == NO_TOKEN) {
+                acquired.forEach(taken -> unlockSeat(branchId, String.valueOf(taken), userId));
+                return List.of();
+            }
+            if (!alreadyMine) {
+                acquired.add(seat);
+            }
+            tokens.put(seat, token);
+        }
+        return seatNumbers.stream().map(tokens::get).toList();
+    }
+    /* 여러 좌석 락 획득(서버 메모리 락)
+    좌석번호 순으로 하나씩 잡다가 하나라도 실패하면 이번에 새로 잡은 좌석만 되돌림(원래 내 락이던 좌석은 유지)
+    모든 요청이 같은 순서(번호 순)로 잡으므로 두 단체가 서로의 좌석을 반씩 잡고 계속 엇갈리는 일이 줄어듦
+     */
+
+    @Override
+    public List<Long> refreshLocks(Long branchId, List<Integer> seatNumbers, String userId) {
+        List<Long> tokens = new ArrayList<>();
+        for (Integer seat : seatNumbers) {
+            long token = refreshLock(branchId, String.valueOf(seat), userId);
+            if (token == NO_TOKEN) {
+                return List.of();
+            }
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    @Override
+    public boolean unlockSeat(Long branchId, String seatNumber, String userId) {
+        ConcurrentHashMap<Integer, LockEntry> branch = branch(branchId);
+        Integer seat = Integer.valueOf(seatNumber);
+        LockEntry current = branch.get(seat);
+        if (current == null || current.expired(System.nanoTime()) || !current.owner().equals(userId)) {
+            return false;
+        }
+        return branch.remove(seat, current);
+    }
+    /* 락 해제 : 살아있는 내 락일 때만, 읽은 값 그대로 남아있을 때만 삭제 */
+
+    @Override
+    public String getLockOwner(Long branchId, String seatNumber) {
+        Map<Integer, LockEntry> branch = locks.get(branchId);
+        LockEntry current = branch == null ? null : branch.get(Integer.valueOf(seatNumber));
+        return current == null || current.expired(System.nanoTime()) ? null : current.owner();
+    }
+
+    @Override
+    public void forceUnlockSeat(Long branchId, String seatNumber) {
+        branch(branchId).remove(Integer.valueOf(seatNumber));
+    }
+
+    @Override
+    public Map<Integer, String> getLockOwners(Long branchId, List<Integer> seatNumbers) {
+        Map<Integer, String> lockMap = new HashMap<>();
+        Map<Integer, LockEntry> branch = locks.get(branchId);
+        if (branch == null || branch.isEmpty()) {
+            return lockMap;
+        }
+        long now = System.nanoTime();
+        for (Integer seatNum : seatNumbers) {
+            LockEntry current = branch.get(seatNum);
+            if (current != null && !current.expired(now)) {
+                lockMap.put(seatNum, current.owner());
+            }
+        }
+        return lockMap;
+    }
+    /* 만료된 락은 조회할 때 없는 것으로 취급(실제 삭제는 expireLocks가 담당) */
+
+    public boolean isEmpty() {
+        return locks.values().stream().allMatch(Map::isEmpty);
+    }
+    /* 메모리 락이 하나도 없는지(장애 복구 후 Redis로 완전히 돌아갔는지 확인용) */
+
+    @Scheduled(fixedDelay = 1000)
+    public void expireLocks() {
+        long now = System.nanoTime();
+        locks.forEach((branchId, branch) -> branch.forEach((seat, entry) -> {
+            if (entry.expired(now) && branch.remove(seat, entry)) {
+                seatStatusStore.markUnlocked(branchId, seat);
+            }
+        }));
+    }
+    /* 만료된 락 정리(1초마다, 서버마다 각자 실행 - 메모리 락은 이 서버 것이므로 ShedLock 사용 안 함)
+    만료된 락을 지우고 현황판의 LOCKED 표시를 AVAILABLE로 복구
+    (Redis 락의 키 만료 알림(expired)과 같은 역할)
+     */
+}
@@ -0,0 +1,129 @@
+/*
+보낼 편지함(reservation_outbox)에 쌓인 예약 이벤트를 모아서 Redis Stream으로 보내는 릴레이
+캐시, 푸시 알림, 분석 등은 MySQL을 주기적으로 조회(polling)하지 않고
+지점별 스트림(reservation_events:{지점ID})을 XREAD/XREADGROUP으로 이어서 읽으면 됨
+ */
+package com.studycafe.service;
+
+import com.studycafe.domain.outbox.OutboxEvent;
+import com.studycafe.domain.outbox.OutboxEventRepository;
+import com.studycafe.global.metrics.ReservationMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+    public static final String STREAM_KEY_PREFIX = "reservation_events:";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RedisTemplate<String,String> redisTemplate;
+    private final ReservationMetrics reservationMetrics;
+
+    @Value("${app.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.outbox.stream-max-length:100000}")
+    private long streamMaxLength;
+    /* 필드(application.yml)
+    batchSize : 한 번에 읽어서 보내는 이벤트 수(DB 조회 1번 + Redis 파이프라인 1번 + DB 삭제 1번)
+    streamMaxLength : 지점별 스트림에 남겨둘 최대 이벤트 수(대략, 넘으면 오래된 것부터 잘라냄)
+     */
+
+    public static String streamKey(Long branchId) {
+        return STREAM_KEY_PREFIX + "{" + branchId + "}";
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:200}")
+    @SchedulerLock(name = "OutboxRelay_Lock", lockAtMostFor = "30s")
+    public void relay() {
+        int relayedCount = 0;
+        try {
+            List<OutboxEvent> batch = outboxEventRepository.findOldest(PageRequest.of(0, batchSize));
+            while (!batch.isEmpty()) {
+                publish(batch);
+                outboxEventRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+                relayedCount += batch.size();
+
+                if (batch.size() < batchSize) {
+                    break;
+                }
+                batch = outboxEventRepository.findOldest(PageRequest.of(0, batchSize));
+            }
+        } catch (Exception e) {
+            log.error("예약 이벤트 전송 중 오류 발생, 다음 주기에 다시 전송 - Error: {}", e.getMessage());
+        }
+        if (relayedCount > 0) {
+            reservationMetrics.outboxRelayed(relayedCount);
+        }
+    }
+    /* 예약 이벤트 전송(기본 200ms마다)
+    1. 편지함에서 가장 오래된 이벤트부터 batchSize개 조회
+    2. 지점별 스트림에 파이프라인 1번으로 XADD
+    3. 전송이 끝난 이벤트만 편지함에서 삭제(DELETE ... WHERE id IN, 1번)
+    4. 꺼낸 개수가 batchSize보다 적으면 밀린 이벤트가 없으므로 종료
+
+    릴레이는 서버 1대만 실행(ShedLock OutboxRelay_Lock)
+    순서 보장 범위 : 같은 예약의 이벤트끼리만(확정 >> 취소/완료 순서대로 들어감)
+    >> 같은 예약의 다음 이벤트는 앞 이벤트의 트랜잭션이 커밋된 뒤에야 예약을 찾아서 기록되므로,
+       다음 이벤트가 조회될 때는 앞 이벤트도 이미 보이고 id도 더 작음(이미 보냈거나 같은 배치에서 먼저 보냄)
+    서로 다른 예약(같은 지점, 같은 좌석 포함) 사이의 순서는 보장하지 않음
+    >> id(AUTO_INCREMENT)는 INSERT 때 매겨지고 커밋은 나중이라, 작은 id가 늦게 커밋되면 큰 id보다 뒤에 전송됨
+       받는 쪽은 스트림 순서 대신 예약별 상태(reservationId, type)와 occurredAt으로 판단해야 함
+    전송(2) 후 삭제(3) 전에 서버가 죽으면 같은 이벤트가 한 번 더 전송될 수 있음(최소 1번 전송)
+    >> 받는 쪽은 eventId(편지함 id)로 중복을 걸러내면 됨
+    Redis 장애 중에는 편지함에 계속 쌓였다가 복구되면 밀린 이벤트를 이어서 전송
+    스케줄러 스레드 풀(spring.task.scheduling.pool.size)에서 실행되므로 다른 @Scheduled 작업이 느려도 200ms 주기가 밀리지 않음
+     */
+
+    private void publish(List<OutboxEvent> batch) {
+        RedisStreamCommands.XAddOptions options = RedisStreamCommands.XAddOptions
+                .maxlen(streamMaxLength)
+                .approximateTrimming(true);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (OutboxEvent event : batch) {
+                byte[] key = streamKey(event.getBranchId()).getBytes(StandardCharsets.UTF_8);
+                connection.streamCommands().xAdd(StreamRecords.newRecord().in(key).ofMap(fields(event)), options);
+            }
+            return null;
+        });
+    }
+    /* 파이프라인으로 XADD를 모아서 Redis 왕복 1번
+    XADD reservation_events:{지점ID} MAXLEN ~ 100000 * eventId ... type ... (ID는 Redis가 시간순으로 자동 생성)
+    파이프라인 중 하나라도 실패하면 예외가 나서 삭제(3)를 건너뛰고 다음 주기에 다시 보냄
+     */
+
+    private static Map<byte[], byte[]> fields(OutboxEvent event) {
+        Map<byte[], byte[]> fields = new LinkedHashMap<>();
+        put(fields, "eventId", event.getId());
+        put(fields, "type", event.getEventType());
+        put(fields, "reservationId", event.getReservationId());
+        put(fields, "branchId", event.getBranchId());
+        put(fields, "seatNumber", event.getSeatNumber());
+        put(fields, "userId", event.getUserId());
+        put(fields, "startTime", event.getStartTime());
+        put(fields, "endTime", event.getEndTime());
+        put(fields, "occurredAt", event.getOccurredAt());
+        return fields;
+    }
+
+    private static void put(Map<byte[], byte[]> fields, String name, Object value) {
+        fields.put(name.getBytes(StandardCharsets.UTF_8), String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+    }
+    /* 스트림 항목 필드 : 모두 문자열(시각은 ISO-8601, ex. 2026-10-18T14:00) */
+}
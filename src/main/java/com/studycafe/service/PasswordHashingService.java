@@ -0,0 +1,112 @@
+/*
+비밀번호 해싱(BCrypt)을 전용 스레드에서만 실행하는 곳
+BCrypt는 일부러 느리게 만든 해시라서 로그인/회원가입이 몰리면 CPU를 다 써버림
+>> 요청 스레드(Tomcat)에서 바로 돌리지 않고 개수가 정해진 전용 스레드 + 길이가 정해진 대기줄에서만 실행해서
+   로그인이 몰려도 좌석 조회/선점 요청이 쓸 CPU를 남겨둠
+ */
+package com.studycafe.service;
+
+import com.studycafe.domain.user.User;
+import com.studycafe.domain.user.UserRepository;
+import com.studycafe.global.exception.CustomException;
+import com.studycafe.global.exception.ErrorCode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PasswordHashingService {
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+
+    @Value("${app.password.hash-threads:2}")
+    private int hashThreads;
+
+    @Value("${app.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    /* 필드(application.yml)
+    hashThreads : BCrypt를 실행하는 전용 스레드 수 >> 로그인이 아무리 몰려도 BCrypt가 쓰는 CPU 코어는 이 개수까지
+    queueCapacity : 전용 스레드가 모두 바쁠 때 기다릴 수 있는 최대 요청 수
+    executor : 전용 스레드 + 대기줄, 대기줄까지 꽉 차면 더 받지 않고 바로 거절(AbortPolicy)
+     */
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(hashThreads, hashThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public String encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+    /* 해싱 / 비교
+    전용 스레드에 맡기고 요청 스레드는 결과가 나올 때까지 기다림(기다리는 동안 CPU를 쓰지 않음)
+    대기줄이 꽉 찼으면 기다리지 않고 바로 PASSWORD_HASHING_BUSY(429) >> 클라이언트가 잠시 후 재시도
+     */
+
+    public void rehashIfNeeded(User user, String rawPassword) {
+        String oldPassword = user.getPassword();
+        if (!passwordEncoder.upgradeEncoding(oldPassword)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                String newPassword = passwordEncoder.encode(rawPassword);
+                if (userRepository.updatePassword(user.getId(), oldPassword, newPassword) == 1) {
+                    log.info("비밀번호 해시 강도 변경 - User: {}", user.getId());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 바쁠 때는 건너뜀, 다음 로그인 때 다시 시도
+        }
+    }
+    /* 로그인 성공 시 해시 강도 올리기(rehash)
+    저장된 해시의 강도(cost)가 설정값(app.password.bcrypt-strength)보다 낮으면
+    방금 맞춘 원래 비밀번호로 새 강도의 해시를 만들어서 교체
+    로그인 응답을 기다리게 하지 않도록 전용 스레드에서 따로 실행하고, 대기줄이 꽉 찼으면 건너뜀
+    교체는 DB의 해시가 아직 예전 값일 때만(그 사이 비밀번호가 바뀌었으면 덮어쓰지 않음)
+     */
+
+    private <T> T submit(Callable<T> task) {
+        try {
+            return executor.submit(task).get();
+        } catch (RejectedExecutionException e) {
+            throw new CustomException(ErrorCode.PASSWORD_HASHING_BUSY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException(ErrorCode.INTERNAL_SERVER_ERROR);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new CustomException(ErrorCode.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -1,170 +1,389 @@
 /*
 동시에 2명이 같은 좌석을 예약하려고 할 때 1명만 성공시키고 나머지는 튕겨내는 역할
+Redis에 락을 저장하는 SeatLockService 구현체(여러 서버가 같은 락을 공유)
+Redis 오류는 여기서 삼키지 않고 그대로 던짐 >> FailoverSeatLockService가 받아서 메모리 락으로 전환
  */
 package com.studycafe.service;
 
 import com.studycafe.global.exception.CustomException;
 import com.studycafe.global.exception.ErrorCode;
+import com.studycafe.dto.SeatStatusBitmap;
+import com.studycafe.global.metrics.ReservationMetrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-@Slf4j
 @Service // Service 계층 코드 명시
 @RequiredArgsConstructor // final붙은 필드 생성자 자동 생성
-public class RedisLockService {
+public class RedisLockService implements SeatLockService {
+    public static final String KEY_PREFIX = "seat_lock:";
+    public static final String FENCE_KEY_PREFIX = "seat_fence:";
+
+    private static final String NEXT_FENCE =
+            "local function nextFence(key) " +
+            "  local token = redis.call('INCR', key) " +
+            "  if token < tonumber(ARGV[3]) then " +
+            "    redis.call('SET', key, ARGV[3]) return tonumber(ARGV[3]) " +
+            "  end " +
+            "  return token " +
+            "end " +
+            "local function currentFence(key) " +
+            "  local token = redis.call('GET', key) " +
+            "  if token then return tonumber(token) end " +
+            "  return nextFence(key) " +
+            "end ";
+
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            NEXT_FENCE +
+            "if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return nextFence(KEYS[2]) end " +
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  redis.call('PEXPIRE', KEYS[1], ARGV[2]) return currentFence(KEYS[2]) " +
+            "end " +
+            "return 0",
+            Long.class
+    );
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<Long>> ACQUIRE_MANY_SCRIPT = new DefaultRedisScript(
+            NEXT_FENCE +
+            "local n = #KEYS / 2 " +
+            "for i = 1, n do " +
+            "  local owner = redis.call('GET', KEYS[i]) " +
+            "  if owner and owner ~= ARGV[1] then return {} end " +
+            "end " +
+            "local tokens = {} " +
+            "for i = 1, n do " +
+            "  if redis.call('SET', KEYS[i], ARGV[1], 'NX', 'PX', ARGV[2]) then " +
+            "    tokens[i] = nextFence(KEYS[n + i]) " +
+            "  else " +
+            "    redis.call('PEXPIRE', KEYS[i], ARGV[2]) tokens[i] = currentFence(KEYS[n + i]) " +
+            "  end " +
+            "end " +
+            "return tokens",
+            List.class
+    );
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<Long>> ALLOCATE_SCRIPT = new DefaultRedisScript(
+            NEXT_FENCE +
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return {} end " +
+            "local n = #ARGV - 5 " +
+            "for i = 1, n do " +
+            "  local seat = ARGV[5 + i] " +
+            "  if redis.call('ZSCORE', KEYS[3], seat) then " +
+            "    redis.call('ZREM', KEYS[3], seat) " +
+            "    if redis.call('HGET', KEYS[1], seat) == 'AVAILABLE' " +
+            "        and redis.call('SET', KEYS[3 + i], ARGV[1], 'NX', 'PX', ARGV[2]) then " +
+            "      local token = nextFence(KEYS[3 + n + i]) " +
+            "      redis.call('HSET', KEYS[1], seat, 'LOCKED') " +
+            "      redis.call('BITFIELD', KEYS[2], 'SET', 'u2', '#' .. (tonumber(seat) - 1), ARGV[5]) " +
+            "      redis.call('PUBLISH', ARGV[4], seat .. ':LOCKED') " +
+            "      return {tonumber(seat), token} " +
+            "    end " +
+            "  end " +
+            "end " +
+            "return {}",
+            List.class
+    );
+    private static final int ALLOCATE_CANDIDATES = 8; // 스크립트 1번에 넘기는 후보 좌석 수
+    private static final int ALLOCATE_ROUNDS = 4; // 후보를 다시 읽어서 시도하는 최대 횟수(최대 32좌석)
+
+    private static final RedisScript<Long> EXTEND_SCRIPT = new DefaultRedisScript<>(
+            NEXT_FENCE +
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  redis.call('PEXPIRE', KEYS[1], ARGV[2]) return currentFence(KEYS[2]) " +
+            "end " +
+            "return 0",
+            Long.class
+    );
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<Long>> EXTEND_MANY_SCRIPT = new DefaultRedisScript(
+            NEXT_FENCE +
+            "local n = #KEYS / 2 " +
+            "for i = 1, n do " +
+            "  if redis.call('GET', KEYS[i]) ~= ARGV[1] then return {} end " +
+            "end " +
+            "local tokens = {} " +
+            "for i = 1, n do " +
+            "  redis.call('PEXPIRE', KEYS[i], ARGV[2]) tokens[i] = currentFence(KEYS[n + i]) " +
+            "end " +
+            "return tokens",
+            List.class
+    );
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0",
+            Long.class
+    );
+    /* 락 조작 스크립트(Lua)
+    조회(GET)와 변경(PEXPIRE, DEL)을 Redis 서버 안에서 한 번에 실행 >> 왕복 1번 + 원자성 보장
+    RedisTemplate.execute(script)는 스크립트의 SHA1 값으로 EVALSHA를 먼저 보내고
+    Redis에 스크립트가 없을 때(NOSCRIPT)만 EVAL로 본문을 보내서 등록함
+    >> 스크립트 본문은 최초 1번만 전송되고 이후에는 SHA1(40글자)만 전송
+
+    ACQUIRE(획득) : SET NX PX로 락이 없을 때만 주인(userId)과 함께 저장하고 새 펜싱 토큰 발급
+    이미 내 락이면 TTL만 연장하고 기존 펜싱 토큰 반환(같은 사용자의 중복 클릭)
+    EXTEND(연장) : 락 주인이 나일 때만 TTL 연장하고 현재 펜싱 토큰 반환
+
+    ACQUIRE_MANY / EXTEND_MANY(여러 좌석, 단체석) : KEYS = [락 키 N개, 펜싱 토큰 키 N개]
+    먼저 모든 좌석을 검사해서 하나라도 남의 락이면 아무것도 바꾸지 않고 빈 결과({}) >> 전부 아니면 전무
+    통과하면 전부 잡고(연장하고) 좌석 순서대로 펜싱 토큰 반환
+    스크립트 1개 안에서 검사와 잠금이 끝나므로 일부 좌석만 잡힌 채로 남거나 서로 반씩 잡고 기다리는 일이 없음
+
+    ALLOCATE(빈 좌석 자동 배정) : 자바가 빈 좌석 목록(SeatStatusStore의 seat_free:{지점ID})에서 미리 읽은 후보를 순서대로 검사해서
+    SET NX PX로 락을 잡고 펜싱 토큰 발급, 현황판/비트맵을 LOCKED로 바꾸고 변경 알림까지 스크립트 1번에 처리
+    후보가 아직 목록에 있고(ZSCORE) 현황판에서 AVAILABLE일 때만 잡음 >> 이용중(OCCUPIED) 좌석을 LOCKED로 덮어쓰지 않음
+    검사한 후보는 목록에서 뺌(이미 락이 있거나 AVAILABLE이 아닌 좌석은 목록이 아직 갱신되지 않은 좌석)
+    현황판 자체가 없으면(EXISTS == 0) 아무것도 쓰지 않고 빈 결과({}) >> 좌석 몇 개만 들어간 반쪽짜리 현황판을 만들지 않음
+    KEYS = [현황판, 비트맵, 빈 좌석 목록, 후보 락 키 N개, 후보 펜싱 토큰 키 N개]
+    ARGV = [userId, TTL(ms), 토큰 하한값, 변경 알림 채널, LOCKED 2비트 코드, 후보 좌석번호 N개]
+    스크립트가 쓰는 키를 모두 KEYS로 선언(Cluster/프록시가 키로 slot을 확인하는 규칙을 지킴)
+    >> 모두 같은 해시 태그({지점ID})라 Redis Cluster에서도 같은 slot
+
+    펜싱 토큰(seat_fence:{지점ID}:좌석번호)
+    좌석마다 INCR로 1씩 커지는 번호, 락을 새로 잡은 사람일수록 큰 번호를 받음
+    하한값(ARGV[3], SeatLockService.fenceFloor)보다 작으면 하한값으로 올림
+    락 키와 같은 해시 태그라서 Redis Cluster에서도 스크립트 1개로 두 키를 함께 다룰 수 있음
+    GC 멈춤 등으로 락이 만료된 뒤 늦게 도착한 예약 확정은
+    DB의 좌석 펜싱 토큰(seats.fence_token)보다 번호가 작아서 거절됨(SeatRepository.advanceFenceToken)
+    RELEASE(해제) : 락 주인이 나일 때만 삭제 >> 남의 락을 풀 수 없음
+     */
+
     private final RedisTemplate<String,String> redisTemplate;
+    private final ReservationMetrics reservationMetrics;
+    private final RedisSlotRouter redisSlotRouter;
 
-    public boolean lockSeat(String seatNumber, String userId) {
-        String key = "seat_lock:" + seatNumber;
-
-        try {
-            return Boolean.TRUE.equals(
-                    redisTemplate
-                            .opsForValue()
-                            .setIfAbsent(key, userId, Duration.ofMinutes(5))
-            );
-        } catch (Exception e) {
-            log.error("Redis 락 설정 중 오류 발생 - Seat: {}, User: {}, Error: {}", 
-                    seatNumber, userId, e.getMessage());
-            // Redis 오류 시 false 반환하여 예약 실패 처리
-            return false;
-        }
+    public static String lockKey(Long branchId, String seatNumber) {
+        return KEY_PREFIX + "{" + branchId + "}:" + seatNumber;
+    }
+    public static String fenceKey(Long branchId, String seatNumber) {
+        return FENCE_KEY_PREFIX + "{" + branchId + "}:" + seatNumber;
+    }
+    /* 락 키 생성 : seat_lock:{지점ID}:좌석번호 (ex. 1지점 10번 좌석 >> seat_lock:{1}:10)
+    펜싱 토큰 키 : seat_fence:{지점ID}:좌석번호(만료 없음, 좌석마다 1개)
+    중괄호 부분은 Redis Cluster의 해시 태그(hash tag)
+    클러스터는 키 전체가 아니라 {} 안의 글자만으로 저장할 노드(slot)를 정하므로
+    같은 지점의 락 키는 항상 같은 노드에 모임
+    >> 한 지점의 좌석 락을 파이프라인/스크립트로 한 번에 다룰 수 있고
+    >> 지점마다 다른 노드로 흩어져서 지점끼리 부하를 나눠 가짐
+     */
+
+    @Override
+    public long lockSeat(Long branchId, String seatNumber, String userId) {
+        return runScript(ACQUIRE_SCRIPT, branchId, seatNumber, userId);
     }
 /* 좌석 잠금
-String key = "seat_lock: + seatNumber;
-Redis에 저장할 키 이름을 생성(10번 좌석 >> key = "seat_lock:10")
+String key = lockKey(branchId, seatNumber);
+Redis에 저장할 키 이름을 생성(1지점 10번 좌석 >> key = "seat_lock:{1}:10")
 앞에 접두사를 붙이는 이유는 다른 데이터와 섞이지 않게 하기 위함
 
 opsForValue()
 Redis의 String 타입 데이터를 다루겠다는 의미
 
-setIfAbsent(key, userId, Duration.ofMinutes(5))
-Redis 명령어인 SETNX를 실행 : 이 key(seat_lock:10)이 없을 때만 데이터 저장
-만약 성공 시 키가 없어서 저장에 성공하면 true를 반환(lock 획득 성공)
+ACQUIRE_SCRIPT
+Redis 명령어인 SET NX(SETNX)를 실행 : 이 key(seat_lock:{1}:10)이 없을 때만 데이터 저장
+만약 성공 시 키가 없어서 저장에 성공하면 새 펜싱 토큰을 반환(lock 획득 성공)
 만약 실패 시 이미 누군가 키를 만들어놨다는 의미이고 누군가 먼저 찜해뒀다는 의미이므로
-저장하지 않고 false를 반환
+저장하지 않고 0(NO_TOKEN)을 반환
 SETNX : SET if not exists(없으면 저장해라)
 
 
 
-Duration.ofMinutes(5)
+LOCK_TTL(5분, SeatLockService)
 서버가 락을 걸어놓고 락을 영원히 못 풀면 영구적으로 예약 불가 상태이므로 이를 방지함
 
-Boolean.TRUE.equals()
-setIfAbsent는 Boolean을 반환하므로 혹시모를 null 에러를 방지하고 true/false로 바꾸기 위함
+Redis 오류(연결 실패, 응답 시간 초과)는 false로 바꾸지 않고 예외(DataAccessException)로 던짐
+false는 "다른 사람이 이미 선점함"이라는 뜻이므로 Redis가 잠깐 죽었을 때
+모든 좌석이 선점된 것처럼 보이는 문제를 막기 위함
  */
 
 /* 예시
 사용자 A가 0.001초 빨라서 lockSeat("1", "userA")가 실행되어
 Redis는 키가 없었으므로 true를 리턴하여 찜 성공 >> 결제 화면으로 넘어감
 사용자 B가 0.001초 느려서 lockSeat("1", "userB")가 실행되지만
-Redis는 이미 key seat_lock:1이 이미 있으므로 false를 리턴 >> 오류 메시지 출력
+Redis는 이미 key seat_lock:{1}:1이 이미 있으므로 false를 리턴 >> 오류 메시지 출력
  */
 
-    public boolean refreshLock(String seatNumber, String userId) {
-        String key = "seat_lock:" + seatNumber;
-        try {
-            String currentOwner = redisTemplate.opsForValue().get(key);
-            if (userId.equals(currentOwner)) {
-                return Boolean.TRUE.equals(
-                        redisTemplate.expire(key, Duration.ofMinutes(5))
-                );
+    @Override
+    public Allocation lockAnySeat(Long branchId, String userId, int fromSeatNumber, int toSeatNumber, Integer nearSeatNumber) {
+        int near = nearSeatNumber == null ? 0 : Math.max(fromSeatNumber, Math.min(toSeatNumber, nearSeatNumber));
+        for (int round = 0; round < ALLOCATE_ROUNDS; round++) {
+            List<String> candidates = allocateCandidates(branchId, fromSeatNumber, toSeatNumber, near);
+            if (candidates.isEmpty()) {
+                return null;
+            }
+            List<String> keys = new ArrayList<>(SeatStatusStore.keys(branchId));
+            candidates.forEach(seat -> keys.add(lockKey(branchId, seat)));
+            candidates.forEach(seat -> keys.add(fenceKey(branchId, seat)));
+            List<String> args = new ArrayList<>(List.of(
+                    userId, String.valueOf(LOCK_TTL.toMillis()), String.valueOf(SeatLockService.fenceFloor()),
+                    SeatStatusStore.eventChannel(branchId), String.valueOf(SeatStatusBitmap.codeOf("LOCKED"))));
+            args.addAll(candidates);
+
+            List<Long> result = redisTemplate.execute(ALLOCATE_SCRIPT, keys, args.toArray());
+            if (result != null && !result.isEmpty()) {
+                return new Allocation(result.get(0).intValue(), result.get(1));
             }
-            return false;
-        } catch (Exception e) {
-            log.error("Redis 락 갱신 중 오류 발생 - Seat: {}, User: {}, Error: {}", 
-                    seatNumber, userId, e.getMessage());
-            return false;
         }
+        return null;
     }
-/* 락 연장
-1. 키 생성 및 검문 검색
-"seat_lock:" + 좌석번호 로 된 key 변수 생성
-Redis에서 key라는 사물함을 열어서 안에 이름표가 어떻게 되어있는지 확인
-락의 주인이 누구인지 조회하고 currentOwner에 저장
 
-2. 신원 확인
-신원 확인된 락 주인(currentOwner)가 요청한 유저(userId)와 같은지 비교
-만약 null(락 만료)이거나 다르면(다른 사람임) false를 반환
+    private List<String> allocateCandidates(Long branchId, int fromSeatNumber, int toSeatNumber, int near) {
+        String freeKey = SeatStatusStore.freeKey(branchId);
+        if (near == 0) {
+            Set<String> seats = redisTemplate.opsForZSet().rangeByScore(freeKey, fromSeatNumber, toSeatNumber, 0, ALLOCATE_CANDIDATES);
+            return seats == null ? List.of() : new ArrayList<>(seats);
+        }
+        Set<String> upSeats = redisTemplate.opsForZSet().rangeByScore(freeKey, near, toSeatNumber, 0, ALLOCATE_CANDIDATES);
+        Set<String> downSeats = redisTemplate.opsForZSet().reverseRangeByScore(freeKey, fromSeatNumber, near, 0, ALLOCATE_CANDIDATES);
+        List<String> up = upSeats == null ? List.of() : new ArrayList<>(upSeats);
+        List<String> down = downSeats == null ? List.of() : new ArrayList<>(downSeats);
 
-3. 시간 연장(중요)
-만약 본인이 맞다면 추가로 5분을 더 연장
-이로써 DB 저장 직전에 락이 풀리는 상황 방지함
+        List<String> candidates = new ArrayList<>();
+        int u = 0;
+        int d = 0;
+        while (candidates.size() < ALLOCATE_CANDIDATES && (u < up.size() || d < down.size())) {
+            boolean takeUp = d >= down.size() || u < up.size()
+                    && Integer.parseInt(up.get(u)) - near <= near - Integer.parseInt(down.get(d));
+            String seat = takeUp ? up.get(u++) : down.get(d++);
+            if (!candidates.contains(seat)) {
+                candidates.add(seat);
+            }
+        }
+        return candidates;
+    }
+/* 빈 좌석 자동 배정(ALLOCATE_SCRIPT)
+빈 좌석 목록에서 후보를 최대 8개 읽고(ZRANGEBYSCORE), 스크립트 1번으로 앞에서부터 잠금 시도
+후보가 모두 그 사이에 다른 사람에게 잡혔으면 후보를 다시 읽어서 최대 4번까지 반복(최대 32좌석 검사)
+평소에는 조회 1번 + 스크립트 1번으로 끝남
+
+nearSeatNumber는 범위 안으로 맞춤(범위 밖이면 범위 끝 좌석 기준으로 가까운 좌석), 없으면 0(번호 순)
+가까운 좌석 기준이면 위쪽(번호가 큰 쪽)과 아래쪽 후보를 읽어서 가까운 순으로 섞음(거리가 같으면 위쪽 먼저)
+ */
 
-4. Redis 에러
-만약 Redis 서버가 갑자기 오류가 나면 에러 메시지와 함께 false를 리턴해서
-락 획득 실패라고 컨트롤러에게 알림
+    @Override
+    public List<Long> lockSeats(Long branchId, List<Integer> seatNumbers, String userId) {
+        return runManyScript(ACQUIRE_MANY_SCRIPT, branchId, seatNumbers, userId);
+    }
+
+    @Override
+    public List<Long> refreshLocks(Long branchId, List<Integer> seatNumbers, String userId) {
+        return runManyScript(EXTEND_MANY_SCRIPT, branchId, seatNumbers, userId);
+    }
 
-! 추가
-redisTemplate는 스프링이 제공하는 Redis 리모컨으로 자바 객체를 Redis가 이해할 수
-있는 데이터로 변환해서 통신을 대신 제공
-.opsForValue()는 단순 문자열에 대한 작업 모드를 의미함
-.get(key)는 실제로 데이터를 가져오는 명령어
+    private List<Long> runManyScript(RedisScript<List<Long>> script, Long branchId, List<Integer> seatNumbers, String userId) {
+        List<String> keys = new ArrayList<>(seatNumbers.size() * 2);
+        seatNumbers.forEach(seat -> keys.add(lockKey(branchId, String.valueOf(seat))));
+        seatNumbers.forEach(seat -> keys.add(fenceKey(branchId, String.valueOf(seat))));
+        List<Long> tokens = redisTemplate.execute(
+                script,
+                keys,
+                userId, String.valueOf(LOCK_TTL.toMillis()), String.valueOf(SeatLockService.fenceFloor())
+        );
+        return tokens == null ? List.of() : tokens;
+    }
+/* 여러 좌석 락 획득/연장(ACQUIRE_MANY, EXTEND_MANY, Redis 왕복 1번)
+같은 지점의 락 키와 토큰 키는 모두 해시 태그가 같아서 Redis Cluster에서도 스크립트 1개로 실행 가능
  */
 
-    public String getLockOwner(String seatNumber) {
-        String key = "seat_lock:" + seatNumber;
+    @Override
+    public long refreshLock(Long branchId, String seatNumber, String userId) {
+        return runScript(EXTEND_SCRIPT, branchId, seatNumber, userId);
+    }
+/* 락 연장
+1. 키 생성
+"seat_lock:{지점ID}:" + 좌석번호 로 된 key 변수 생성
+
+2. 신원 확인 + 시간 연장(EXTEND_SCRIPT, Redis 왕복 1번)
+Redis 안에서 락 주인이 요청한 유저(userId)와 같은지 비교하고
+본인이 맞다면 추가로 5분을 더 연장하고 현재 펜싱 토큰 반환
+만약 null(락 만료)이거나 다르면(다른 사람임) 0을 반환
+확인과 연장 사이에 락이 만료되어 남의 락을 연장하는 경쟁 상태가 생기지 않음
+이로써 DB 저장 직전에 락이 풀리는 상황 방지함
+
+3. Redis 에러
+만약 Redis 서버가 갑자기 오류가 나면 예외를 그대로 던져서
+FailoverSeatLockService가 서킷 브레이커에 실패를 기록하고 메모리 락으로 처리
+ */
+
+    @Override
+    public String getLockOwner(Long branchId, String seatNumber) {
+        String key = lockKey(branchId, seatNumber);
         return redisTemplate.opsForValue().get(key);
     }
 /*
 현재 좌석 점유자 확인
         좌석번호(45)가 매개변수로 들어옴
-        Redis에서 찾을 정확한 이름을 key(String)으로 저장(seat_lock:45)
-        Redis에게 seat_lock:45라는 키에 들어있는 값(Value)을 요청
+        Redis에서 찾을 정확한 이름을 key(String)으로 저장(seat_lock:{1}:45)
+        Redis에게 seat_lock:{1}:45라는 키에 들어있는 값(Value)을 요청
         만약 값이 있다면(선점중) userId가 반환되고 값이 없으면(빈자리) null이 반환됨
  */
 
-    public void unlockSeat(String seatNumber) {
-        String key = "seat_lock:" + seatNumber;
-        try {
-            redisTemplate.delete(key);
-        } catch (Exception e) {
-            log.error("Redis 락 해제 중 오류 발생 - Seat: {}, Error: {}", 
-                    seatNumber, e.getMessage());
-            // 예외를 다시 던지지 않고 로그만 남김 (이미 예약이 완료된 경우 락 해제 실패해도 큰 문제 없음)
-        }
+    @Override
+    public boolean unlockSeat(Long branchId, String seatNumber, String userId) {
+        return runScript(RELEASE_SCRIPT, branchId, seatNumber, userId) == 1L;
     }
 /*
 좌석 잠금 해제
-해당 key를 Redis에서 delete 처리하여 다른 사람이 다시 lockSeat을 시도할 때 성공하게 함
+락 주인이 요청한 유저(userId)일 때만 key를 Redis에서 삭제(RELEASE_SCRIPT)하여
+다른 사람이 다시 lockSeat을 시도할 때 성공하게 함
+락이 이미 만료되어 다른 사람이 잡은 경우에는 삭제하지 않고 false 반환
 
-만약 Redis락을 풀려고 하는데 락이 응답이 없다면
-어차피 락은 5분(TTL)뒤에 알아서 사라지므로 큰 문제가 생기지 않아 로그만 남김
+만약 Redis락을 풀려고 하는데 락이 응답이 없다면 예외를 던지고
+FailoverSeatLockService가 실패를 기록한 뒤 false로 처리
+(어차피 락은 5분(TTL)뒤에 알아서 사라지므로 큰 문제가 생기지 않음)
  */
 
-    public Map<Integer, String> getLockOwners(List<Integer> seatNumbers) {
-        try {
-            List<Object> results = redisTemplate.executePipelined(
-                    (RedisCallback<Object>) connection -> {
-                        for(Integer seatNum : seatNumbers) {
-                            String key = "seat_lock:" + seatNum;
-                            connection.get(key.getBytes());
-                        }
-                        return null;
-                    }
-            );
-
-            Map<Integer, String> lockMap = new HashMap<>();
-            for(int i = 0; i < results.size(); i++) {
-                Object result = results.get(i);
-                if(result != null) {
-                    lockMap.put(seatNumbers.get(i), result.toString());
-                }
+    @Override
+    public void forceUnlockSeat(Long branchId, String seatNumber) {
+        redisTemplate.delete(lockKey(branchId, seatNumber));
+    }
+/*
+주인 확인 없이 락을 강제로 삭제(관리 작업, 테스트 데이터 초기화용)
+일반 예약 흐름에서는 사용하지 않음
+ */
+
+    private long runScript(RedisScript<Long> script, Long branchId, String seatNumber, String userId) {
+        Long result = redisTemplate.execute(
+                script,
+                List.of(lockKey(branchId, seatNumber), fenceKey(branchId, seatNumber)),
+                userId, String.valueOf(LOCK_TTL.toMillis()), String.valueOf(SeatLockService.fenceFloor())
+        );
+        return result == null ? NO_TOKEN : result;
+    }
+    /* 락 스크립트 실행 : KEYS = [락 키, 펜싱 토큰 키], ARGV = [userId, TTL(ms), 토큰 하한값] */
+
+    @Override
+    public Map<Integer, String> getLockOwners(Long branchId, List<Integer> seatNumbers) {
+        Timer.Sample sample = Timer.start();
+        List<String> keys = new ArrayList<>(seatNumbers.size());
+        for(Integer seatNum : seatNumbers) {
+            keys.add(lockKey(branchId, String.valueOf(seatNum)));
+        }
+        Map<String, String> owners = redisSlotRouter.getAll(keys);
+        sample.stop(reservationMetrics.lockOwnersPipelineTimer());
+
+        Map<Integer, String> lockMap = new HashMap<>();
+        for(int i = 0; i < keys.size(); i++) {
+            String owner = owners.get(keys.get(i));
+            if(owner != null) {
+                lockMap.put(seatNumbers.get(i), owner);
             }
-            return lockMap;
-        } catch (Exception e) {
-            log.error("Redis 파이프라인 조회 중 오류 발생: {}", e.getMessage());
-            // 오류 시 빈 맵 반환
-            return new HashMap<>();
         }
+        return lockMap;
     }
 /* 좌석 100개의 락 정보를 한번에 가져오는 메서드
 Redis에게 100번 질문하는 것이 아닌 1번만 왔다갔다 하는 방식(Redis Pipelining)
@@ -173,27 +392,28 @@ Redis에게 지금부터 명령 여러 개를 한꺼번에 줄 예정이고 결
 Redis에게 모아뒀다가 한 번에 처리하라는 기능인 executePipelined를 사용
 
 2. 명령 적재
-RedisCallback(Redis호출)형태인 connection에 for문을 돌려서 명령을 차곡차곡
-쌓음, 이때 seat_lock: + 좌석번호로 key를 생성하여 key에 대한 get 명령을 생성
-이때 connection.get()을 호출해도 즉시 값을 반환하지 않고 조회할 목록에 명령을
-추가하라는 의미
+seat_lock:{지점ID}: + 좌석번호로 key 목록을 만들고 RedisSlotRouter에게 넘김
+RedisSlotRouter가 key마다 get 명령을 파이프라인에 차곡차곡 쌓아서 한 번에 전송
+(connection.get()을 호출해도 즉시 값을 반환하지 않고 조회할 목록에 명령을 추가하라는 의미)
 
 - * Redis로 1번 통신 * -
+Redis Cluster에서는 key를 담당 노드별로 나눠서 노드마다 파이프라인을 동시에 보냄
+한 지점의 락 키는 해시 태그로 같은 slot에 모여 있으므로 보통은 노드 1곳과 1번 통신
+(왕복 시간은 redis.lock.owners.pipeline 타이머에 기록)
 
-3. 결과 매핑(List -> Map 반환)
-results 리스트에는 Redis가 조회한 순서대로 결과가 담겨 있음([null,"userA",null, //])
+3. 결과 매핑(Map<key, 주인> -> Map<좌석번호, 주인> 반환)
+owners에는 락이 걸린 key만 {key = 주인} 형태로 담겨 있음
 이때 키,값 형태인 lockMap을 선언(자리 번호를 알면 바로 주인을 알 수 있음)
-result의 크기만큼 for문을 돌려서 results의 내용을 result 변수에 저장하고
-만약 result가 null이 아니라면 누군가 이 자리에 락을 걸고 있다는 뜻이므로
+key 목록만큼 for문을 돌려서 owners에서 주인을 꺼내고
+만약 주인이 null이 아니라면 누군가 이 자리에 락을 걸고 있다는 뜻이므로
 몇 번 좌석의 주인은 누구의 형태로 맵에 저장(put)
 
 4. 반환
 {3 = "userA", 10 = "userB"}의 형태로 변환된 lockMap을 반환
 
 5. Redis 에러
-만약 좌석표를 로딩하는데 Redis가 죽었다면
-여기서 에러가 터지면 메인 페이지가 모두 죽으므로 새로운 Map을 리턴하여
-잠금 정보가 없는 상태로 로직이 진행됨
+만약 좌석표를 로딩하는데 Redis가 죽었다면 예외를 그대로 던짐
+FailoverSeatLockService가 실패를 기록하고 메모리 락 정보만으로 결과를 만들어서
 사용자는 좌석표를 볼 수 있고 적어도 서비스 접속 자체는 가능하게 함
  */
 
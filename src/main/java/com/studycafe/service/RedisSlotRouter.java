@@ -0,0 +1,177 @@
+/*
+여러 키를 한꺼번에 읽을 때 Redis Cluster의 노드 배치에 맞춰 나눠서 읽어주는 곳
+standalone/sentinel에서는 지금처럼 파이프라인 1번으로 읽고
+cluster에서는 키를 담당 노드별로 나눠서 노드마다 파이프라인을 동시에(병렬) 보냄
+ */
+package com.studycafe.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Component
+@RequiredArgsConstructor
+public class RedisSlotRouter {
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final RedisTemplate<String,String> redisTemplate;
+
+    @Value("${app.redis.cluster.read-parallelism:4}")
+    private int readParallelism;
+
+    private boolean cluster;
+    private ExecutorService executor;
+    /* 필드
+    redisConnectionFactory : 마스터 전용 기본 연결 공장(RedisConnectionConfig)
+    readParallelism : cluster에서 노드별 조회를 동시에 보낼 스레드 수(application.yml)
+    cluster : 기본 연결이 cluster 모드인지 여부
+    executor : 노드별 조회를 병렬로 실행하는 스레드 묶음(cluster일 때만 만듦)
+     */
+
+    @PostConstruct
+    void init() {
+        cluster = redisConnectionFactory instanceof LettuceConnectionFactory lettuce && lettuce.isClusterAware();
+        if (cluster) {
+            executor = Executors.newFixedThreadPool(readParallelism, new CustomizableThreadFactory("redis-slot-"));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public boolean isCluster() {
+        return cluster;
+    }
+
+    public Map<String, String> getAll(List<String> keys) {
+        if (keys.isEmpty()) {
+            return new HashMap<>();
+        }
+        List<List<String>> groups = groupByNode(keys);
+        if (groups.size() == 1) {
+            return pipelinedGet(groups.get(0));
+        }
+
+        List<CompletableFuture<Map<String, String>>> futures = groups.stream()
+                .map(group -> CompletableFuture.supplyAsync(() -> pipelinedGet(group), executor))
+                .toList();
+        Map<String, String> values = new HashMap<>();
+        try {
+            futures.forEach(future -> values.putAll(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return values;
+    }
+    /* 여러 키의 값을 한꺼번에 조회해서 {키 = 값} Map으로 반환(값이 없는 키는 빠짐)
+    1. 키를 담당 노드별로 묶음(groupByNode)
+    2. 묶음이 1개면(standalone/sentinel, 또는 해시 태그로 같은 slot에 모인 한 지점의 키) 파이프라인 1번
+    3. 여러 노드에 흩어져 있으면 노드마다 파이프라인을 executor에서 동시에 보내고 결과를 합침
+    >> 전체 시간이 (노드 수 x 왕복 시간)이 아니라 가장 느린 노드 1곳의 왕복 시간
+    노드 조회가 실패하면 join()이 감싼 CompletionException을 벗겨서 원래 Redis 예외(DataAccessException)를 던짐
+    MGET은 cluster에서 키가 모두 같은 slot이어야 하므로(CROSSSLOT 에러) 키마다 GET을 파이프라인으로 보냄
+     */
+
+    private List<List<String>> groupByNode(List<String> keys) {
+        if (!cluster) {
+            return List.of(keys);
+        }
+
+        Map<Integer, List<String>> bySlot = new HashMap<>();
+        for (String key : keys) {
+            bySlot.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(key), slot -> new ArrayList<>()).add(key);
+        }
+        if (bySlot.size() == 1) {
+            return List.of(keys);
+        }
+
+        Map<RedisClusterNode, List<String>> byNode = new HashMap<>();
+        try (RedisClusterConnection connection = redisConnectionFactory.getClusterConnection()) {
+            bySlot.forEach((slot, slotKeys) ->
+                    byNode.computeIfAbsent(connection.clusterGetNodeForSlot(slot), node -> new ArrayList<>())
+                            .addAll(slotKeys));
+        }
+        return new ArrayList<>(byNode.values());
+    }
+    /* 키를 담당 노드별로 묶기
+    각 키의 slot 번호(CRC16 % 16384, {} 해시 태그가 있으면 태그 부분만 계산)를 구하고
+    slot이 1개뿐이면 노드를 찾을 필요 없이 그대로 반환
+    여러 slot이면 클라이언트가 들고 있는 slot 배치표에서 담당 노드를 찾아 노드별로 합침(Redis 왕복 없음)
+     */
+
+    private Map<String, String> pipelinedGet(List<String> keys) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.stringCommands().get(key.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            Object result = results.get(i);
+            if (result != null) {
+                values.put(keys.get(i), result.toString());
+            }
+        }
+        return values;
+    }
+    /* 키 목록을 파이프라인 1번으로 GET
+    results에는 보낸 순서대로 결과가 담겨 있으므로 같은 위치의 키와 짝지어서 Map으로 변환
+     */
+
+    public List<String> scanKeys(String pattern) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(1000).build();
+        List<String> keys = new ArrayList<>();
+        if (!cluster) {
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                cursor.forEachRemaining(keys::add);
+            }
+            return keys;
+        }
+
+        try (RedisClusterConnection connection = redisConnectionFactory.getClusterConnection()) {
+            for (RedisClusterNode node : connection.clusterGetNodes()) {
+                if (!node.isMaster()) {
+                    continue;
+                }
+                try (Cursor<byte[]> cursor = connection.scan(node, options)) {
+                    cursor.forEachRemaining(key -> keys.add(new String(key, StandardCharsets.UTF_8)));
+                }
+            }
+        }
+        return keys;
+    }
+    /* 패턴에 맞는 키 목록 조회(SCAN)
+    SCAN은 접속한 노드 1곳의 키만 훑으므로 cluster에서는 마스터 노드마다 따로 SCAN해서 합침
+    (복제본은 마스터와 같은 키를 갖고 있으므로 건너뜀)
+     */
+}
@@ -0,0 +1,82 @@
+/*
+예약 종료 시간을 점수(score)로 하는 지점별 Redis Sorted Set 지연 큐
+종료 시간이 지난 예약 ID만 골라서 꺼낼 수 있어 테이블 전체를 훑지 않아도 됨
+ */
+package com.studycafe.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationExpiryQueue {
+    private static final String KEY_PREFIX = "reservation_expiry:";
+
+    private final RedisTemplate<String,String> redisTemplate;
+
+    private static String key(Long branchId) {
+        return KEY_PREFIX + "{" + branchId + "}";
+    }
+    /* 지점별 큐 키 : reservation_expiry:{지점ID}
+    지점마다 큐가 따로 있어서 지점별로 독립적으로 만료 처리 가능
+    {지점ID} 해시 태그로 같은 지점의 락, 현황판 키와 같은 Redis Cluster 노드에 저장됨
+     */
+
+    public void schedule(Long branchId, Long reservationId, LocalDateTime endTime) {
+        try {
+            redisTemplate.opsForZSet().add(key(branchId), String.valueOf(reservationId), toMillis(endTime));
+        } catch (Exception e) {
+            log.error("예약 만료 큐 등록 중 오류 발생 - Reservation: {}, Error: {}",
+                    reservationId, e.getMessage());
+            // 등록에 실패해도 주기적인 전체 만료 처리(safety sweep)가 처리함
+        }
+    }
+    /* 만료 예약 등록
+    ZADD reservation_expiry:{지점ID} <종료시간(ms)> <예약ID>
+     */
+
+    public void cancel(Long branchId, Long reservationId) {
+        try {
+            redisTemplate.opsForZSet().remove(key(branchId), String.valueOf(reservationId));
+        } catch (Exception e) {
+            log.error("예약 만료 큐 삭제 중 오류 발생 - Reservation: {}, Error: {}",
+                    reservationId, e.getMessage());
+        }
+    }
+    /* 퇴실 등으로 먼저 끝난 예약은 큐에서 제거(ZREM) */
+
+    public List<Long> pollDue(Long branchId, LocalDateTime now, int limit) {
+        Set<String> due = redisTemplate.opsForZSet()
+                .rangeByScore(key(branchId), Double.NEGATIVE_INFINITY, toMillis(now), 0, limit);
+
+        List<Long> reservationIds = new ArrayList<>();
+        if (due != null) {
+            due.forEach(id -> reservationIds.add(Long.valueOf(id)));
+        }
+        return reservationIds;
+    }
+    /* 종료 시간이 지난 예약 ID를 오래된 순으로 최대 limit개 조회
+    ZRANGEBYSCORE reservation_expiry:{지점ID} -inf <현재시간(ms)> LIMIT 0 <limit>
+    조회만 하고 지우지 않음 >> DB 처리가 끝난 뒤 remove로 지워서 중간에 서버가 죽어도 유실 없음
+     */
+
+    public void remove(Long branchId, List<Long> reservationIds) {
+        if (reservationIds.isEmpty()) {
+            return;
+        }
+        redisTemplate.opsForZSet().remove(key(branchId), reservationIds.stream().map(String::valueOf).toArray());
+    }
+
+    private double toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
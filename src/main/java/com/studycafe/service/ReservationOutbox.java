@@ -0,0 +1,61 @@
+/*
+예약 상태 변경 이벤트를 보낼 편지함(reservation_outbox)에 기록하는 곳
+예약 저장/변경과 같은 트랜잭션(같은 DB 연결)에서 INSERT 하므로
+예약이 커밋되면 이벤트도 반드시 남고, 롤백되면 이벤트도 함께 사라짐
+ */
+package com.studycafe.service;
+
+import com.studycafe.domain.outbox.OutboxEvent;
+import com.studycafe.domain.reservation.Reservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class ReservationOutbox {
+    private static final String INSERT_SQL =
+            "INSERT INTO reservation_outbox (event_type, reservation_id, branch_id, seat_number, user_id, start_time, end_time, occurred_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void record(OutboxEvent.EventType type, Reservation reservation, Integer seatNumber) {
+        append(List.of(event(type, reservation, seatNumber)));
+    }
+
+    public static OutboxEvent event(OutboxEvent.EventType type, Reservation reservation, Integer seatNumber) {
+        return new OutboxEvent(type, reservation.getId(), reservation.getBranchId(), seatNumber,
+                reservation.getUser().getId(), reservation.getStartTime(), reservation.getEndTime(), LocalDateTime.now());
+    }
+    /* 예약 1건의 상태 변경 기록
+    좌석번호는 호출하는 쪽이 이미 알고 있으므로 따로 받음
+    (getReferenceById로 만든 좌석 프록시에서 꺼내면 좌석 SELECT가 추가로 나가기 때문)
+    유저 ID는 프록시에서 꺼내도 조회가 일어나지 않음
+     */
+
+    public void append(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.getEventType().name());
+            ps.setLong(2, event.getReservationId());
+            ps.setLong(3, event.getBranchId());
+            ps.setInt(4, event.getSeatNumber());
+            ps.setLong(5, event.getUserId());
+            ps.setTimestamp(6, Timestamp.valueOf(event.getStartTime()));
+            ps.setTimestamp(7, Timestamp.valueOf(event.getEndTime()));
+            ps.setTimestamp(8, Timestamp.valueOf(event.getOccurredAt()));
+        });
+    }
+    /* 이벤트 여러 건을 JDBC 배치 INSERT 1번으로 기록
+    JPA saveAll은 IDENTITY 전략이라 INSERT를 1개씩 보내므로 JdbcTemplate 배치 사용
+    (rewriteBatchedStatements=true면 여러 행 INSERT 1문장, DB 왕복 1번)
+    JdbcTemplate은 현재 JPA 트랜잭션과 같은 DB 연결을 쓰므로 예약과 함께 커밋/롤백됨
+     */
+}
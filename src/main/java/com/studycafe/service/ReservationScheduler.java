@@ -4,35 +4,112 @@
 package com.studycafe.service;
 
 import com.studycafe.domain.reservation.ReservationRepository;
+import com.studycafe.global.metrics.ReservationMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockingTaskExecutor;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Slf4j // log. 사용
 @Component // 스케줄러 작성시 필수
 @RequiredArgsConstructor // final 필드에 생성자 자동 추가
 public class ReservationScheduler {
     private final ReservationRepository reservationRepository;
+    private final ReservationService reservationService;
+    private final ReservationExpiryQueue reservationExpiryQueue;
+    private final ReservationMetrics reservationMetrics;
+    private final SeatDirectory seatDirectory;
+    private final LockingTaskExecutor lockingTaskExecutor;
+    private final WaitingRoomService waitingRoomService;
     // 의존성 주입
-    
-    @Scheduled(fixedDelay = 60000)
-    @Transactional // 트랜잭션 선언
+
+    private static final int EXPIRY_BATCH_SIZE = 100;
+    private static final int SWEEP_BATCH_SIZE = 500;
+    private static final int SWEEP_MAX_BATCHES = 40;
+    private static final Duration SWEEP_TIME_BUDGET = Duration.ofSeconds(40);
+
+    @Scheduled(fixedDelay = 1000)
+    public void processExpiryQueue() {
+        for (Long branchId : seatDirectory.branchIds()) {
+            lockingTaskExecutor.executeWithLock((Runnable) () -> processExpiryQueue(branchId),
+                    branchLock("ExpiryQueue_Lock", branchId, Duration.ofMillis(500), Duration.ofSeconds(30)));
+        }
+    }
+
+    private void processExpiryQueue(Long branchId) {
+        long startNanos = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        int totalCount = 0;
+
+        List<Long> dueIds = reservationExpiryQueue.pollDue(branchId, now, EXPIRY_BATCH_SIZE);
+        while (!dueIds.isEmpty()) {
+            totalCount += reservationService.completeExpiredReservations(dueIds, now);
+            reservationExpiryQueue.remove(branchId, dueIds);
+
+            if (dueIds.size() < EXPIRY_BATCH_SIZE) {
+                break;
+            }
+            dueIds = reservationExpiryQueue.pollDue(branchId, now, EXPIRY_BATCH_SIZE);
+        }
+        reservationMetrics.expiryRun("queue", startNanos, totalCount);
+
+        if(totalCount > 0) {
+            log.info("{}번 지점 만료 큐에서 예약 {}건을 자동 퇴실 처리했습니다.(기준시간 : {})", branchId, totalCount, now);
+        }
+    }
+/*
+1초마다 지점별 만료 큐(Redis Sorted Set)에서 종료 시간이 지난 예약 ID만 꺼내서 퇴실 처리
+>> 종료 시간 이후 약 1초 안에 좌석이 AVAILABLE로 바뀜(기존에는 최대 1분 지연)
+
+1. 종료 시간이 지난 예약 ID를 최대 100개(EXPIRY_BATCH_SIZE)씩 조회
+2. 100개 단위 작은 트랜잭션으로 해당 행만 COMPLETED로 변경(테이블 전체 UPDATE 없음)
+3. DB 처리가 끝난 ID는 큐에서 삭제
+4. 꺼낸 개수가 100개보다 적으면 더 이상 만료된 예약이 없으므로 종료
+5. 실행 시간과 처리 건수를 reservation.expiry.run, reservation.expiry.completed(job=queue)에 기록
+
+ShedLock을 지점마다 따로 잡음(ExpiryQueue_Lock_지점ID, lockAtLeastFor 500ms로 같은 주기 중복 실행 방지)
+>> 한 지점은 서버 1대만 처리하지만 서로 다른 지점은 여러 서버가 동시에 나눠서 처리 가능
+ */
+
+    @Scheduled(fixedDelay = 600000)
     @SchedulerLock(
             name = "AutoCheckOut_Lock",
             lockAtLeastFor = "50s",
             lockAtMostFor = "59s"
     )
     public void autoCheckOut() {
+        long startNanos = System.nanoTime();
         LocalDateTime now = LocalDateTime.now(); // 현재 시간 불러오고 now에 저장
+        int updatedCount = 0;
+        int batchCount = 0;
+        long deadlineNanos = startNanos + SWEEP_TIME_BUDGET.toNanos();
 
-        int updatedCount = reservationRepository.updateExpiredReservations(now);
-        // DB에 업데이트 쿼리 실행
+        List<Long> expiredIds = reservationRepository.findExpiredIds(now, PageRequest.of(0, SWEEP_BATCH_SIZE));
+        while (!expiredIds.isEmpty()) {
+            updatedCount += reservationService.completeExpiredReservations(expiredIds, now);
+            batchCount++;
+
+            if (expiredIds.size() < SWEEP_BATCH_SIZE) {
+                break;
+            }
+            if (batchCount >= SWEEP_MAX_BATCHES || System.nanoTime() - deadlineNanos >= 0) {
+                log.warn("자동 퇴실 안전장치가 이번 실행 한도({}묶음, {}초)에 걸려 멈춥니다. 남은 예약은 다음 실행에서 처리합니다.(처리 : {}건)",
+                        SWEEP_MAX_BATCHES, SWEEP_TIME_BUDGET.toSeconds(), updatedCount);
+                break;
+            }
+            expiredIds = reservationRepository.findExpiredIds(now, PageRequest.of(0, SWEEP_BATCH_SIZE));
+        }
+        reservationMetrics.expiryRun("sweep", startNanos, updatedCount);
 
         if(updatedCount > 0) {
             log.info("시간 종료된 예약 {}건을 자동 퇴실 처리했습니다.(기준시간 : {})",
@@ -40,17 +117,83 @@ public class ReservationScheduler {
         }
         // 변경된 건이 있는 로그 기록이 있으면 실행(updatedCount가 1 이상이면)
     }
-/*
-@Scheduled(fixedDelay = 60000) : 60000ms(1분)마다 자동으로 실행
-fixedDelay는 앞의 작업이 다 끝나고 나서 1분을 쉬게 됨
-만약 퇴실 처리가 10초 걸리면 (작업10초)->(휴식60초)->(다음작업) 순으로 진행
+/* 안전장치 전체 만료 처리
+만료 큐에 등록되지 못한 예약(Redis 장애, 재시작으로 큐 유실 등)을 처리
+
+@Scheduled(fixedDelay = 600000) : 600000ms(10분)마다 자동으로 실행
+fixedDelay는 앞의 작업이 다 끝나고 나서 10분을 쉬게 됨
+만약 퇴실 처리가 10초 걸리면 (작업10초)->(휴식10분)->(다음작업) 순으로 진행
 
-ReservationRepository의 updateExpiredReservation메서드에 현재 시간을 매개변수로 하여 호출
-현재 시간을 기준으로 종료 시간이 지난 예약들을 찾고 CONFIRMED->COMPLETED로 상태 변경
-상태 변경한 예약들을 총 몇 명이 바뀌었는지 숫자를 반환하여 updatedCount에 저장
+ReservationRepository의 findExpiredIds로 종료 시간이 지난 CONFIRMED 예약 ID를 500개(SWEEP_BATCH_SIZE)씩 가져와서
+만료 큐와 같은 completeExpiredReservations로 처리(500개 단위 작은 트랜잭션)
+>> 예약마다 COMPLETED 이벤트가 편지함에 남고, 처리된 좌석만 현황판에서 AVAILABLE로 바뀜
+(모든 지점을 한 번에 처리하는 안전장치라 지점별로 나누지 않음)
+처리한 예약 수를 모두 더해서 updatedCount에 저장
 
-스케줄러는 1분마다 돌으므로 만료된 사람만 로그를 찍도록 하여 쓸데없는 내용 로그 방지
+한 번 실행에 최대 40묶음(SWEEP_MAX_BATCHES, 2만 건) 또는 40초(SWEEP_TIME_BUDGET)까지만 처리
+>> ShedLock lockAtMostFor(59s)가 끝난 뒤에도 돌고 있으면 다른 서버가 같은 작업을 겹쳐 실행할 수 있으므로
+   락이 풀리기 전에 반드시 끝나도록 한도를 둠(남은 예약은 다음 실행에서 이어서 처리, 묶음마다 커밋되므로 유실 없음)
+
+스케줄러는 주기적으로 돌으므로 만료된 사람만 로그를 찍도록 하여 쓸데없는 내용 로그 방지
 >> Log Spamming, 중요한 기록은 못볼 수 있게 됨
+대신 실행 시간과 처리 건수는 매번 지표(job=sweep)로 기록하여 0건인 실행도 추적 가능
+ */
+
+    @Scheduled(fixedDelay = 30000, initialDelay = 30000)
+    public void verifySeatStatus() {
+        for (Long branchId : seatDirectory.branchIds()) {
+            lockingTaskExecutor.executeWithLock((Runnable) () -> verifySeatStatus(branchId),
+                    branchLock("SeatStatusReconcile_Lock", branchId, Duration.ofSeconds(20), Duration.ofSeconds(29)));
+        }
+    }
+
+    private void verifySeatStatus(Long branchId) {
+        int fixedCount = reservationService.reconcileSeatStatus(branchId);
+
+        if(fixedCount > 0) {
+            log.info("{}번 지점 좌석 현황판 {}건을 원본 데이터 기준으로 바로잡았습니다.", branchId, fixedCount);
+        }
+    }
+/*
+30초마다 지점별 좌석 현황판(SeatStatusStore)과 원본 데이터(DB + Redis 락)를 비교
+어긋난 좌석이 있을 때만 해당 좌석을 수정함
+락 TTL(5분) 만료처럼 이벤트 없이 바뀌는 상태를 현황판에 반영하는 역할
+지점마다 ShedLock(SeatStatusReconcile_Lock_지점ID)을 따로 잡아서 한 지점은 서버 1대만 검사
+ */
+
+    @Scheduled(fixedDelayString = "${app.waiting-room.admit-interval-ms:1000}")
+    public void admitWaitingUsers() {
+        if (!waitingRoomService.isEnabled()) {
+            return;
+        }
+        Duration atLeast = Duration.ofMillis(waitingRoomService.getAdmitIntervalMs() / 2);
+        for (Long branchId : seatDirectory.branchIds()) {
+            lockingTaskExecutor.executeWithLock((Runnable) () -> admitWaitingUsers(branchId),
+                    branchLock("WaitingRoomAdmit_Lock", branchId, atLeast, Duration.ofSeconds(30)));
+        }
+    }
+
+    private void admitWaitingUsers(Long branchId) {
+        int admittedCount = waitingRoomService.admit(branchId);
+
+        if(admittedCount > 0) {
+            log.debug("{}번 지점 대기열에서 {}명을 입장시켰습니다.", branchId, admittedCount);
+        }
+    }
+/*
+대기열이 켜져 있으면 주기(admit-interval-ms)마다 지점별로 대기열 앞사람부터 입장 처리
+한 지점은 서버 1대만 입장 처리(WaitingRoomAdmit_Lock_지점ID, lockAtLeastFor 주기의 절반)
+>> 서버가 여러 대여도 입장 속도가 서버 수만큼 늘어나지 않음
+주기마다 반복되므로 입장 건수는 debug 로그와 waiting.room.admitted 지표로만 남김
+ */
+
+    private LockConfiguration branchLock(String name, Long branchId, Duration atLeast, Duration atMost) {
+        return new LockConfiguration(Instant.now(), name + "_" + branchId, atMost, atLeast);
+    }
+/* 지점별 ShedLock 설정
+@SchedulerLock은 메서드 1개에 이름 1개만 붙일 수 있으므로
+LockingTaskExecutor로 지점마다 다른 이름(ex. ExpiryQueue_Lock_1)의 락을 직접 잡음
+락을 못 잡으면(다른 서버가 처리 중) 그 지점은 건너뜀
  */
 
 
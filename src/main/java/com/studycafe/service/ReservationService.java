@@ -3,142 +3,246 @@
  */
 package com.studycafe.service;
 
+import com.studycafe.domain.outbox.OutboxEvent;
 import com.studycafe.domain.reservation.Reservation;
 import com.studycafe.domain.reservation.ReservationRepository;
 import com.studycafe.domain.seat.Seat;
 import com.studycafe.domain.seat.SeatRepository;
 import com.studycafe.domain.user.User;
 import com.studycafe.domain.user.UserRepository;
+import com.studycafe.dto.SeatStatusBitmap;
 import com.studycafe.dto.SeatStatusDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import com.studycafe.global.exception.CustomException;
 import com.studycafe.global.exception.ErrorCode;
+import com.studycafe.global.metrics.ReservationMetrics;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor // final붙은 필드 생성자 생성
 public class ReservationService {
+    private static final int MYSQL_NO_REFERENCED_ROW = 1452; // MySQL 외래키 위반(참조할 부모 행 없음) 에러 번호
+
     private final ReservationRepository reservationRepository; // 예약 저장
     private final SeatRepository seatRepository; // 좌석 조회
     private final UserRepository userRepository; // 유저 조회
-    private final RedisLockService redisLockService; // 분산 락 관리
+    private final SeatDirectory seatDirectory; // 좌석번호 -> 좌석 ID 변환표
+    private final SeatLockService seatLockService; // 좌석 락(평소 Redis, 장애 시 서버 메모리)
+    private final SeatStatusStore seatStatusStore; // 좌석 현황판(좌석 단위 갱신)
+    private final ReservationExpiryQueue reservationExpiryQueue; // 예약 만료 지연 큐
+    private final ReservationMetrics reservationMetrics; // 락 시도, 현황판 적중률 기록
+    private final SeatSlotIndex seatSlotIndex; // 좌석별 시간대 예약표(미래 시간대 예약과 겹침 방지)
+    private final ReservationOutbox reservationOutbox; // 예약 상태 변경 이벤트 편지함
+    private final SeatStatusRebuilder seatStatusRebuilder; // 현황판 재구성 1번으로 묶기(스탬피드 방지)
+
+    public record PreOccupyResult(ErrorCode errorCode) {
+        public static final PreOccupyResult SUCCESS = new PreOccupyResult(null);
+        public static final PreOccupyResult ALREADY_OCCUPIED = new PreOccupyResult(ErrorCode.SEAT_ALREADY_OCCUPIED);
+        public static final PreOccupyResult ALREADY_LOCKED = new PreOccupyResult(ErrorCode.SEAT_ALREADY_LOCKED);
+
+        public boolean success() {
+            return errorCode == null;
+        }
+    }
+    /* 좌석 선점 결과 : 성공이면 errorCode가 null, 실패면 실패 원인
+    좌석 오픈처럼 몰리는 시간에는 100명 중 99명이 실패하는 것이 정상적인 결과이므로
+    실패를 예외로 던지지 않고 미리 만들어 둔 결과 객체 3개 중 하나를 그대로 반환(요청마다 새로 만들지 않음)
+     */
 
-    @CacheEvict(value = "seatStatus", key = "'all'")
-    public String preOccupySeat(Long userId, Integer seatNumber) {
+    public String preOccupySeat(Long userId, Long branchId, Integer seatNumber) {
+        PreOccupyResult result = tryPreOccupySeat(userId, branchId, seatNumber);
+        if (!result.success()) {
+            throw CustomException.contention(result.errorCode());
+        }
+        return "좌석 " + seatNumber + "번을 5분간 선점했습니다.";
+    }
+    /* 좌석 선점(실패하면 CustomException) : tryPreOccupySeat 결과를 예외로 바꿔주는 메서드
+    선점 경쟁에서 진 결과이므로 스택 추적 없는 예외(CustomException.contention)로 던짐
+     */
+
+    public PreOccupyResult tryPreOccupySeat(Long userId, Long branchId, Integer seatNumber) {
         // 입력값 검증
-        if (userId == null || seatNumber == null || seatNumber <= 0) {
+        if (userId == null || branchId == null || seatNumber == null || seatNumber <= 0) {
             throw new CustomException(ErrorCode.INVALID_INPUT_VALUE);
         }
 
-       log.info("좌석 선점 요청 - User: {}, Seat: {}", userId, seatNumber);
+       log.info("좌석 선점 요청 - User: {}, Branch: {}, Seat: {}", userId, branchId, seatNumber);
         boolean hasActive = reservationRepository
                 .existsActiveReservation(userId,LocalDateTime.now());
         if(hasActive) {
             log.warn("선점 실패 : 이미 사용중 - User {}", userId);
-            throw new CustomException(ErrorCode.SEAT_ALREADY_OCCUPIED);
+            return PreOccupyResult.ALREADY_OCCUPIED;
         }
 
-        boolean isLocked = redisLockService
+        long fencingToken = seatLockService
                 .lockSeat(
-                        String.valueOf(seatNumber), String.valueOf(userId));
+                        branchId, String.valueOf(seatNumber), String.valueOf(userId));
 
-        if(!isLocked) {
-            throw new CustomException(ErrorCode.SEAT_ALREADY_LOCKED);
+        if(fencingToken == SeatLockService.NO_TOKEN) {
+            reservationMetrics.lockAttempt(false, ErrorCode.SEAT_ALREADY_LOCKED.name());
+            return PreOccupyResult.ALREADY_LOCKED;
         }
+        reservationMetrics.lockAttempt(true, "none");
+        seatStatusStore.markLocked(branchId, seatNumber);
 
-        return "좌석 " + seatNumber + "번을 5분간 선점했습니다.";
+        return PreOccupyResult.SUCCESS;
     }
     /* 좌석 선점 메서드(좌석 클릭 시 실행됨, Redis에 찜만 해두는 단계)
-   @CacheEvict(캐시 삭제) - 데이터가 변경되었으니 캐시에 있는 옛 데이터 삭제
-   이 메서드 실행 시 Redis에서 seatStatus:all 데이터를 강제로 삭제(Evict)
-   삭제해두면 다음에 누군가 조회를 요청했을 때(@Cacheable) 캐시가 비어있으니
-   다시 DB에서 최신 정보를 가져와서 Redis에 채워 넣게 됨
+   현황판 갱신 - 전체 목록을 지우지 않고 선점한 좌석 1칸만 LOCKED로 변경
+   >> 다음 조회 때 DB와 Redis를 다시 뒤져서 전체 목록을 재구성할 필요 없음
 
-   userId,seatNumber가 null이거나 seatNumber가 음수이면 입력값 오류이므로
+   userId,branchId,seatNumber가 null이거나 seatNumber가 음수이면 입력값 오류이므로
    입력값 오류 CustomException 에러 메시지 발생
+   좌석번호는 지점 안에서만 고유하므로 항상 지점ID(branchId)와 함께 사용
 
     DB에 INSERT 하기 전에 Redis를 먼저 거치는 과정 수행
     reservationRepository의 existsActiveReservation을 호출하여
-    만약 hasActive가 true이면 1인 1좌석을 어기므로 에러 메시지 발생
+    만약 hasActive가 true이면 1인 1좌석을 어기므로 ALREADY_OCCUPIED 반환
 
 
-    RedisLockService를 호출해서 lock 시도 >> true,false 반환
+    SeatLockService(평소 Redis, 장애 시 서버 메모리 락)를 호출해서 lock 시도 >> 펜싱 토큰 반환(실패 시 0)
     호출 시 Integer형의 SeatNumber와 Long형의 userId를 String으로 변환함
     그 이유는 Redis는 기본적으로 String 기반의 저장소이고 RedisConfig에서
     StringRedisSerializer를 쓰겠다고 설정함
 
-    만약 false(이미 다른 사람이 선점함)면 에러 메시지 전송
-    만약 true면 좌석번호와 함께 성공 메시지 전송
+    만약 0(이미 다른 사람이 선점함)이면 ALREADY_LOCKED 반환
+    토큰을 받았으면 SUCCESS 반환(토큰은 확정 단계에서 refreshLock으로 다시 받음)
+    경쟁에서 진 요청은 예외(스택 추적 생성) 없이 미리 만든 결과 객체만 돌려받으므로 성공 경로만큼 가벼움
+    락 시도 결과는 seat.lock.attempts 카운터에 기록(실패 원인 : SEAT_ALREADY_LOCKED)
+     */
+    public Integer preOccupyAnySeat(Long userId, Long branchId, Integer fromSeatNumber, Integer toSeatNumber, Integer nearSeatNumber) {
+        int from = fromSeatNumber == null ? 1 : fromSeatNumber;
+        int to = toSeatNumber == null ? Integer.MAX_VALUE : toSeatNumber;
+        if (userId == null || branchId == null || from <= 0 || from > to) {
+            throw new CustomException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+
+        if (reservationRepository.existsActiveReservation(userId, LocalDateTime.now())) {
+            throw new CustomException(ErrorCode.SEAT_ALREADY_OCCUPIED);
+        }
+
+        String owner = String.valueOf(userId);
+        SeatLockService.Allocation allocation = seatLockService.lockAnySeat(branchId, owner, from, to, nearSeatNumber);
+        if (allocation == null && seatStatusStore.countAvailable(branchId) < 0) {
+            seatStatusRebuilder.rebuild(branchId, () -> loadSeatStatusFromSource(branchId), false);
+            allocation = seatLockService.lockAnySeat(branchId, owner, from, to, nearSeatNumber);
+        }
+
+        if (allocation == null) {
+            reservationMetrics.lockAttempt(false, ErrorCode.NO_AVAILABLE_SEAT.name());
+            throw CustomException.contention(ErrorCode.NO_AVAILABLE_SEAT);
+        }
+        reservationMetrics.lockAttempt(true, "none");
+        log.info("빈 좌석 자동 배정 - User: {}, Branch: {}, Seat: {}", userId, branchId, allocation.seatNumber());
+        return allocation.seatNumber();
+    }
+    /* 빈 좌석 자동 선점(좌석을 고르지 않고 "아무 자리나" 요청)
+    좌석을 직접 고르면 자리가 거의 찼을 때 빈 좌석을 찾을 때까지 락 시도(SETNX) + DB 검사를 반복하게 됨
+    >> 빈 좌석 목록에서 바로 꺼내서 잠그므로 남은 좌석 수와 관계없이 락 시도 1번(Redis 왕복 1번)
+
+    fromSeatNumber~toSeatNumber : 원하는 구역(좌석번호 범위), 생략하면 전체
+    nearSeatNumber : 이 좌석과 가까운 자리 우선(일행 옆자리 등), 생략하면 번호 순
+    현황판(빈 좌석 목록)이 아직 없으면(Redis 재시작 등) 현황판을 재구성하고 1번만 다시 시도
+    (직전 현황판으로 대신하지 않고 재구성이 끝날 때까지 기다림)
+    빈 좌석이 없으면 NO_AVAILABLE_SEAT(409), 락 시도 결과는 seat.lock.attempts에 기록
+    현황판 LOCKED 표시는 락과 함께 처리되므로 따로 markLocked 하지 않음
+    배정된 좌석번호를 반환(이후 확정은 기존 /confirm에 이 좌석번호로 요청)
      */
-    @CacheEvict(value = "seatStatus", key = "'all'")
+
     @Transactional // 트랜잭션으로 선언
-    public Long confirmReservation(Long userId, Integer seatNumber, int hours) {
+    public Long confirmReservation(Long userId, Long branchId, Integer seatNumber, int hours) {
         // 입력값 검증
-        if (userId == null || seatNumber == null || seatNumber <= 0 || hours <= 0) {
+        if (userId == null || branchId == null || seatNumber == null || seatNumber <= 0 || hours <= 0) {
             throw new CustomException(ErrorCode.INVALID_INPUT_VALUE);
         }
 
-        boolean refreshed = redisLockService.refreshLock(
+        long fencingToken = seatLockService.refreshLock(
+                branchId,
                 String.valueOf(seatNumber),
                 String.valueOf(userId)
         );
 
-        if(!refreshed) {
+        if(fencingToken == SeatLockService.NO_TOKEN) {
+            reservationMetrics.lockAttempt(false, ErrorCode.INVALID_LOCK.name());
             throw new CustomException(ErrorCode.INVALID_LOCK);
         }
+        reservationMetrics.lockAttempt(true, "none");
 
         try{
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new CustomException(ErrorCode.USER_NOT_FOUND));
-
-            Seat seat = seatRepository.findBySeatNumber(seatNumber)
-                    .orElseThrow(() -> new CustomException(ErrorCode.SEAT_NOT_FOUND));
-
-            boolean alreadyReserved = reservationRepository.existsBySeatAndStatus(
-                    seat,
-                    Reservation.ReservationStatus.CONFIRMED
-            );
+            Long seatId = seatDirectory.resolveId(branchId, seatNumber);
 
-            if(alreadyReserved) {
-                throw new CustomException(ErrorCode.SEAT_ALREADY_OCCUPIED);
+            if (seatRepository.advanceFenceToken(seatId, fencingToken) == 0) {
+                reservationMetrics.lockAttempt(false, "STALE_FENCING_TOKEN");
+                throw new CustomException(ErrorCode.INVALID_LOCK);
             }
 
-            boolean userHasReservation = reservationRepository.existsActiveReservation(
+            LocalDateTime startTime = LocalDateTime.now();
+            LocalDateTime endTime = startTime.plusHours(hours);
+            claimSlots(branchId, List.of(seatNumber), startTime, endTime);
+
+            boolean conflicted = reservationRepository.existsConflictingReservation(
+                    seatId,
                     userId,
-                    LocalDateTime.now()
+                    startTime,
+                    endTime
             );
 
-            if(userHasReservation) {
-                throw  new CustomException(ErrorCode.SEAT_ALREADY_OCCUPIED);
+            if(conflicted) {
+                throw new CustomException(ErrorCode.SEAT_ALREADY_OCCUPIED);
             }
 
+            User user = userRepository.getReferenceById(userId);
+            Seat seat = seatRepository.getReferenceById(seatId);
+
             Reservation reservation = new Reservation(
                     user,
                     seat,
-                    LocalDateTime.now(),
-                    LocalDateTime.now().plusHours(hours),
+                    branchId,
+                    fencingToken,
+                    startTime,
+                    endTime,
                     Reservation.ReservationStatus.CONFIRMED
             );
 
-            reservationRepository.save(reservation);
+            try {
+                reservationRepository.save(reservation);
+            } catch (DataIntegrityViolationException e) {
+                throw userNotFoundOrRethrow(e);
+            }
+            reservationOutbox.record(OutboxEvent.EventType.CONFIRMED, reservation, seatNumber);
+            afterCommit(() -> {
+                seatStatusStore.markOccupied(branchId, seatNumber);
+                reservationExpiryQueue.schedule(branchId, reservation.getId(), reservation.getEndTime());
+            });
 
             return reservation.getId();
         }
         finally {
-            redisLockService.unlockSeat(String.valueOf(seatNumber));
+            afterCompletion(committed -> {
+                seatLockService.unlockSeat(branchId, String.valueOf(seatNumber), String.valueOf(userId));
+                if (!committed) {
+                    seatStatusStore.markUnlocked(branchId, seatNumber);
+                }
+            });
         }
     }
 /*
@@ -147,58 +251,110 @@ userId,seatNumber가 null이거나 seatNumber가 음수이면 입력값 오류
 입력값 오류 CustomException 에러 메시지 발생
 
 1. 락 갱신
-redisLockService의 refreshLock 메서드를 좌석번호, ID를 넣고 호출하여
-현재 좌석 주인과 지금 들어온 유저와 같은지 refreshed에 저장
+seatLockService의 refreshLock 메서드를 좌석번호, ID를 넣고 호출하여
+현재 좌석 주인과 지금 들어온 유저와 같으면 락의 펜싱 토큰을 fencingToken에 저장
 
 2. 검사 결과
 검사 통과하면 다음으로 통과
-그러나 락이 이미 만료되었거나 그 사이에 다른 사람이 채갔으면 false가 반환
+그러나 락이 이미 만료되었거나 그 사이에 다른 사람이 채갔으면 0이 반환
 그 즉시 CustomException을 던져서 DB 저장 로직 자체를 실행 불가하게 함
+락 갱신 결과도 seat.lock.attempts 카운터에 기록(실패 원인 : INVALID_LOCK)
 
 3. 핵심 로직
-userRepository의 findById와 seatRepository의 findBySeatNumber를 호출해서
-각각 user,seat에 유저와 좌석 정보를 저장
+seatDirectory에서 지점ID + 좌석번호로 좌석 ID를 가져옴(서버 메모리 변환표, DB 왕복 없음)
 (3-1 과정)
-(3-2 과정)
-유저정보, 좌석정보, 현재 시간, 현재 시간, 만료 시간, 예약 상태(CONFIRMED)를
+userRepository, seatRepository의 getReferenceById로 유저와 좌석을 DB 조회 없이
+ID만 들어있는 대리 객체(프록시)로 가져옴 >> INSERT에는 외래키(ID)만 필요하므로 조회할 필요 없음
+유저정보, 좌석정보, 현재 시간, 만료 시간, 예약 상태(CONFIRMED)를
 모두 포함해서 reservation 예약 객체를 생성하고 이를 save 메서드로 DB에 저장(INSERT)
-예약 객체에서 userId만 빼와서 리턴
+존재하지 않는 유저면 외래키 제약조건 위반(DataIntegrityViolationException)이 나므로 USER_NOT_FOUND로 변환
+(유저 외래키 위반일 때만, 나머지 제약조건 위반은 그대로 다시 던짐 - userNotFoundOrRethrow)
+예약 객체에서 예약 ID만 빼와서 리턴
 
-3-1. 좌석 중복 체크(Redis 장애 대비)
-만약 Redis가 순간적으로 재부팅되어서 락 정보가 다 날아가는 경우가 발생할 수 있음
-그러면 락이 해제된 상태이므로 다른 사람이 들어올 수 있어 DB에 물어봐서 차단
+3-0. 펜싱 토큰 검사(advanceFenceToken)
+refreshLock 직후에 GC 멈춤이나 느린 처리로 락이 만료되고 다른 사람이 새 락(더 큰 토큰)으로 먼저 확정했으면
+좌석의 fence_token이 내 토큰보다 커져 있으므로 UPDATE가 0행 >> INVALID_LOCK(지표 사유 : STALE_FENCING_TOKEN)
+통과하면 좌석 행 쓰기 락을 커밋까지 잡고 있으므로 같은 좌석의 확정은 아래 중복 검사부터 한 줄로 실행됨
+예약에도 토큰을 함께 저장해서 어떤 락으로 확정된 예약인지 남김
 
-reservationRepository의 existsBySeatAndStatus에게 좌석정보와 CONFIRMED 상태를
-매개변수에 넣어서 좌석이 A이고 상태가 CONFIRMED인 데이터가 존재하는지 DB에 물어봄
+3-1. 시간대 예약표 확인(claimSlots)
+이 좌석의 [지금, 지금+이용시간) 칸을 시간대 예약표에 표시, 그 사이에 미리 예약된 시간대가 있으면
+DB를 건드리지 않고 SLOT_ALREADY_RESERVED(409), 이후 롤백되면 표시한 칸을 반납
 
-만약 데이터가 존재하면(true) 이미 좌석이 있다는 CustomException을 발생
-만약 데이터가 존재하지 않으면(false) 유저 중복 체크로 넘어감
+3-2. 좌석 중복 + 유저 중복 체크(쿼리 최대 2번)
+Redis가 순간적으로 재부팅되어서 락 정보가 다 날아가면 다른 사람이 들어올 수 있고(좌석 중복)
+한 유저가 여러 자리를 가지는 것도 막아야 하므로(1인 1좌석) DB에서 최종 차단
+reservationRepository의 existsConflictingReservation으로 두 검사를 물어봄(좌석, 유저 인덱스를 하나씩 타는 EXISTS 쿼리 2번)
+(이용 구간 [지금, 지금+이용시간)과 겹치는 예약만 충돌, 겹치지 않는 미래 시간대 예약은 통과)
+하나라도 걸리면 이미 이용중이라는 CustomException을 발생
 
-3-2. 유저 중복 체크(1인 1좌석 원칙 유지)
-만약 한 유저가 여러 자리를 가지는 것을 방지하기 위해 DB에서 최종 차단
+DB 왕복 : 펜싱 UPDATE 1번 + 중복 검사 SELECT 최대 2번(좌석 중복이면 1번) + INSERT 1번 + 이벤트 INSERT 1번 + COMMIT 1번
 
-reservationRepository의 existsActiveReservation 메서드를 호출하여
-해당 유저가 이미 예약된 내역이 있으면 CustomException을 발생
-해당 유저가 이미 예약된 내역이 없으면 예약 객체 생성 및 DB저장(INSERT)로 넘어감
+3-3. 예약 확정 이벤트(CONFIRMED)를 같은 트랜잭션에서 편지함(reservation_outbox)에 기록
+>> OutboxRelay가 Redis Stream(reservation_events:{지점ID})으로 전달
 
 4. 뒷정리
 이 뒷정리는 예약을 성공(자리 사용 완료)했거나 문제가 발생하면 락을 반납하라는 역할
-finally를 통해서 에러가 나도 락을 반납하여 다른 사용자가 락을 걸 수 있게 함
+finally를 통해서 에러가 나도 락 반납을 예약하여 다른 사용자가 락을 걸 수 있게 함
 만약 없다면 사용자는 튕겨져 나가도 Redis 락은 그대로 유지하게 됨
+락 반납은 트랜잭션이 끝난 뒤(afterCompletion)에 실행
+- 커밋 : 현황판을 OCCUPIED로 바꾼 다음(5번, afterCommit이 afterCompletion보다 먼저 실행) 락만 반납
+  LOCKED >> AVAILABLE을 거치지 않으므로 빈 좌석 목록(seat_free)에 다시 들어가지 않음
+  (커밋 전에 AVAILABLE로 되돌리면 그 사이에 /pre-occupy/any가 곧 이용중이 될 좌석을 골라감)
+- 롤백 : 락 반납 + 현황판의 LOCKED 표시를 AVAILABLE로 되돌림
+
+5. 현황판 갱신, 만료 예약 등록
+예약이 DB에 실제로 커밋된 뒤에만(afterCommit) 해당 좌석을 OCCUPIED로 변경
+>> 커밋 전에 바꾸면 롤백됐을 때 현황판만 이용중으로 남는 문제 발생
+종료 시간에 맞춰 자동 퇴실되도록 만료 큐에 예약 ID를 등록
  */
 
-    @Cacheable(value = "seatStatus", key = "'all'", cacheManager = "cacheManager")
-    public List<SeatStatusDto> getAllSeatStatus() {
+    public List<SeatStatusDto> getAllSeatStatus(Long branchId) {
+        List<SeatStatusDto> statusList = seatStatusStore.findAll(branchId);
+        if (!statusList.isEmpty()) {
+            reservationMetrics.seatStatusRead(true);
+            seatStatusRebuilder.remember(branchId, statusList);
+            return statusList;
+        }
+
+        reservationMetrics.seatStatusRead(false);
+        return seatStatusRebuilder.rebuild(branchId, () -> loadSeatStatusFromSource(branchId), true);
+    }
+    /* 한 지점의 현재 전체 좌석 현황판 조회
+    좌석 현황판(SeatStatusStore)에서 HGETALL 1번으로 바로 반환
+    선점/확정/취소/퇴실 시 좌석 1칸씩 갱신되므로 조회 때 전체를 다시 만들 필요 없음
+
+    현황판이 비어있을 때(최초 실행, Redis 재시작)만 DB와 Redis 락 정보로
+    전체 목록을 만들어서(loadSeatStatusFromSource) 현황판을 채움
+    >> SeatStatusRebuilder가 동시에 비어 있는 현황판을 본 요청들의 재구성을 1번으로 묶고(서버 간에는 Redis 락)
+       재구성하는 동안에는 직전에 조회한 현황판(app.seat.status.stale-max-age-ms 이내)을 먼저 돌려줌
+    바로 반환하면 hit, 재구성하면 miss로 seat.status.reads 카운터에 기록
+     */
 
-        List<Seat> allSeats = seatRepository.findAll();
+    public byte[] getSeatStatusBitmap(Long branchId) {
+        byte[] bitmap = seatStatusStore.findBitmap(branchId);
+        if (bitmap != null) {
+            reservationMetrics.seatStatusRead(true);
+            return bitmap;
+        }
+        return SeatStatusBitmap.encode(getAllSeatStatus(branchId));
+    }
+    /* 압축 좌석 현황판 조회(좌석당 2비트)
+    현황판과 함께 관리되는 비트맵(seat_status_bits)을 GET 1번으로 반환
+    비트맵이 없으면 일반 현황판을 조회(필요 시 재구성)해서 바로 변환
+     */
+
+    public List<SeatStatusDto> loadSeatStatusFromSource(Long branchId) {
+
+        List<Seat> allSeats = seatRepository.findAllByBranchId(branchId);
         
         if (allSeats.isEmpty()) {
-            log.warn("좌석 데이터가 없습니다. SeatInitializer가 정상적으로 실행되었는지 확인하세요.");
+            log.warn("{}번 지점에 좌석 데이터가 없습니다. SeatInitializer가 정상적으로 실행되었는지 확인하세요.", branchId);
             return new ArrayList<>();
         }
 
         List<Reservation> activeReservations =
-               reservationRepository.findActiveReservations(LocalDateTime.now());
+               reservationRepository.findActiveReservations(branchId, LocalDateTime.now());
 
        Set<Integer> occupiedSeats = activeReservations
                .stream()
@@ -212,7 +368,7 @@ finally를 통해서 에러가 나도 락을 반납하여 다른 사용자가 
 
        Map<Integer,String> lockedSeats;
        try {
-           lockedSeats = redisLockService.getLockOwners(seatNums);
+           lockedSeats = seatLockService.getLockOwners(branchId, seatNums);
        } catch (Exception e) {
            log.error("Redis에서 락 정보를 가져오는 중 오류 발생: {}", e.getMessage());
            // Redis 오류 시 빈 맵으로 처리하여 서비스는 계속 동작
@@ -235,25 +391,16 @@ finally를 통해서 에러가 나도 락을 반납하여 다른 사용자가 
         }
         return statusList; // 상태가 저장된 리스트 리턴
     }
-    /* 현재 전체 좌석 현황판, DB와 Redis를 모두 확인해서 각 좌석의 상태 종합
-    0. 어노테이션(캐시 저장 및 조회)
-     @Cacheable...은 데이터가 캐시에 있으면 DB에 가지 않고 바로 주고
-    없으면 DB갔다가 캐시에 저장하라는 의미 >> 데이터 정합성 유지
-    value는 Redis에 저장될 그룹 이름이고 key는 데이터의 식별자(파일이름)
-    cacheManager는 RedisConfig에 있는 cacheManager 설정 사용(5분만료)
-
-    seatStatus(value)::all(key)이라는 키에 데이터가 존재하는지 확인
-    >> 모든 좌석 상태가 담긴 JSON 데이터
-    존재하면 Redis에 있던 데이터를 즉시 반환(메서드 실행하지 않음)
-    존재하지 않으면 메서드 실행(DB 조회)
+    /* 한 지점의 원본 데이터(DB, Redis 락)를 모두 확인해서 각 좌석의 상태 종합
+    현황판 재구성과 정합성 검사(reconcileSeatStatus)의 기준 데이터로 사용
 
     1. DB에서 정보를 가져오기
-    Seat 테이블에서 모든 좌석 정보를 가져와서 allSeats 리스트에 저장
+    Seat 테이블에서 이 지점의 모든 좌석 정보를 가져와서 allSeats 리스트에 저장
 
     allSeats리스트가 비어있으면 좌석 정보가 없다는 에러를 발생하고
     새로운 빈 리스트 생성 >> 프론트엔드가 비어있음을 확인하고 에러 발생
 
-    Reservation 테이블에서 시작 시간과 종료 시간 사이에 지금 시간이 포함된 예약들을
+    Reservation 테이블에서 이 지점의 시작 시간과 종료 시간 사이에 지금 시간이 포함된 예약들을
     가져와서(OCCUPIED) activeReservations 리스트에 저장
 
     2. 사용중인 좌석 번호가 포함된 Set 생성(자료구조 최적화)
@@ -264,8 +411,10 @@ finally를 통해서 에러가 나도 락을 반납하여 다른 사용자가 
     좌석 정보에서 좌석 번호만 빼서 stream형태의 리스트인 seatNums를 생성
 
     4. redis 락 정보 받아오기
-    redisLockService의 getLockOwners를 호출하여 현재 결제 진행중(락이 걸린)
-    좌석 정보를 redis와 딱 1번 통신으로 받아오고 Map형태의 lockedSeats에 저장
+    seatLockService의 getLockOwners를 호출하여 현재 결제 진행중(락이 걸린)
+    좌석 정보를 Map형태의 lockedSeats에 저장
+    기준 데이터이므로 근거리 캐시(SeatLockOwnerCache)가 아니라 redis와 딱 1번 통신(파이프라인)으로 받아옴
+    Redis 장애 중에 잡힌 메모리 락도 함께 합쳐짐(FailoverSeatLockService)
 
     만약 lockedSeats가 비어있다면 좌석 정보가 없다는 에러를 발생시키고
     새로운 빈 Map을 생성 >> 프론트엔드가 비어있음을 확인하고 에러 발생
@@ -286,15 +435,21 @@ finally를 통해서 에러가 나도 락을 반납하여 다른 사용자가 
 
     판별된 좌석 번호와 상태를 (seatNum,status)로 포장(DTO객체로 변환)해서 결과 리스트에 담음
 
-    7. 완성된 전체 좌석 현황표를 프론트엔드로 전송
+    7. 완성된 전체 좌석 현황표를 반환
      */
 
-    @CacheEvict(value = "seatStatus", key = "'all'")
-    public void cancelPreOccupy(Integer seatNumber) {
-        redisLockService.unlockSeat(String.valueOf(seatNumber)); // Redis 락 해제
+    public void cancelPreOccupy(Long userId, Long branchId, Integer seatNumber) {
+        boolean released = seatLockService.unlockSeat(
+                branchId, String.valueOf(seatNumber), String.valueOf(userId)); // Redis 락 해제
+
+        if(released) {
+            seatStatusStore.markUnlocked(branchId, seatNumber); // 현황판 1칸 복구
+        }
     }
     /* Redis의 잠금을 즉시 해제하는 로직
-    프론트엔드에서 넘어온 좌석 번호를 문자열로 변경 후 redisLockService의 메서드 호출
+    프론트엔드에서 넘어온 좌석 번호, 유저 ID를 문자열로 변경 후 seatLockService의 메서드 호출
+    본인의 락일 때만 해제되고(남의 선점은 취소 불가) 해제된 경우에만
+    현황판에서 해당 좌석을 LOCKED -> AVAILABLE로 되돌림
      */
 
     @Transactional
@@ -304,6 +459,15 @@ finally를 통해서 에러가 나도 락을 반납하여 다른 사용자가 
                 .orElseThrow(() -> new CustomException(ErrorCode.RESERVATION_NOT_FOUND));
 
             reservation.cancel();
+            Long branchId = reservation.getBranchId();
+            Integer seatNumber = reservation.getSeat().getSeatNumber();
+            reservationOutbox.record(OutboxEvent.EventType.CANCELLED, reservation, seatNumber);
+            LocalDateTime now = LocalDateTime.now();
+            afterCommit(() -> {
+                seatStatusStore.markReleased(branchId, seatNumber);
+                reservationExpiryQueue.cancel(branchId, reservation.getId());
+                seatSlotIndex.release(branchId, List.of(seatNumber), now, reservation.getEndTime());
+            });
     }
     /* 퇴실처리
     @Transactional로 변경사항을 저장하여 자동으로 UPDATE쿼리를 날려주고 에러시 롤백
@@ -319,6 +483,10 @@ finally를 통해서 에러가 나도 락을 반납하여 다른 사용자가 
     UPDATE reservation
     SET status = 'CANCELLED'
     WHERE id = 1;
+
+    예약 취소 이벤트(CANCELLED)를 같은 트랜잭션에서 편지함에 기록
+    커밋이 끝나면 현황판에서 해당 좌석만 OCCUPIED -> AVAILABLE로 변경하고
+    만료 큐에서도 제거, 시간대 예약표에서 남은 이용 시간 칸을 반납(다른 사람이 그 시간대를 예약 가능)
      */
 
     @Transactional(readOnly = true)
@@ -337,6 +505,172 @@ finally를 통해서 에러가 나도 락을 반납하여 다른 사용자가 
        .orElse()는 만약 상자가 비어있으면 그냥 null을 반환함
      */
 
+    @Transactional
+    public int completeExpiredReservations(List<Long> reservationIds, LocalDateTime now) {
+        List<Reservation> expired = reservationRepository.findExpiredByIds(reservationIds, now);
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> expiredIds = expired.stream().map(Reservation::getId).toList();
+        int updatedCount = reservationRepository.completeReservations(expiredIds);
+        reservationOutbox.append(expired.stream()
+                .map(r -> ReservationOutbox.event(OutboxEvent.EventType.COMPLETED, r, r.getSeat().getSeatNumber()))
+                .toList());
+
+        afterCommit(() -> expired.forEach(r -> {
+            seatStatusStore.markReleased(r.getBranchId(), r.getSeat().getSeatNumber());
+            seatSlotIndex.releaseTrailingSlot(r.getBranchId(), List.of(r.getSeat().getSeatNumber()), r.getEndTime());
+        }));
+        return updatedCount;
+    }
+    /* 만료된 예약 자동 퇴실 처리(만료 큐 1초마다, 안전장치 10분마다 스케줄러가 호출)
+    넘겨받은 ID 중 실제로 만료된 예약만 조회(행 잠금)한 뒤 그 예약들만 COMPLETED로 변경
+    예약마다 이용 완료 이벤트(COMPLETED)를 배치 INSERT 1번으로 편지함에 기록
+    커밋이 끝나면 해당 좌석들만 현황판에서 AVAILABLE로 변경하고
+    시간대 예약표에서 종료 시각 뒤에 남은 마지막 칸을 반납(바로 다음 사람이 그 좌석을 /confirm 가능)
+     */
+
+    public int reconcileSeatStatus(Long branchId) {
+        Map<Integer, String> stored = seatStatusStore.snapshot(branchId);
+        List<SeatStatusDto> source = loadSeatStatusFromSource(branchId);
+
+        if (stored.isEmpty()) {
+            seatStatusStore.replaceAll(branchId, source);
+            return source.size();
+        }
+
+        Map<Integer, String> expected = new HashMap<>(stored);
+        Map<Integer, String> drifted = new HashMap<>();
+        for (SeatStatusDto dto : source) {
+            if (!Objects.equals(stored.remove(dto.getSeatNumber()), dto.getStatus())) {
+                drifted.put(dto.getSeatNumber(), dto.getStatus());
+            }
+        }
+        List<Integer> removed = new ArrayList<>(stored.keySet());
+
+        int fixed = 0;
+        if (!drifted.isEmpty() || !removed.isEmpty()) {
+            fixed = seatStatusStore.putAll(branchId, drifted, expected);
+            seatStatusStore.remove(branchId, removed);
+            log.warn("좌석 현황판 불일치 감지 - 지점: {}, 수정 {}건(도중에 바뀌어 건너뜀 {}건), 삭제 {}건",
+                    branchId, fixed, drifted.size() - fixed, removed.size());
+        }
+        int freeFixed = seatStatusStore.syncFreeSeats(branchId);
+        return fixed + removed.size() + freeFixed;
+    }
+    /* 한 지점의 좌석 현황판 정합성 검사(스케줄러가 지점마다 주기적으로 호출)
+    저장된 현황판을 먼저 읽어두고(snapshot), 그다음 원본 데이터(DB + Redis 락)로 만든 현황과 좌석별로 비교
+    현황판이 없으면 통째로 재구성하고, 있으면 어긋난 좌석만 골라서 수정
+    원본에 없는 좌석(stored에 남은 것)은 현황판에서 삭제
+    빈 좌석 목록(seat_free)은 고친 현황판의 AVAILABLE 좌석과 같아지도록 맞춤
+
+    수정은 좌석마다 "현황판 값이 먼저 읽어둔 값 그대로일 때만" 적용(SeatStatusStore.putAll, 비교 후 변경)
+    >> 원본을 읽는 사이에 커밋된 확정/취소/선점은 현황판에 이미 반영되어 값이 달라져 있으므로 건너뜀
+       ex. 방금 확정된 좌석(OCCUPIED)을 예전 원본 기준으로 AVAILABLE로 되돌려서
+           빈 좌석 목록에 다시 넣고 /pre-occupy/any가 다른 사람에게 배정하는 일이 없음
+    건너뛴 좌석이 정말 어긋나 있었다면 다음 검사 때 다시 고쳐짐
+    >> 어긋난 것이 없으면 아무것도 쓰지 않음(불필요한 재구성 방지)
+
+    락 만료(TTL 5분), Redis 장애로 인한 갱신 누락 등을 바로잡는 안전장치
+    수정한 좌석 개수를 반환
+     */
+
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    /* 트랜잭션이 커밋된 뒤에 실행할 작업 등록
+    트랜잭션 밖에서 호출되면 바로 실행
+    같은 패키지의 GroupReservationService(단체석), SlotReservationService(시간대 예약)도 함께 사용
+     */
+
+    static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+    /* 트랜잭션이 커밋되지 못하고 끝났을 때(롤백) 실행할 작업 등록
+    DB보다 먼저 잡아둔 Redis 시간대 예약표의 칸을 되돌릴 때 사용
+     */
+
+    static void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(false);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+    /* 트랜잭션이 끝난 뒤(커밋, 롤백 모두) 실행할 작업 등록, 커밋됐으면 true를 받음
+    같은 트랜잭션의 afterCommit 작업이 모두 끝난 다음에 실행됨
+    확정 경로의 락 반납에 사용(커밋 전에 락과 현황판을 풀지 않게)
+    트랜잭션 밖에서 호출되면 커밋 여부가 없으므로 바로 false로 실행
+     */
+
+    static CustomException userNotFoundOrRethrow(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && isUserForeignKeyViolation(sqlException)) {
+                return new CustomException(ErrorCode.USER_NOT_FOUND);
+            }
+        }
+        log.error("예약 저장 중 제약조건 위반(유저 외래키 아님) - Error: {}", e.getMostSpecificCause().getMessage());
+        throw e;
+    }
+
+    private static boolean isUserForeignKeyViolation(SQLException e) {
+        String message = e.getMessage() == null ? "" : e.getMessage().toLowerCase(Locale.ROOT);
+        boolean foreignKey = e.getErrorCode() == MYSQL_NO_REFERENCED_ROW
+                || (e.getSQLState() != null && e.getSQLState().startsWith("23") && message.contains("foreign key"));
+        return foreignKey && message.contains("user_id");
+    }
+    /* 예약 INSERT의 제약조건 위반 분류
+    원인(cause)을 따라가서 DB 드라이버의 SQLException이 유저 외래키(user_id) 위반일 때만 USER_NOT_FOUND로 바꿔서 반환
+    (MySQL 1452 "Cannot add or update a child row ... FOREIGN KEY (`user_id`)", H2는 SQLState 23xxx + FOREIGN KEY(USER_ID))
+    좌석 외래키, 중복 키, NOT NULL 위반처럼 다른 원인은 유저 문제가 아니므로 로그를 남기고 그대로 다시 던짐(500)
+    >> 예약 저장 버그가 "없는 유저"로 가려지지 않음
+    사용 : throw userNotFoundOrRethrow(e);
+     */
+
+    void claimSlots(Long branchId, List<Integer> seatNumbers, LocalDateTime startTime, LocalDateTime endTime) {
+        boolean claimed;
+        try {
+            claimed = seatSlotIndex.claim(branchId, seatNumbers, startTime, endTime);
+        } catch (DataAccessException e) {
+            log.warn("시간대 예약표 확인 실패, DB 중복 검사로만 진행 - Branch: {}, Error: {}", branchId, e.getMessage());
+            return;
+        }
+        if (!claimed) {
+            reservationMetrics.lockAttempt(false, ErrorCode.SLOT_ALREADY_RESERVED.name());
+            throw new CustomException(ErrorCode.SLOT_ALREADY_RESERVED);
+        }
+        afterRollback(() -> seatSlotIndex.release(branchId, seatNumbers, startTime, endTime));
+    }
+    /* 지금 바로 이용(/confirm, /confirm/group)의 시간대 예약표 확인
+    이미 좌석 락을 잡고 들어온 요청이므로 Redis 장애 때는 막지 않고 DB 중복 검사(최종 차단)로만 진행
+    칸이 이미 차 있으면(미리 예약된 시간대와 겹침) SLOT_ALREADY_RESERVED(409)
+     */
+
 
 
 }
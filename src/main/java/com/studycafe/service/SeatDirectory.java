@@ -0,0 +1,66 @@
+/*
+지점별 좌석번호 -> 좌석 ID(PK) 변환표와 지점 목록을 서버 메모리에 들고 있는 곳
+좌석은 한 번 만들어지면 번호와 ID가 바뀌지 않으므로 예약할 때마다 DB에 물어볼 필요 없음
+ */
+package com.studycafe.service;
+
+import com.studycafe.domain.seat.Seat;
+import com.studycafe.domain.seat.SeatRepository;
+import com.studycafe.global.exception.CustomException;
+import com.studycafe.global.exception.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class SeatDirectory {
+    private final SeatRepository seatRepository;
+
+    private final Map<Long, Map<Integer, Long>> seatIds = new ConcurrentHashMap<>();
+    private volatile List<Long> branchIds;
+    /* 필드
+    seatIds : {지점ID = {좌석번호 = 좌석 ID}} 맵, 처음 조회된 좌석부터 채워짐
+    branchIds : 좌석이 있는 지점 ID 목록(처음 필요할 때 DB에서 1번 읽음)
+     */
+
+    public Long resolveId(Long branchId, Integer seatNumber) {
+        Map<Integer, Long> branch = seatIds.computeIfAbsent(branchId, id -> new ConcurrentHashMap<>());
+        Long seatId = branch.get(seatNumber);
+        if (seatId != null) {
+            return seatId;
+        }
+
+        Seat seat = seatRepository.findByBranchIdAndSeatNumber(branchId, seatNumber)
+                .orElseThrow(() -> new CustomException(ErrorCode.SEAT_NOT_FOUND));
+        branch.put(seatNumber, seat.getId());
+        return seat.getId();
+    }
+    /* 지점 + 좌석번호로 좌석 ID 조회
+    맵에 있으면 DB 왕복 없이 바로 반환
+    없으면 DB에서 1번 조회해서 맵에 저장(이후 같은 좌석은 메모리에서 반환)
+    DB에도 없는 좌석번호는 맵에 넣지 않고 SEAT_NOT_FOUND 에러
+     */
+
+    public List<Long> branchIds() {
+        List<Long> ids = branchIds;
+        if (ids == null) {
+            ids = seatRepository.findBranchIds();
+            branchIds = ids;
+        }
+        return ids;
+    }
+    /* 지점 ID 목록 조회
+    스케줄러(만료 처리, 정합성 검사)가 지점마다 나눠서 처리할 때 사용
+    1초마다 DB에 DISTINCT 쿼리를 보내지 않도록 메모리에 보관
+     */
+
+    public void clear() {
+        seatIds.clear();
+        branchIds = null;
+    }
+    /* 좌석 데이터를 새로 만들거나 삭제했을 때 변환표와 지점 목록 비우기 */
+}
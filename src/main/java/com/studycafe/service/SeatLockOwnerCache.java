@@ -0,0 +1,240 @@
+/*
+좌석 락 주인 정보를 서버 메모리에 들고 있는 근거리 캐시(Near Cache)
+Redis 키스페이스 알림(seat_lock:{지점ID}:* 의 set/del/expired)을 구독해서 실시간으로 갱신하고
+주기적으로 Redis 전체와 다시 맞춰서(resync) 놓친 알림을 보정
+알림이 늦거나 빠질 수 있으므로 읽기 전용 조회에만 쓰고, 현황판 재구성/정합성 검사는 Redis를 직접 읽음
+ */
+package com.studycafe.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatLockOwnerCache implements MessageListener {
+    private static final String KEY_PREFIX = RedisLockService.KEY_PREFIX;
+    private static final String KEYSPACE_PATTERN = "__keyspace@*__:" + KEY_PREFIX + "*";
+
+    private final RedisTemplate<String,String> redisTemplate;
+    private final RedisLockService redisLockService;
+    private final RedisSlotRouter redisSlotRouter;
+    private final SeatStatusStore seatStatusStore;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Map<Long, Map<Integer, Entry>> owners = new ConcurrentHashMap<>();
+    private final AtomicLong eventSequence = new AtomicLong();
+    private volatile boolean ready = false;
+
+    @Value("${app.lock.near-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.lock.near-cache.configure-keyspace-events:true}")
+    private boolean configureKeyspaceEvents;
+    /* 필드
+    owners : {지점ID = {좌석번호 = 락 주인 + 버전}} 맵, ConcurrentHashMap이라 여러 스레드가 락 없이 동시에 읽고 써도 안전
+    eventSequence : 알림을 처리할 때마다 1씩 커지는 번호(항목의 버전), 전체 동기화가 시작 이후의 알림을 알아보는 기준
+    ready : 최초 전체 동기화(resync)가 끝났는지 여부, 끝나기 전에는 Redis에 직접 물어봄
+    enabled : 근거리 캐시 사용 여부(application.yml)
+    configureKeyspaceEvents : 시작 시 Redis의 notify-keyspace-events 설정을 직접 켤지 여부
+    (관리형 Redis처럼 CONFIG 명령이 막힌 환경에서는 false로 두고 서버 설정으로 켜야 함)
+     */
+
+    @PostConstruct
+    void subscribe() {
+        if (!enabled) {
+            return;
+        }
+        if (configureKeyspaceEvents) {
+            enableKeyspaceEvents();
+        }
+        listenerContainer.addMessageListener(this, new PatternTopic(KEYSPACE_PATTERN));
+    }
+    /* 키스페이스 알림 구독
+    __keyspace@<DB번호>__:seat_lock:{<지점ID>}:<좌석번호> 채널로 해당 키에 일어난 명령 이름(set, del, expired)이 전달됨
+    모든 DB 번호를 받도록 *를 사용
+    Redis Cluster에서는 키스페이스 알림이 키가 저장된 노드에서만 발행되므로
+    구독 연결이 붙은 노드가 아닌 다른 노드의 락 변경은 주기적 전체 동기화(resync)로 반영됨
+     */
+
+    private void enableKeyspaceEvents() {
+        try {
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                Properties config = connection.serverCommands().getConfig("notify-keyspace-events");
+                String current = config == null ? "" : config.getProperty("notify-keyspace-events", "");
+                StringBuilder flags = new StringBuilder(current);
+                for (char flag : "Kg$x".toCharArray()) {
+                    boolean covered = current.indexOf(flag) >= 0
+                            || (flag != 'K' && current.indexOf('A') >= 0);
+                    if (!covered) {
+                        flags.append(flag);
+                    }
+                }
+                if (!flags.toString().equals(current)) {
+                    connection.serverCommands().setConfig("notify-keyspace-events", flags.toString());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Redis 키스페이스 알림 설정 실패(주기적 동기화만 사용): {}", e.getMessage());
+        }
+    }
+    /* Redis 키스페이스 알림 켜기
+    기존 설정값을 읽어서 필요한 플래그만 추가(다른 기능이 쓰던 설정을 덮어쓰지 않음)
+    K : 키스페이스 채널, g : del/expire 같은 일반 명령, $ : set 같은 문자열 명령, x : 만료(expired)
+    A(모든 명령)가 이미 켜져 있으면 g,$,x는 추가하지 않음
+     */
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String event = new String(message.getBody(), StandardCharsets.UTF_8);
+        SeatKey seatKey = parseKey(channel.substring(channel.indexOf(KEY_PREFIX)));
+        if (seatKey == null) {
+            return;
+        }
+
+        switch (event) {
+            case "set" -> refresh(seatKey);
+            case "del" -> record(seatKey, null);
+            case "expired" -> {
+                record(seatKey, null);
+                seatStatusStore.markUnlocked(seatKey.branchId(), seatKey.seatNumber());
+            }
+            default -> { } // expire, pexpire 등 주인이 바뀌지 않는 이벤트는 무시
+        }
+    }
+    /* 알림 처리
+    set : 새로 락이 걸림 >> 알림에는 값이 없으므로 GET 1번으로 주인을 읽어서 저장
+    del : 락 해제 >> 주인 없음(null)으로 기록
+    expired : 락 TTL 만료 >> 주인 없음으로 기록하고 좌석 현황판도 LOCKED -> AVAILABLE로 복구
+    (TTL 만료는 서비스 코드를 거치지 않으므로 현황판이 바로 알 수 있는 유일한 통로)
+     */
+
+    private void refresh(SeatKey seatKey) {
+        String owner = redisTemplate.opsForValue()
+                .get(RedisLockService.lockKey(seatKey.branchId(), String.valueOf(seatKey.seatNumber())));
+        record(seatKey, owner);
+    }
+
+    private void record(SeatKey seatKey, String owner) {
+        branchOwners(seatKey.branchId()).put(seatKey.seatNumber(), new Entry(owner, eventSequence.incrementAndGet()));
+    }
+
+    private Map<Integer, Entry> branchOwners(Long branchId) {
+        return owners.computeIfAbsent(branchId, id -> new ConcurrentHashMap<>());
+    }
+    /* 알림 1개 반영 : 새 버전 번호와 함께 주인(락 해제/만료면 null)을 기록
+    해제된 좌석도 바로 지우지 않고 "주인 없음 + 버전"으로 남겨둠
+    >> 진행 중인 전체 동기화가 예전 SCAN 결과로 그 좌석을 되살리지 못하게 함(다음 동기화 때 정리)
+     */
+
+    @Scheduled(fixedDelayString = "${app.lock.near-cache.resync-interval-ms:30000}")
+    public void resync() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long startedAt = eventSequence.get();
+            List<String> keys = redisSlotRouter.scanKeys(KEY_PREFIX + "*");
+
+            Map<Long, Map<Integer, String>> fresh = new HashMap<>();
+            redisSlotRouter.getAll(keys).forEach((key, owner) -> {
+                SeatKey seatKey = parseKey(key);
+                if (seatKey != null) {
+                    fresh.computeIfAbsent(seatKey.branchId(), id -> new HashMap<>())
+                            .put(seatKey.seatNumber(), owner);
+                }
+            });
+
+            owners.forEach((branchId, branch) -> {
+                Map<Integer, String> freshBranch = fresh.getOrDefault(branchId, Map.of());
+                branch.keySet().forEach(seatNumber -> {
+                    if (!freshBranch.containsKey(seatNumber)) {
+                        branch.computeIfPresent(seatNumber, (seat, entry) -> entry.version() > startedAt ? entry : null);
+                    }
+                });
+            });
+            fresh.forEach((branchId, branch) -> {
+                Map<Integer, Entry> cached = branchOwners(branchId);
+                branch.forEach((seatNumber, owner) -> cached.compute(seatNumber, (seat, entry) ->
+                        entry != null && entry.version() > startedAt ? entry : new Entry(owner, startedAt)));
+            });
+            ready = true;
+        } catch (Exception e) {
+            log.error("락 주인 근거리 캐시 동기화 중 오류 발생: {}", e.getMessage());
+        }
+    }
+    /* 주기적 전체 동기화(서버마다 각자 실행, ShedLock 사용 안 함)
+    SCAN으로 seat_lock:* 키를 모두 찾고 파이프라인 GET으로 주인을 읽어서 지점별 맵을 맞춤
+    SCAN을 시작하기 전의 알림 번호(startedAt)를 기억해두고, 그 뒤에 알림이 온 좌석은 건드리지 않음
+    >> SCAN 도중에 처리된 del/expired를 되돌려서 풀린 락이 되살아나거나, SCAN 뒤의 set이 지워지는 일이 없음
+    (좌석마다 compute로 버전 비교와 교체를 한 번에 하므로 그 사이에 끼어든 알림도 덮어쓰지 않음)
+    SCAN에 없고 동기화 시작 전 버전인 좌석(해제 기록 포함)은 삭제
+    (RedisSlotRouter : cluster면 마스터 노드마다 SCAN하고, 여러 지점 키는 노드별로 나눠서 병렬 조회
+    여러 지점의 키가 섞인 MGET은 cluster에서 CROSSSLOT 에러가 나므로 사용하지 않음)
+    구독이 끊겼던 동안 놓친 알림을 보정하는 안전장치
+    처음 동기화가 끝나야 ready = true가 되어 캐시를 사용하기 시작함
+     */
+
+    public Map<Integer, String> getLockOwners(Long branchId, List<Integer> seatNumbers) {
+        if (!enabled || !ready) {
+            return redisLockService.getLockOwners(branchId, seatNumbers);
+        }
+
+        Map<Integer, Entry> branch = owners.getOrDefault(branchId, Map.of());
+        Map<Integer, String> lockMap = new HashMap<>();
+        for (Integer seatNum : seatNumbers) {
+            Entry entry = branch.get(seatNum);
+            if (entry != null && entry.owner() != null) {
+                lockMap.put(seatNum, entry.owner());
+            }
+        }
+        return lockMap;
+    }
+    /* 한 지점의 좌석 목록 락 주인 조회(화면 표시 같은 읽기 전용 용도만)
+    캐시가 준비되었으면 Redis 왕복 없이 메모리에서 바로 반환
+    꺼져 있거나 아직 준비 전이면 기존처럼 Redis 파이프라인 조회(getLockOwners)
+    Redis Cluster에서는 구독한 노드의 알림만 오므로 다른 노드의 락 변경은 resync 주기(30초)까지 늦게 보임
+    >> 현황판 재구성/정합성 검사처럼 기준 데이터가 필요한 곳은 RedisLockService.getLockOwners로 Redis에서 직접 읽음
+     */
+
+    private SeatKey parseKey(String key) {
+        try {
+            int close = key.indexOf("}:");
+            Long branchId = Long.valueOf(key.substring(KEY_PREFIX.length() + 1, close));
+            Integer seatNumber = Integer.valueOf(key.substring(close + 2));
+            return new SeatKey(branchId, seatNumber);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+    /* 락 키(seat_lock:{지점ID}:좌석번호)에서 지점ID와 좌석번호를 꺼냄
+    형식이 다른 키(이전 형식 seat_lock:좌석번호 등)는 null을 반환해서 무시
+     */
+
+    private record SeatKey(Long branchId, Integer seatNumber) {
+    }
+
+    private record Entry(String owner, long version) {
+    }
+    /* 캐시 항목 : 락 주인(해제/만료된 좌석은 null) + 마지막으로 바뀐 알림 번호(전체 동기화로 채운 값은 동기화 시작 번호) */
+}
@@ -0,0 +1,65 @@
+/*
+좌석 선점(락) 기능의 공통 규격
+구현체
+RedisLockService : Redis에 락을 저장(여러 서버가 같은 락을 공유)
+InMemorySeatLockService : 서버 메모리에 락을 저장(Redis 왕복 없음, 서버 1대에서만 유효)
+FailoverSeatLockService : 평소에는 Redis, Redis 장애 시 서킷 브레이커로 메모리 락 전환(@Primary, 서비스가 사용하는 구현체)
+ */
+package com.studycafe.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+public interface SeatLockService {
+    Duration LOCK_TTL = Duration.ofMinutes(5);
+    /* 락 유지 시간(5분), 결제를 마치지 않고 떠난 사용자의 락이 영원히 남지 않도록 자동 만료 */
+
+    long NO_TOKEN = 0L;
+    /* 락 획득/연장 실패를 뜻하는 펜싱 토큰 값(실제 토큰은 항상 1 이상) */
+
+    static long fenceFloor() {
+        return System.currentTimeMillis() * 1000;
+    }
+    /* 펜싱 토큰 하한값(현재 시각 ms x 1000)
+    Redis 락과 메모리 락이 각자 토큰을 발급해도 시간 기준으로 이어지게 해서
+    Redis 장애로 메모리 락으로 전환된 뒤 발급한 토큰이 장애 전 Redis 토큰보다 작아지지 않게 함
+    (1ms 안에 같은 좌석 토큰을 1000번 넘게 발급하지 않는 한 시각과 함께 증가)
+     */
+
+    long lockSeat(Long branchId, String seatNumber, String userId);
+    /* 락이 없거나 이미 내 락이면 획득(TTL 연장)하고 펜싱 토큰 반환, 다른 사람의 락이면 NO_TOKEN(0)
+    펜싱 토큰 : 같은 좌석의 락을 새로 잡을 때마다 커지는 번호(같은 사용자가 다시 잡으면 기존 번호 유지)
+     */
+
+    record Allocation(int seatNumber, long token) {}
+    /* 빈 좌석 자동 배정 결과 : 배정된 좌석번호 + 펜싱 토큰 */
+
+    Allocation lockAnySeat(Long branchId, String userId, int fromSeatNumber, int toSeatNumber, Integer nearSeatNumber);
+    /* 좌석번호 범위(from~to) 안의 빈 좌석 1개를 골라 락을 잡고 현황판도 LOCKED로 바꿔서 반환, 빈 좌석이 없으면 null
+    nearSeatNumber가 있으면 그 번호와 가장 가까운 빈 좌석, 없으면 번호가 가장 작은 빈 좌석
+     */
+
+    long refreshLock(Long branchId, String seatNumber, String userId);
+    /* 내 락일 때만 TTL 연장하고 현재 펜싱 토큰 반환, 아니면 NO_TOKEN(0) */
+
+    List<Long> lockSeats(Long branchId, List<Integer> seatNumbers, String userId);
+    /* 여러 좌석(단체석)을 전부 아니면 전무로 획득하고 좌석 순서대로 펜싱 토큰 반환
+    하나라도 다른 사람의 락이면 아무 좌석도 잡지 않고 빈 리스트
+     */
+
+    List<Long> refreshLocks(Long branchId, List<Integer> seatNumbers, String userId);
+    /* 여러 좌석이 모두 내 락일 때만 TTL 연장하고 좌석 순서대로 펜싱 토큰 반환, 아니면 빈 리스트 */
+
+    boolean unlockSeat(Long branchId, String seatNumber, String userId);
+    /* 내 락일 때만 삭제하고 true */
+
+    String getLockOwner(Long branchId, String seatNumber);
+    /* 락 주인(userId) 조회, 락이 없으면 null */
+
+    void forceUnlockSeat(Long branchId, String seatNumber);
+    /* 주인 확인 없이 삭제(관리 작업, 테스트용) */
+
+    Map<Integer, String> getLockOwners(Long branchId, List<Integer> seatNumbers);
+    /* 한 지점의 여러 좌석 락 주인을 한 번에 조회, {좌석번호 = 주인}(락이 걸린 좌석만) */
+}
@@ -0,0 +1,133 @@
+/*
+좌석을 한꺼번에 만들어주는 서비스(앱 시작 시 SeatInitializer, 관리자 API에서 사용)
+JPA save 반복 대신 JDBC 배치 INSERT로 수백~수천 개의 좌석을 몇 번의 왕복으로 생성
+ */
+package com.studycafe.service;
+
+import com.studycafe.domain.seat.SeatRepository;
+import com.studycafe.dto.SeatProvisionDto;
+import com.studycafe.global.exception.CustomException;
+import com.studycafe.global.exception.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatProvisioningService {
+    private static final String INSERT_SQL =
+            "INSERT INTO seats (branch_id, seat_number) VALUES (?, ?)";
+    private static final String UPSERT_SQL =
+            "INSERT INTO seats (branch_id, seat_number) VALUES (?, ?) ON DUPLICATE KEY UPDATE seat_number = seat_number";
+    private static final int MAX_PROVISION_COUNT = 100_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SeatRepository seatRepository;
+    private final ReservationService reservationService;
+    private final SeatDirectory seatDirectory;
+
+    @Value("${app.seat.provision-batch-size:500}")
+    private int batchSize;
+    /* 필드
+    INSERT_SQL : 일반 모드, 이미 있는 좌석번호가 있으면 unique 제약조건 위반으로 전체 실패
+    UPSERT_SQL : 덮어쓰기 모드, 같은 지점에 이미 있는 좌석번호는 아무것도 바꾸지 않고 건너뜀(여러 번 실행해도 결과 같음)
+    MAX_PROVISION_COUNT : 한 번에 만들 수 있는 최대 좌석 수(실수로 너무 큰 범위를 넣는 것 방지)
+    batchSize : 배치 1번에 묶는 좌석 수(application.yml)
+     */
+
+    public SeatProvisionDto.Response provision(Long branchId, int fromSeatNumber, int toSeatNumber, boolean upsert) {
+        if (branchId == null || branchId <= 0 || fromSeatNumber <= 0 || toSeatNumber < fromSeatNumber
+                || toSeatNumber - fromSeatNumber >= MAX_PROVISION_COUNT) {
+            throw new CustomException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+
+        List<Integer> seatNumbers = IntStream.rangeClosed(fromSeatNumber, toSeatNumber).boxed().toList();
+        long before = seatRepository.countByBranchId(branchId);
+
+        long after;
+        try {
+            after = transactionTemplate.execute(status -> {
+                long missing = seatNumbers.size()
+                        - seatRepository.countByBranchIdAndSeatNumberBetween(branchId, fromSeatNumber, toSeatNumber);
+                int[][] counts = jdbcTemplate.batchUpdate(upsert ? UPSERT_SQL : INSERT_SQL, seatNumbers, batchSize,
+                        (ps, seatNumber) -> {
+                            ps.setLong(1, branchId);
+                            ps.setInt(2, seatNumber);
+                        });
+                long total = seatRepository.countByBranchId(branchId);
+                long inserted = affectedRows(counts, total - before);
+                if (inserted != missing) {
+                    log.error("좌석 일괄 생성 행 수 불일치(seats의 예전 seat_number unique 인덱스 확인 필요) - 지점: {}, 범위: {}~{}, 생성 대상: {}개, 실제 생성: {}개",
+                            branchId, fromSeatNumber, toSeatNumber, missing, inserted);
+                    throw new CustomException(ErrorCode.SEAT_PROVISION_INCOMPLETE);
+                }
+                return total;
+            });
+        } catch (DuplicateKeyException e) {
+            throw new CustomException(ErrorCode.DUPLICATE_SEAT_NUMBER);
+        }
+
+        int inserted = (int) (after - before);
+        log.info("좌석 일괄 생성 완료 - 지점: {}, 범위: {}~{}, 신규: {}개, 전체: {}개",
+                branchId, fromSeatNumber, toSeatNumber, inserted, after);
+
+        if (inserted > 0) {
+            seatDirectory.clear();
+            refreshSeatStatus(branchId);
+        }
+        return new SeatProvisionDto.Response(seatNumbers.size(), inserted, after);
+    }
+    /* 지점(branchId)에 좌석번호 fromSeatNumber ~ toSeatNumber(양 끝 포함) 일괄 생성
+    1. 범위 검사 : 0 이하, 거꾸로 된 범위, 최대 개수 초과는 입력값 오류
+    2. JdbcTemplate.batchUpdate로 batchSize(500)개씩 끊어서 전송
+    Seat은 IDENTITY 전략이라 JPA(Hibernate)는 INSERT를 묶지 못하고 1개씩 보냄
+    JDBC 배치 + MySQL 접속 옵션 rewriteBatchedStatements=true면
+    500개가 INSERT ... VALUES (1),(2),...,(500) 한 문장으로 합쳐져서 DB 왕복 1번
+    3. 전체를 트랜잭션 1개로 묶음 >> 중간에 실패하면 전부 롤백(반쯤 만들어진 홀 방지)
+    일반 모드에서 이미 있는 좌석번호가 있으면 DUPLICATE_SEAT_NUMBER(409)
+    4. 실제로 생성된 행 수 검사 : 범위 안에서 이 지점에 아직 없던 좌석 수(missing)와 같아야 함
+    덮어쓰기 모드의 ON DUPLICATE KEY UPDATE는 다른 unique 인덱스(예전 seat_number 단독 인덱스)에 걸려도
+    에러 없이 0행으로 끝나므로, 행 수가 모자라면 SEAT_PROVISION_INCOMPLETE(500)로 전체 롤백
+    >> "성공했는데 좌석이 없는" 상태를 만들지 않음(SeatIndexMigration이 시작 시 예전 인덱스를 지움)
+    5. 새 좌석이 있으면 지점 목록(SeatDirectory)을 비워서 새 지점도 스케줄러가 처리하게 하고
+    그 지점 좌석 현황판에 바로 반영
+     */
+
+    private static long affectedRows(int[][] counts, long countDiff) {
+        long sum = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count < 0) {
+                    return countDiff;
+                }
+                sum += Math.min(count, 1);
+            }
+        }
+        return sum;
+    }
+    /* 배치 결과에서 새로 INSERT된 행 수 계산
+    행마다 영향받은 행 수 : 1 = 새로 INSERT, 0 = 이미 있어서 건너뜀(ON DUPLICATE KEY UPDATE, 값이 같으면 0)
+    드라이버가 행 수를 알려주지 않으면(SUCCESS_NO_INFO, 여러 행 INSERT로 합쳐 보낸 경우) 생성 전후 좌석 수 차이를 사용
+     */
+
+    private void refreshSeatStatus(Long branchId) {
+        try {
+            reservationService.reconcileSeatStatus(branchId);
+        } catch (Exception e) {
+            log.warn("좌석 생성 후 현황판 반영 실패(정합성 검사 스케줄러가 반영함): {}", e.getMessage());
+        }
+    }
+    /* 새 좌석을 현황판(SeatStatusStore)에 추가
+    현황판에 없던 좌석은 정합성 검사에서 어긋난 좌석으로 잡혀서 AVAILABLE로 추가됨
+    앱 시작 시 Redis가 아직 준비되지 않았어도 실패하지 않도록 로그만 남김
+     */
+}
@@ -0,0 +1,236 @@
+/*
+좌석별 시간대 예약표(15분 단위 비트맵)를 Redis에 들고 있는 곳
+지점 + 날짜마다 키 1개, 좌석마다 하루 96칸(15분 x 96 = 24시간)의 비트로 예약 여부를 표시
+>> 미래 시간대 예약의 겹침 검사와 하루치 좌석 x 시간대 조회를 예약 테이블을 훑지 않고 처리
+ */
+package com.studycafe.service;
+
+import com.studycafe.domain.reservation.Reservation;
+import com.studycafe.domain.reservation.ReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatSlotIndex {
+    public static final String KEY_PREFIX = "seat_slots:";
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final Duration KEY_TTL_AFTER_DAY = Duration.ofDays(1);
+
+    private static final RedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #KEYS do " +
+            "  if redis.call('EXISTS', KEYS[i]) == 0 then return -1 end " +
+            "end " +
+            "for i = 1, #ARGV, 3 do " +
+            "  local key = KEYS[tonumber(ARGV[i])] " +
+            "  for bit = tonumber(ARGV[i + 1]), tonumber(ARGV[i + 2]) - 1 do " +
+            "    if redis.call('GETBIT', key, bit) == 1 then return 0 end " +
+            "  end " +
+            "end " +
+            "for i = 1, #ARGV, 3 do " +
+            "  local key = KEYS[tonumber(ARGV[i])] " +
+            "  for bit = tonumber(ARGV[i + 1]), tonumber(ARGV[i + 2]) - 1 do " +
+            "    redis.call('SETBIT', key, bit, 1) " +
+            "  end " +
+            "end " +
+            "return 1",
+            Long.class
+    );
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #ARGV, 3 do " +
+            "  local key = KEYS[tonumber(ARGV[i])] " +
+            "  if redis.call('EXISTS', key) == 1 then " +
+            "    for bit = tonumber(ARGV[i + 1]), tonumber(ARGV[i + 2]) - 1 do " +
+            "      redis.call('SETBIT', key, bit, 0) " +
+            "    end " +
+            "  end " +
+            "end " +
+            "return 1",
+            Long.class
+    );
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ReservationRepository reservationRepository;
+    /* 필드
+    키 : seat_slots:{지점ID}:날짜(ex. seat_slots:{1}:2026-10-18)
+    {지점ID} 해시 태그로 같은 지점의 며칠치 키를 스크립트 1개에서 함께 다룰 수 있음(Redis Cluster)
+
+    비트 위치 : (좌석번호 - 1) * 96 + 하루 중 몇 번째 15분 칸인지(0~95)
+    >> 좌석 1개의 하루치 = 96비트 = 정확히 12바이트, 좌석 N번은 (N-1)*12 ~ N*12-1 바이트
+    좌석 100개 하루치 = 1,200바이트
+
+    CLAIM_SCRIPT : 모든 칸이 비어 있을 때만 전부 1로 바꿈(하나라도 차 있으면 0, 아무것도 바꾸지 않음)
+    날짜 키가 없으면(-1) 없는 날짜의 예약표만 DB에서 다시 만들고 1번만 재시도
+    Redis는 명령을 1개씩 실행하므로 같은 칸을 동시에 잡으려 해도 1명만 성공
+    RELEASE_SCRIPT : 칸을 0으로 되돌림(키가 없으면 건너뜀)
+     */
+
+    private record SlotRange(LocalDate date, int fromSlot, int toSlot) {
+    }
+    /* 하루 안의 칸 구간 [fromSlot, toSlot) */
+
+    public static String key(Long branchId, LocalDate date) {
+        return KEY_PREFIX + "{" + branchId + "}:" + date;
+    }
+
+    public boolean claim(Long branchId, List<Integer> seatNumbers, LocalDateTime startTime, LocalDateTime endTime) {
+        List<SlotRange> ranges = split(startTime, endTime);
+        List<String> keys = keys(branchId, ranges);
+        Object[] args = args(ranges, seatNumbers);
+
+        Long result = redisTemplate.execute(CLAIM_SCRIPT, keys, args);
+        if (result != null && result < 0) {
+            ranges.stream()
+                    .filter(range -> !Boolean.TRUE.equals(redisTemplate.hasKey(key(branchId, range.date()))))
+                    .forEach(range -> rebuild(branchId, range.date()));
+            result = redisTemplate.execute(CLAIM_SCRIPT, keys, args);
+        }
+        return result != null && result == 1L;
+    }
+    /* 시간대 잡기 : [startTime, endTime)에 걸친 모든 칸이 비어 있으면 전부 예약 표시하고 true
+    여러 좌석(단체석)과 자정을 넘는 예약도 스크립트 1번(Redis 왕복 1번)으로 처리
+    15분 단위로 나누어 떨어지지 않는 시각(지금 바로 이용)은 걸쳐 있는 칸 전체를 잡음
+     */
+
+    public void release(Long branchId, List<Integer> seatNumbers, LocalDateTime startTime, LocalDateTime endTime) {
+        if (!startTime.isBefore(endTime)) {
+            return;
+        }
+        try {
+            List<SlotRange> ranges = split(startTime, endTime);
+            List<String> keys = keys(branchId, ranges);
+            redisTemplate.execute(RELEASE_SCRIPT, keys, args(ranges, seatNumbers));
+        } catch (Exception e) {
+            log.error("시간대 예약표 반납 중 오류 발생 - Branch: {}, Seats: {}, Error: {}",
+                    branchId, seatNumbers, e.getMessage());
+            // 반납에 실패한 칸은 다음 예약표 재구성 때 DB 기준으로 바로잡힘
+        }
+    }
+    /* 시간대 반납 : 취소, 조기 퇴실, 확정 실패(롤백) 시 칸을 비움 */
+
+    public void releaseTrailingSlot(Long branchId, List<Integer> seatNumbers, LocalDateTime endTime) {
+        LocalDateTime dayStart = endTime.toLocalDate().atStartOfDay();
+        release(branchId, seatNumbers, endTime, dayStart.plusMinutes((long) ceilSlot(dayStart, endTime) * SLOT_MINUTES));
+    }
+    /* 정상 만료된 예약의 마지막 걸친 칸 반납 : [endTime, endTime이 속한 칸의 끝)
+    지금 바로 이용(/confirm)은 [지금, 지금+이용시간)에 걸친 칸 전체를 잡으므로 종료 시각이 15분 단위가 아니면
+    마지막 칸(ex. 12:07 종료 >> 12:00~12:15 칸)이 예약 시간이 끝난 뒤에도 남아 있음
+    >> 만료 후 그 칸이 끝날 때까지(최대 15분) 다음 사람의 /confirm이 SLOT_ALREADY_RESERVED로 막힘
+    종료 시각이 칸 경계면 반납할 것이 없음(release가 바로 반환)
+    마지막 칸을 처음부터 안 잡으면 그 칸에 시작하는 미래 시간대 예약(ex. 12:00~)과의 겹침을 못 막으므로 잡은 뒤 만료 때 반납
+     */
+
+    public byte[] findDay(Long branchId, LocalDate date) {
+        byte[] keyBytes = key(branchId, date).getBytes(StandardCharsets.UTF_8);
+        byte[] day = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(keyBytes));
+        if (day == null) {
+            rebuild(branchId, date);
+            day = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                    connection.stringCommands().get(keyBytes));
+        }
+        return day == null ? new byte[0] : day;
+    }
+    /* 하루치 좌석 x 시간대 예약표 조회(GET 1번)
+    비트맵은 바이너리 값이므로 연결(connection)에서 바이트 배열 그대로 읽음
+    마지막으로 예약된 좌석까지만 길이가 있으므로 그 뒤 좌석은 모두 빈 칸으로 보면 됨
+     */
+
+    void rebuild(Long branchId, LocalDate date) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+        byte[] day = new byte[0];
+        for (Reservation r : reservationRepository.findReservationsBetween(branchId, dayStart, dayEnd)) {
+            LocalDateTime from = r.getStartTime().isBefore(dayStart) ? dayStart : r.getStartTime();
+            LocalDateTime to = r.getEndTime().isAfter(dayEnd) ? dayEnd : r.getEndTime();
+            int base = (r.getSeat().getSeatNumber() - 1) * SLOTS_PER_DAY;
+            int toSlot = ceilSlot(dayStart, to);
+            if (day.length * 8 < base + toSlot) {
+                byte[] grown = new byte[(base + SLOTS_PER_DAY) / 8];
+                System.arraycopy(day, 0, grown, 0, day.length);
+                day = grown;
+            }
+            for (int slot = floorSlot(dayStart, from); slot < toSlot; slot++) {
+                int bit = base + slot;
+                day[bit / 8] |= (byte) (0x80 >>> (bit % 8));
+            }
+        }
+
+        byte[] value = day;
+        byte[] keyBytes = key(branchId, date).getBytes(StandardCharsets.UTF_8);
+        Duration ttl = Duration.between(LocalDateTime.now(), dayEnd).plus(KEY_TTL_AFTER_DAY);
+        redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                connection.stringCommands().set(keyBytes, value,
+                        Expiration.from(ttl.isNegative() ? KEY_TTL_AFTER_DAY : ttl),
+                        RedisStringCommands.SetOption.ifAbsent()));
+    }
+    /* 하루치 예약표 재구성(키가 없을 때만)
+    그날과 겹치는 CONFIRMED 예약을 DB에서 1번 읽어서 비트맵을 만들고 SET NX로 저장
+    예약이 없는 날도 빈 값으로 저장해서 "예약 없음"과 "예약표 없음"을 구분
+    NX이므로 여러 서버가 동시에 만들어도 먼저 저장된 것 1개만 남고,
+    키가 생긴 뒤에 잡힌 칸을 늦게 만든 예약표가 덮어쓰지 않음
+    키는 그날이 끝나고 1일 뒤에 자동 삭제(지난 날짜 예약표가 쌓이지 않음)
+    Redis 비트 순서(바이트의 최상위 비트가 0번)에 맞춰서 채움
+     */
+
+    private static List<SlotRange> split(LocalDateTime startTime, LocalDateTime endTime) {
+        List<SlotRange> ranges = new ArrayList<>();
+        LocalDate date = startTime.toLocalDate();
+        while (date.atStartOfDay().isBefore(endTime)) {
+            LocalDateTime dayStart = date.atStartOfDay();
+            LocalDateTime dayEnd = dayStart.plusDays(1);
+            LocalDateTime from = startTime.isAfter(dayStart) ? startTime : dayStart;
+            LocalDateTime to = endTime.isBefore(dayEnd) ? endTime : dayEnd;
+            ranges.add(new SlotRange(date, floorSlot(dayStart, from), ceilSlot(dayStart, to)));
+            date = date.plusDays(1);
+        }
+        return ranges;
+    }
+    /* [startTime, endTime)를 날짜별 칸 구간으로 나눔(자정을 넘으면 2개 이상) */
+
+    private static int floorSlot(LocalDateTime dayStart, LocalDateTime time) {
+        return (int) (Duration.between(dayStart, time).toMinutes() / SLOT_MINUTES);
+    }
+
+    private static int ceilSlot(LocalDateTime dayStart, LocalDateTime time) {
+        long seconds = Duration.between(dayStart, time).getSeconds();
+        long slotSeconds = SLOT_MINUTES * 60L;
+        return (int) ((seconds + slotSeconds - 1) / slotSeconds);
+    }
+
+    private static List<String> keys(Long branchId, List<SlotRange> ranges) {
+        return ranges.stream().map(range -> key(branchId, range.date())).toList();
+    }
+
+    private static Object[] args(List<SlotRange> ranges, List<Integer> seatNumbers) {
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            SlotRange range = ranges.get(i);
+            for (Integer seatNumber : seatNumbers) {
+                int base = (seatNumber - 1) * SLOTS_PER_DAY;
+                args.add(String.valueOf(i + 1));
+                args.add(String.valueOf(base + range.fromSlot()));
+                args.add(String.valueOf(base + range.toSlot()));
+            }
+        }
+        return args.toArray();
+    }
+    /* 스크립트 인자 : (키 번호, 시작 비트, 끝 비트) 3개씩, 날짜 구간 x 좌석 수만큼(날짜 구간 i번 = KEYS[i]) */
+}
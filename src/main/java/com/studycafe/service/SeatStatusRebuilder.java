@@ -0,0 +1,208 @@
+/*
+좌석 현황판이 비었을 때(Redis 재시작, 키 삭제 등) 재구성을 1번만 하도록 묶어주는 곳
+현황판이 비는 순간 동시에 들어온 조회 요청이 전부 DB 전체 조회 + 락 조회를 하면(캐시 스탬피드)
+가장 바쁜 시간에 DB가 몰린 요청을 한꺼번에 받게 됨
+>> 서버 안에서는 진행 중인 재구성 1개를 모두가 기다리고, 서버끼리는 Redis 재구성 락으로 1대만 재구성
+>> 재구성하는 동안에는 직전에 조회한 현황판(일정 시간 이내)을 먼저 돌려줌(stale-while-revalidate)
+ */
+package com.studycafe.service;
+
+import com.studycafe.dto.SeatStatusDto;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatStatusRebuilder {
+    private static final String LOCK_KEY_PREFIX = "seat_status_rebuild_lock:";
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0",
+            Long.class
+    );
+
+    private final SeatStatusStore seatStatusStore;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${app.seat.status.stale-max-age-ms:5000}")
+    private long staleMaxAgeMs;
+
+    @Value("${app.seat.status.rebuild-lock-ms:5000}")
+    private long rebuildLockMs;
+
+    @Value("${app.seat.status.rebuild-wait-ms:2000}")
+    private long rebuildWaitMs;
+
+    private final Map<Long, CompletableFuture<List<SeatStatusDto>>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, Snapshot> lastSnapshots = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2, new CustomizableThreadFactory("seat-status-rebuild-"));
+    /* 필드(application.yml)
+    staleMaxAgeMs : 재구성 중에 대신 돌려줄 수 있는 직전 현황판의 최대 나이(0이면 항상 재구성을 기다림)
+    rebuildLockMs : 서버끼리 재구성 순서를 정하는 Redis 락의 유지 시간(재구성하던 서버가 죽어도 이 시간 뒤 풀림)
+    rebuildWaitMs : 다른 서버가 재구성 중일 때 그 결과(현황판)를 기다리는 최대 시간
+
+    inFlight : {지점ID = 이 서버에서 진행 중인 재구성}, 같은 지점 재구성은 항상 1개
+    lastSnapshots : {지점ID = 이 서버가 마지막으로 돌려준 현황판 + 시각}
+    executor : 재구성 전용 스레드 2개(요청 스레드는 직전 현황판을 바로 받고 돌아갈 수 있음)
+    다른 서버의 재구성을 기다릴 때는 스레드를 재우지 않고 50ms 뒤 확인을 예약만 함
+    >> 여러 지점이 동시에 다른 서버를 기다려도 스레드 2개가 묶이지 않고, 이 서버가 맡은 지점 재구성이 밀리지 않음
+
+    키 : seat_status_rebuild_lock:{지점ID}, 값은 락을 잡은 재구성의 UUID
+    RELEASE_SCRIPT : 내가 잡은 락일 때만 삭제(유지 시간이 지나 다른 서버가 잡은 락은 지우지 않음)
+     */
+
+    private record Snapshot(List<SeatStatusDto> statusList, long takenAt) {
+    }
+    /* 현황판 + 받아온 시각(System.nanoTime 기준) */
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public void remember(Long branchId, List<SeatStatusDto> statusList) {
+        lastSnapshots.put(branchId, new Snapshot(statusList, System.nanoTime()));
+    }
+    /* 현황판에서 바로 조회한 결과를 직전 현황판으로 기억(조회 1번당 Map 교체 1번) */
+
+    public List<SeatStatusDto> rebuild(Long branchId, Supplier<List<SeatStatusDto>> source, boolean allowStale) {
+        CompletableFuture<List<SeatStatusDto>> created = new CompletableFuture<>();
+        CompletableFuture<List<SeatStatusDto>> running = inFlight.putIfAbsent(branchId, created);
+        if (running == null) {
+            running = created;
+            executor.execute(() -> start(branchId, source, created));
+        }
+
+        Snapshot stale = lastSnapshots.get(branchId);
+        if (allowStale && stale != null
+                && System.nanoTime() - stale.takenAt() <= TimeUnit.MILLISECONDS.toNanos(staleMaxAgeMs)) {
+            return stale.statusList();
+        }
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+    /* 현황판 재구성(현황판이 비어 있을 때 ReservationService가 호출)
+    1. 서버 안 요청 합치기(single-flight)
+    지점마다 진행 중인 재구성(CompletableFuture)을 inFlight에 1개만 둠
+    putIfAbsent에 성공한 첫 요청만 재구성을 시작하고, 나머지는 같은 결과를 함께 기다림
+    끝나면(성공/실패 모두, finish/fail) inFlight에서 지워서 다음 재구성은 새로 시작
+
+    2. 직전 현황판 먼저 돌려주기(stale-while-revalidate, allowStale일 때만)
+    staleMaxAgeMs 이내에 조회한 현황판이 있으면 재구성을 기다리지 않고 그것을 바로 반환
+    재구성은 뒤에서 계속 진행되고, 끝나면 다음 조회부터 새 현황판을 받음
+    오래된 현황판밖에 없으면 재구성이 끝날 때까지 기다림 >> 돌려주는 현황판의 나이는 staleMaxAgeMs를 넘지 않음
+    빈 좌석 자동 배정처럼 재구성된 현황판이 바로 필요한 곳은 allowStale = false로 항상 기다림
+     */
+
+    private void start(Long branchId, Supplier<List<SeatStatusDto>> source, CompletableFuture<List<SeatStatusDto>> result) {
+        try {
+            String lockKey = LOCK_KEY_PREFIX + "{" + branchId + "}";
+            String token = UUID.randomUUID().toString();
+            boolean acquired;
+            try {
+                acquired = !Boolean.FALSE.equals(
+                        redisTemplate.opsForValue().setIfAbsent(lockKey, token, Duration.ofMillis(rebuildLockMs)));
+            } catch (Exception e) {
+                log.warn("현황판 재구성 락 확인 실패(이 서버에서 재구성) - Branch: {}, Error: {}", branchId, e.getMessage());
+                acquired = true;
+            }
+
+            if (!acquired) {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(rebuildWaitMs);
+                executor.schedule(() -> poll(branchId, source, result, deadline), POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            try {
+                log.info("좌석 현황판 재구성 - Branch: {}", branchId);
+                List<SeatStatusDto> statusList = source.get();
+                seatStatusStore.replaceAll(branchId, statusList);
+                finish(branchId, result, statusList);
+            } finally {
+                releaseLock(lockKey, token);
+            }
+        } catch (Throwable e) {
+            fail(branchId, result, e);
+        }
+    }
+    /* 실제 재구성 시작(서버끼리 1대만)
+    Redis 재구성 락(SET NX + 유지 시간)을 잡은 서버만 원본(DB + 락 정보)에서 만들어서 현황판을 채움
+    락을 못 잡으면 다른 서버가 재구성 중이므로 원본을 읽지 않고 50ms 뒤 현황판 확인(poll)을 예약하고 스레드를 바로 반납
+    Redis 장애로 락을 확인할 수 없으면 이 서버에서 바로 재구성
+     */
+
+    private void poll(Long branchId, Supplier<List<SeatStatusDto>> source,
+                      CompletableFuture<List<SeatStatusDto>> result, long deadline) {
+        try {
+            List<SeatStatusDto> statusList = seatStatusStore.findAll(branchId);
+            if (!statusList.isEmpty()) {
+                finish(branchId, result, statusList);
+                return;
+            }
+            if (System.nanoTime() - deadline < 0) {
+                executor.schedule(() -> poll(branchId, source, result, deadline), POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            finish(branchId, result, source.get());
+        } catch (Throwable e) {
+            fail(branchId, result, e);
+        }
+    }
+    /* 다른 서버의 재구성 기다리기(스레드를 재우지 않는 확인 예약)
+    확인 1번 = 현황판 조회 1번, 채워져 있으면 그 현황판으로 끝
+    비어 있으면 50ms 뒤 다시 확인을 예약(그 사이 스레드는 다른 지점 재구성, 확인에 사용)
+    rebuildWaitMs가 지나도 안 채워지면(재구성하던 서버가 느리거나 죽음) 이 서버에서 원본을 읽어서 반환만 함
+    (현황판 쓰기는 락을 잡은 서버에 맡김, 락 유지 시간이 지나면 다음 재구성 때 다른 서버가 잡음)
+     */
+
+    private void finish(Long branchId, CompletableFuture<List<SeatStatusDto>> result, List<SeatStatusDto> statusList) {
+        remember(branchId, statusList);
+        result.complete(statusList);
+        inFlight.remove(branchId, result);
+    }
+
+    private void fail(Long branchId, CompletableFuture<List<SeatStatusDto>> result, Throwable e) {
+        result.completeExceptionally(e);
+        inFlight.remove(branchId, result);
+    }
+    /* 재구성 끝(성공 : 직전 현황판으로 기억 + 기다리던 요청에 전달, 실패 : 기다리던 요청에 예외 전달)
+    끝난 재구성은 inFlight에서 지워서 다음 재구성이 새로 시작되게 함
+     */
+
+    private void releaseLock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey), token);
+        } catch (Exception e) {
+            log.warn("현황판 재구성 락 해제 실패(유지 시간 뒤 자동 해제) - Key: {}, Error: {}", lockKey, e.getMessage());
+        }
+    }
+}
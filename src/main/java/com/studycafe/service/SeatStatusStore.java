@@ -0,0 +1,424 @@
+/*
+좌석 현황판을 지점마다 Redis Hash 1개에 좌석별로 보관하는 저장소
+예약/선점/취소가 일어날 때마다 전체 목록을 버리지 않고 해당 좌석 1칸만 수정
+ */
+package com.studycafe.service;
+
+import com.studycafe.dto.SeatStatusBitmap;
+import com.studycafe.dto.SeatStatusDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatStatusStore {
+    private static final String KEY_PREFIX = "seat_status:";
+    private static final String BITS_KEY_PREFIX = "seat_status_bits:";
+    private static final String FREE_KEY_PREFIX = "seat_free:";
+    private static final String TEMP_SUFFIX = ":rebuild";
+    private static final int FREE_SCAN_PAGE = 256;
+    public static final String EVENT_CHANNEL_PREFIX = "seat_status_events:";
+    public static final String EVENT_CHANNEL_PATTERN = EVENT_CHANNEL_PREFIX + "*";
+    public static final String RESET_EVENT = "*";
+
+    private static final RedisScript<Long> CONDITIONAL_SET_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "local cur = redis.call('HGET', KEYS[1], ARGV[1]) or '' " +
+            "if ARGV[4] == 'eq' and cur ~= ARGV[3] then return 0 end " +
+            "if ARGV[4] == 'ne' and cur == ARGV[3] then return 0 end " +
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) " +
+            "redis.call('BITFIELD', KEYS[2], 'SET', 'u2', '#' .. (tonumber(ARGV[1]) - 1), ARGV[5]) " +
+            "if ARGV[2] == 'AVAILABLE' then redis.call('ZADD', KEYS[3], ARGV[1], ARGV[1]) " +
+            "else redis.call('ZREM', KEYS[3], ARGV[1]) end " +
+            "if cur ~= ARGV[2] then redis.call('PUBLISH', ARGV[6], ARGV[1] .. ':' .. ARGV[2]) end " +
+            "return 1",
+            Long.class
+    );
+    /* 조건부 상태 변경 스크립트(Lua)
+    HGET으로 현재 상태를 읽고 HSET으로 쓰는 과정을 Redis 안에서 한 번에 실행(원자성 보장)
+    KEYS[1] : seat_status:{지점ID}, KEYS[2] : seat_status_bits:{지점ID}, KEYS[3] : seat_free:{지점ID}
+    ARGV[1] : 좌석번호, ARGV[2] : 바꿀 상태
+    ARGV[3] : 비교할 상태, ARGV[4] : eq(같을 때만), ne(다를 때만), any(무조건)
+    ARGV[5] : 바꿀 상태의 2비트 코드(SeatStatusBitmap), ARGV[6] : 변경 알림 채널
+
+    Hash와 비트맵, 빈 좌석 목록을 같은 스크립트 안에서 함께 수정하므로 세 표현이 항상 일치함
+    (AVAILABLE이 되면 빈 좌석 목록에 추가, 그 외 상태가 되면 제거)
+    두 키는 같은 해시 태그({지점ID})를 가지므로 Redis Cluster에서도 같은 노드에 있어 스크립트 1개로 실행 가능
+    상태가 실제로 바뀐 경우에만 "좌석번호:상태"를 seat_status_events:지점ID 채널로 PUBLISH
+    >> 모든 서버의 SeatStatusStreamService가 받아서 각자 연결된 클라이언트에게 전달
+
+    현황판 자체가 아직 없으면(EXISTS == 0) 아무것도 쓰지 않음
+    >> 좌석 1칸만 들어간 반쪽짜리 현황판이 생기는 것을 방지(다음 조회 때 전체 재구성)
+     */
+
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #ARGV do " +
+            "  redis.call('HDEL', KEYS[1], ARGV[i]) " +
+            "  redis.call('BITFIELD', KEYS[2], 'SET', 'u2', '#' .. (tonumber(ARGV[i]) - 1), 0) " +
+            "  redis.call('ZREM', KEYS[3], ARGV[i]) " +
+            "end " +
+            "return #ARGV",
+            Long.class
+    );
+    /* 좌석 삭제 스크립트(Lua)
+    KEYS는 CONDITIONAL_SET_SCRIPT와 같음, ARGV : 삭제할 좌석번호들
+    Hash에서 지우고, 비트맵의 그 좌석 2비트를 00으로 지우고, 빈 좌석 목록에서 제거하는 것을 한 번에 실행
+    (비트맵에는 "좌석 없음" 코드가 없으므로 지운 자리는 00으로 남음, 전체 좌석 목록은 /seats 기준)
+     */
+
+    private static final RedisScript<Long> SYNC_FREE_SCRIPT = new DefaultRedisScript<>(
+            "local fixed = 0 " +
+            "for i = 1, #ARGV do " +
+            "  if redis.call('HGET', KEYS[1], ARGV[i]) == 'AVAILABLE' then " +
+            "    fixed = fixed + redis.call('ZADD', KEYS[2], ARGV[i], ARGV[i]) " +
+            "  else " +
+            "    fixed = fixed + redis.call('ZREM', KEYS[2], ARGV[i]) " +
+            "  end " +
+            "end " +
+            "return fixed",
+            Long.class
+    );
+    /* 빈 좌석 목록 보정 스크립트(Lua)
+    KEYS[1] : seat_status:{지점ID}, KEYS[2] : seat_free:{지점ID}, ARGV : 어긋난 것으로 보이는 좌석번호들
+    좌석마다 그 순간의 현황판 상태를 다시 읽어서 AVAILABLE이면 목록에 추가, 아니면 제거
+    >> 자바에서 비교한 뒤에 확정/선점된 좌석을 목록에 되살리지 않음
+     */
+
+    private final RedisTemplate<String,String> redisTemplate;
+    private final RedisTemplate<String,String> seatStatusReadTemplate;
+    /* redisTemplate : 현황판 쓰기, 정합성 검사용 조회(마스터)
+    seatStatusReadTemplate : /seats, /seats/bitmap 조회용(복제본 우선, RedisConnectionConfig)
+     */
+
+    private static String key(Long branchId) {
+        return KEY_PREFIX + "{" + branchId + "}";
+    }
+
+    private static String bitsKey(Long branchId) {
+        return BITS_KEY_PREFIX + "{" + branchId + "}";
+    }
+
+    static String freeKey(Long branchId) {
+        return FREE_KEY_PREFIX + "{" + branchId + "}";
+    }
+
+    static List<String> keys(Long branchId) {
+        return List.of(key(branchId), bitsKey(branchId), freeKey(branchId));
+    }
+
+    public static String eventChannel(Long branchId) {
+        return EVENT_CHANNEL_PREFIX + branchId;
+    }
+    /* 지점별 키 이름
+    현황판 : seat_status:{지점ID}, 비트맵 : seat_status_bits:{지점ID}, 변경 알림 채널 : seat_status_events:지점ID
+    빈 좌석 목록 : seat_free:{지점ID}(Sorted Set, 좌석번호 = 좌석번호 점수)
+    >> 번호 순으로 정렬되어 있어서 범위 안의 빈 좌석, 특정 좌석과 가까운 빈 좌석을 바로 찾을 수 있음(RedisLockService.lockAnySeat)
+    keys : 세 키를 Lua 스크립트 KEYS 순서대로 묶은 것
+    {지점ID}는 Redis Cluster 해시 태그 >> 같은 지점의 현황판, 비트맵, 임시 키, 락 키가 모두 같은 노드에 모임
+    지점마다 따로 재구성/수정/알림되므로 한 지점의 변경이 다른 지점 현황판에 영향을 주지 않음
+     */
+
+    public void markLocked(Long branchId, Integer seatNumber) {
+        setIf(branchId, seatNumber, "LOCKED", "OCCUPIED", "ne");
+    }
+
+    public void markUnlocked(Long branchId, Integer seatNumber) {
+        setIf(branchId, seatNumber, "AVAILABLE", "LOCKED", "eq");
+    }
+
+    public void markOccupied(Long branchId, Integer seatNumber) {
+        setIf(branchId, seatNumber, "OCCUPIED", "", "any");
+    }
+
+    public void markReleased(Long branchId, Integer seatNumber) {
+        setIf(branchId, seatNumber, "AVAILABLE", "OCCUPIED", "eq");
+    }
+    /* 상태 전이 메서드
+    markLocked : 이용중(OCCUPIED)인 좌석이 아니면 LOCKED로 변경(이용중 표시가 우선)
+    markUnlocked : 선점(LOCKED) 상태일 때만 AVAILABLE로 복구
+    markOccupied : 예약 확정 시 무조건 OCCUPIED로 변경
+    markReleased : 퇴실/자동 퇴실 시 OCCUPIED였던 좌석만 AVAILABLE로 복구
+     */
+
+    public void markLocked(Long branchId, List<Integer> seatNumbers) {
+        setIfAll(branchId, seatNumbers, "LOCKED", "OCCUPIED", "ne");
+    }
+
+    public void markUnlocked(Long branchId, List<Integer> seatNumbers) {
+        setIfAll(branchId, seatNumbers, "AVAILABLE", "LOCKED", "eq");
+    }
+
+    public void markOccupied(Long branchId, List<Integer> seatNumbers) {
+        setIfAll(branchId, seatNumbers, "OCCUPIED", "", "any");
+    }
+    /* 여러 좌석(단체석) 상태 전이 : 규칙은 좌석 1개짜리와 같고 좌석 수와 관계없이 파이프라인 1번 */
+
+    private void setIfAll(Long branchId, List<Integer> seatNumbers, String status, String expected, String mode) {
+        Map<Integer, String> changes = new HashMap<>();
+        seatNumbers.forEach(seatNumber -> changes.put(seatNumber, status));
+        try {
+            setEach(branchId, changes, seatNumber -> expected, mode);
+        } catch (Exception e) {
+            log.error("좌석 현황 일괄 갱신 중 오류 발생 - Branch: {}, Seats: {}, Status: {}, Error: {}",
+                    branchId, seatNumbers, status, e.getMessage());
+        }
+    }
+
+    private int setEach(Long branchId, Map<Integer, String> changes, Function<Integer, String> expected, String mode) {
+        byte[] script = CONDITIONAL_SET_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        List<String> keys = keys(branchId);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            changes.forEach((seatNumber, status) -> {
+                List<String> keysAndArgs = new ArrayList<>(keys);
+                keysAndArgs.addAll(List.of(String.valueOf(seatNumber), status, expected.apply(seatNumber), mode,
+                        String.valueOf(SeatStatusBitmap.codeOf(status)), eventChannel(branchId)));
+                connection.scriptingCommands().eval(script, ReturnType.INTEGER, keys.size(),
+                        keysAndArgs.stream().map(value -> value.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new));
+            });
+            return null;
+        });
+        return (int) results.stream().filter(result -> Long.valueOf(1).equals(result)).count();
+    }
+    /* 여러 좌석 조건부 변경을 파이프라인 1번으로 실행(좌석마다 CONDITIONAL_SET_SCRIPT 1번)
+    changes : {좌석번호 = 바꿀 상태}, expected : 좌석번호별 비교할 상태
+    실제로 바뀐 좌석 수를 반환
+     */
+
+    private void setIf(Long branchId, Integer seatNumber, String status, String expected, String mode) {
+        try {
+            redisTemplate.execute(
+                    CONDITIONAL_SET_SCRIPT,
+                    keys(branchId),
+                    String.valueOf(seatNumber), status, expected, mode,
+                    String.valueOf(SeatStatusBitmap.codeOf(status)), eventChannel(branchId)
+            );
+        } catch (Exception e) {
+            log.error("좌석 현황 갱신 중 오류 발생 - Branch: {}, Seat: {}, Status: {}, Error: {}",
+                    branchId, seatNumber, status, e.getMessage());
+            // 실패해도 정합성 검사(reconcile)가 다시 맞춰주므로 로그만 남김
+        }
+    }
+
+    public Map<Integer, String> snapshot(Long branchId) {
+        return snapshot(redisTemplate, branchId);
+    }
+
+    private Map<Integer, String> snapshot(RedisTemplate<String,String> template, Long branchId) {
+        Map<Object, Object> entries = template.opsForHash().entries(key(branchId));
+        Map<Integer, String> result = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            result.put(Integer.valueOf(entry.getKey().toString()), entry.getValue().toString());
+        }
+        return result;
+    }
+    /* 현황판 전체를 HGETALL 1번으로 가져와서 {좌석번호 = 상태} Map으로 반환
+    현황판이 없으면 빈 Map 반환
+    공개 snapshot은 정합성 검사(비교 후 수정)용이라 방금 쓴 값이 보이도록 마스터에서 읽음
+     */
+
+    public int countAvailable(Long branchId) {
+        Long count = seatStatusReadTemplate.opsForZSet().zCard(freeKey(branchId));
+        if (count == null || count == 0 && !Boolean.TRUE.equals(seatStatusReadTemplate.hasKey(key(branchId)))) {
+            return -1;
+        }
+        return count.intValue();
+    }
+    /* 빈 좌석(AVAILABLE) 수, 현황판이 아직 없으면 -1(알 수 없음)
+    빈 좌석 목록의 ZCARD라서 좌석 수와 관계없이 O(1)
+    대기열 입장 인원을 빈 좌석 수에 맞출 때 사용(WaitingRoomService, 복제본 우선 조회)
+     */
+
+    public List<Integer> findFreeSeats(Long branchId, int fromSeatNumber, int toSeatNumber, int limit) {
+        Set<String> seats = redisTemplate.opsForZSet()
+                .rangeByScore(freeKey(branchId), fromSeatNumber, toSeatNumber, 0, limit);
+        List<Integer> result = new ArrayList<>();
+        if (seats != null) {
+            seats.forEach(seat -> result.add(Integer.valueOf(seat)));
+        }
+        return result;
+    }
+    /* 범위 안의 빈 좌석을 번호 순으로 최대 limit개 조회(ZRANGEBYSCORE)
+    서버 메모리 락 지점이 빈 좌석 후보를 고를 때 사용(InMemorySeatLockService.lockAnySeat)
+     */
+
+    public List<Integer> findAdjacentFreeSeats(Long branchId, int size, int fromSeatNumber, int toSeatNumber) {
+        int runStart = -1;
+        int previous = -1;
+        double nextScore = fromSeatNumber;
+        while (nextScore <= toSeatNumber) {
+            Set<String> page = redisTemplate.opsForZSet()
+                    .rangeByScore(freeKey(branchId), nextScore, toSeatNumber, 0, FREE_SCAN_PAGE);
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            for (String member : page) {
+                int seat = Integer.parseInt(member);
+                if (seat != previous + 1) {
+                    runStart = seat;
+                }
+                previous = seat;
+                if (seat - runStart + 1 == size) {
+                    return IntStream.rangeClosed(runStart, seat).boxed().toList();
+                }
+            }
+            if (page.size() < FREE_SCAN_PAGE) {
+                break;
+            }
+            nextScore = previous + 1;
+        }
+        return List.of();
+    }
+    /* 번호가 이어진 빈 좌석 size개 찾기(단체석), 없으면 빈 리스트
+    빈 좌석 목록을 번호 순으로 256개씩 읽으면서 번호가 끊기지 않고 이어지는 구간의 길이를 셈
+    다음 페이지는 마지막으로 읽은 번호 다음부터 점수(좌석번호)로 이어서 읽음(OFFSET 없이)
+    >> 전체 좌석이 아니라 빈 좌석만 훑으므로 홀이 거의 다 찼을 때일수록 읽을 양이 적음
+    좌석 배치(행/열) 정보가 없으므로 번호가 이어진 좌석을 붙어 있는 좌석으로 봄
+     */
+
+    public int syncFreeSeats(Long branchId) {
+        Set<String> expected = new HashSet<>();
+        snapshot(branchId).forEach((seatNum, status) -> {
+            if ("AVAILABLE".equals(status)) {
+                expected.add(String.valueOf(seatNum));
+            }
+        });
+        Set<String> stored = redisTemplate.opsForZSet().range(freeKey(branchId), 0, -1);
+        Set<String> candidates = stored == null ? new HashSet<>() : new HashSet<>(stored);
+        candidates.removeAll(expected);
+        if (stored != null) {
+            expected.removeAll(stored);
+        }
+        candidates.addAll(expected);
+
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        Long fixed = redisTemplate.execute(SYNC_FREE_SCRIPT, List.of(key(branchId), freeKey(branchId)), candidates.toArray());
+        return fixed == null ? 0 : fixed.intValue();
+    }
+    /* 빈 좌석 목록을 현황판(Hash) 기준으로 맞춤(정합성 검사에서 현황판을 고친 뒤 호출)
+    현황판에서 AVAILABLE인데 목록에 없는 좌석, 목록에 있는데 AVAILABLE이 아닌 좌석을 후보로 모음
+    후보만 SYNC_FREE_SCRIPT로 넘겨서 Redis 안에서 그 순간의 상태로 다시 확인한 뒤 추가/제거
+    빈 좌석 목록이 생기기 전부터 있던 현황판도 다음 정합성 검사 때 목록이 채워짐
+    실제로 맞춘 좌석 수를 반환
+     */
+
+    public List<SeatStatusDto> findAll(Long branchId) {
+        return findAll(seatStatusReadTemplate, branchId);
+    }
+
+    public List<SeatStatusDto> findAllFromMaster(Long branchId) {
+        return findAll(redisTemplate, branchId);
+    }
+
+    private List<SeatStatusDto> findAll(RedisTemplate<String,String> template, Long branchId) {
+        List<SeatStatusDto> statusList = new ArrayList<>();
+        snapshot(template, branchId).forEach((seatNum, status) -> statusList.add(new SeatStatusDto(seatNum, status)));
+        statusList.sort(Comparator.comparing(SeatStatusDto::getSeatNumber));
+        return statusList;
+    }
+    /* 현황판 전체를 좌석번호 순 리스트로 반환
+    findAll : 일반 조회용, 복제본에서 읽음(조금 늦을 수 있음)
+    findAllFromMaster : 실시간 구독(SSE)의 전체 현황용, 마스터에서 읽음
+    >> 대기 중인 변경(delta)을 버리고 보내는 전체 현황이라 이미 발행된 변경이 빠지면 안 됨
+     */
+
+    public void replaceAll(Long branchId, List<SeatStatusDto> statusList) {
+        if (statusList.isEmpty()) {
+            return;
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (SeatStatusDto dto : statusList) {
+            fields.put(String.valueOf(dto.getSeatNumber()), dto.getStatus());
+        }
+        String tempKey = key(branchId) + TEMP_SUFFIX;
+        String tempBitsKey = bitsKey(branchId) + TEMP_SUFFIX;
+        String tempFreeKey = freeKey(branchId) + TEMP_SUFFIX;
+        redisTemplate.delete(List.of(tempKey, tempFreeKey));
+        redisTemplate.opsForHash().putAll(tempKey, fields);
+        writeBitmap(tempBitsKey, SeatStatusBitmap.encode(statusList));
+        Set<ZSetOperations.TypedTuple<String>> freeSeats = new HashSet<>();
+        statusList.stream()
+                .filter(dto -> "AVAILABLE".equals(dto.getStatus()))
+                .forEach(dto -> freeSeats.add(ZSetOperations.TypedTuple.of(
+                        String.valueOf(dto.getSeatNumber()), dto.getSeatNumber().doubleValue())));
+        if (freeSeats.isEmpty()) {
+            redisTemplate.delete(freeKey(branchId));
+        } else {
+            redisTemplate.opsForZSet().add(tempFreeKey, freeSeats);
+            redisTemplate.rename(tempFreeKey, freeKey(branchId));
+        }
+        redisTemplate.rename(tempBitsKey, bitsKey(branchId));
+        redisTemplate.rename(tempKey, key(branchId));
+        redisTemplate.convertAndSend(eventChannel(branchId), RESET_EVENT);
+    }
+    /* 한 지점의 현황판 전체 재구성
+    임시 키(seat_status:{지점ID}:rebuild)에 전체 좌석을 채운 뒤 RENAME으로 한 번에 교체
+    (RENAME은 두 키가 같은 노드에 있어야 하는데 해시 태그가 같으므로 Redis Cluster에서도 가능)
+    >> 재구성 도중에 조회가 들어와도 반쯤 채워진 현황판을 보지 않음
+    비트맵, 빈 좌석 목록도 자바에서 한 번에 만들어서 같은 방식으로 교체(빈 좌석이 없으면 목록 삭제)
+    교체 후 "*"(전체 초기화)를 알려서 실시간 구독자가 전체 현황을 다시 받게 함
+     */
+
+    public int putAll(Long branchId, Map<Integer, String> changes, Map<Integer, String> expected) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        return setEach(branchId, changes, seatNumber -> expected.getOrDefault(seatNumber, ""), "eq");
+    }
+
+    public void remove(Long branchId, List<Integer> seatNumbers) {
+        if (seatNumbers.isEmpty()) {
+            return;
+        }
+        redisTemplate.execute(REMOVE_SCRIPT, keys(branchId), seatNumbers.stream().map(String::valueOf).toArray());
+        redisTemplate.convertAndSend(eventChannel(branchId), RESET_EVENT);
+    }
+    /* 정합성 검사에서 어긋난 좌석만 골라서 수정(putAll)하거나 없어진 좌석을 삭제(remove)할 때 사용
+    putAll은 좌석마다 비교 후 변경(eq) : 현황판 값이 정합성 검사가 읽어둔 값(expected, 없던 좌석은 "")일 때만 고침
+    >> 검사 도중에 확정/취소/선점으로 바뀐 좌석은 덮어쓰지 않고 건너뜀(다음 검사 때 다시 비교), 실제로 고친 좌석 수를 반환
+    바뀐 좌석만 Lua 스크립트 안에서 Hash, 비트맵(BITFIELD SET u2), 빈 좌석 목록을 함께 수정
+    >> 비트맵을 현황판 조회 결과로 통째로 다시 쓰지 않으므로
+       복제본의 지연된 값이나 조회와 쓰기 사이에 들어온 다른 변경을 덮어쓰지 않음
+    수정된 좌석은 상태가 실제로 바뀐 경우 1개씩 변경 알림(스크립트 안에서), 좌석이 삭제되면 전체 초기화(*) 알림
+     */
+
+    public byte[] findBitmap(Long branchId) {
+        return seatStatusReadTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(bitsKey(branchId).getBytes(StandardCharsets.UTF_8)));
+    }
+    /* 압축 현황판 조회
+    비트맵은 바이너리 값이므로 StringRedisSerializer를 거치지 않고
+    연결(connection)에서 바이트 배열 그대로 GET 해옴
+    없으면 null 반환
+    findAll과 함께 복제본 우선 연결(seatStatusReadTemplate)에서 읽음
+     */
+
+    private void writeBitmap(String key, byte[] bitmap) {
+        redisTemplate.execute((RedisCallback<Object>) connection ->
+                connection.stringCommands().set(key.getBytes(StandardCharsets.UTF_8), bitmap));
+    }
+
+    public void clear(Long branchId) {
+        redisTemplate.delete(keys(branchId));
+    }
+}
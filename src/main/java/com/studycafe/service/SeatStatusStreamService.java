@@ -0,0 +1,229 @@
+/*
+좌석 현황을 클라이언트에게 실시간으로 밀어주는(Server-Sent Events) 서비스
+접속 시 구독한 지점의 전체 현황 1번, 이후에는 그 지점에서 바뀐 좌석(delta)만 전송
+ */
+package com.studycafe.service;
+
+import com.studycafe.dto.SeatStatusDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatStatusStreamService implements MessageListener {
+    private final ReservationService reservationService;
+    private final SeatStatusStore seatStatusStore;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger senderThreadCount = new AtomicInteger(0);
+    private ExecutorService sender;
+
+    @Value("${app.seat.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.seat.stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${app.seat.stream.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+    /* 필드(application.yml)
+    subscribers : 이 서버에 연결된 지점별 실시간 구독자 목록 {지점ID = 구독자들}
+    sender : 실제 전송을 담당하는 전용 스레드(seat-stream-sender-1, -2, ...), 스케줄러/Redis 구독 스레드가 전송에 묶이지 않게 분리
+    timeoutMs : 연결 유지 시간(기본 30분), 끝나면 클라이언트가 다시 연결
+    senderThreads : 전송 스레드 수
+    sendTimeoutMs : 전송 1번의 최대 시간, 넘으면 그 구독자를 끊음(뒤처진 구독자 정리)
+     */
+
+    @PostConstruct
+    void subscribe() {
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "seat-stream-sender-" + senderThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        listenerContainer.addMessageListener(this, new PatternTopic(SeatStatusStore.EVENT_CHANNEL_PATTERN));
+    }
+    /* 전송 스레드를 만들고 좌석 현황판(SeatStatusStore)이 보내는 지점별 변경 알림 채널(seat_status_events:*) 구독
+    어느 서버에서 좌석이 바뀌어도 Redis Pub/Sub으로 모든 서버에 전달됨(서버 간 전파)
+     */
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+    }
+
+    public SseEmitter connect(Long branchId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(branchId, emitter);
+        Set<Subscriber> branchSubscribers =
+                subscribers.computeIfAbsent(branchId, id -> ConcurrentHashMap.newKeySet());
+
+        emitter.onCompletion(() -> branchSubscribers.remove(subscriber));
+        emitter.onTimeout(() -> branchSubscribers.remove(subscriber));
+        emitter.onError(e -> branchSubscribers.remove(subscriber));
+
+        branchSubscribers.add(subscriber);
+        subscriber.resetRequested.set(true);
+        flush(subscriber);
+        return emitter;
+    }
+    /* 한 지점의 실시간 구독 시작
+    SseEmitter는 응답을 끝내지 않고 열어둔 채로 이벤트를 계속 보낼 수 있는 객체
+    연결이 끝나거나(완료, 시간초과, 에러) 하면 구독자 목록에서 제거
+    처음 연결하면 전체 현황(snapshot)을 1번 보내도록 resetRequested를 켜고 바로 전송
+     */
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        Long branchId = Long.valueOf(channel.substring(SeatStatusStore.EVENT_CHANNEL_PREFIX.length()));
+        Set<Subscriber> branchSubscribers = subscribers.get(branchId);
+        if (branchSubscribers == null || branchSubscribers.isEmpty()) {
+            return;
+        }
+
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+
+        if (SeatStatusStore.RESET_EVENT.equals(body)) {
+            branchSubscribers.forEach(subscriber -> subscriber.resetRequested.set(true));
+            return;
+        }
+
+        int separator = body.indexOf(':');
+        Integer seatNumber = Integer.valueOf(body.substring(0, separator));
+        String status = body.substring(separator + 1);
+        branchSubscribers.forEach(subscriber -> subscriber.pending.put(seatNumber, status));
+    }
+    /* 변경 알림 수신(채널 : seat_status_events:지점ID, 내용 : 좌석번호:상태)
+    채널 이름에서 지점ID를 꺼내서 그 지점 구독자에게만 전달(다른 지점 구독자는 건드리지 않음)
+    바로 보내지 않고 구독자별 대기 맵(pending)에 좌석번호를 키로 덮어씀(합치기, coalescing)
+    >> 같은 좌석이 짧은 시간에 여러 번 바뀌면 마지막 상태 1개만 전송됨
+    "*"(전체 초기화)가 오면 다음 전송 때 전체 현황을 다시 보냄
+     */
+
+    @Scheduled(fixedDelayString = "${app.seat.stream.flush-interval-ms:200}")
+    public void flushAll() {
+        long now = System.currentTimeMillis();
+        subscribers.values().forEach(branchSubscribers -> branchSubscribers.forEach(subscriber -> {
+            if (subscriber.sending.get() && now - subscriber.sendStartedAt > sendTimeoutMs) {
+                evict(subscriber, new TimeoutException("전송이 " + sendTimeoutMs + "ms 안에 끝나지 않음"));
+            } else {
+                flush(subscriber);
+            }
+        }));
+    }
+    /* 200ms마다 모든 구독자의 대기 중인 변경 내용을 전송
+    각 서버가 자기 구독자만 담당하므로 ShedLock 사용 안 함
+    전송이 send-timeout-ms보다 오래 걸리고 있는 구독자는 뒤처진 것으로 보고 끊음
+    >> SseEmitter.send는 소켓에 다 쓸 때까지 막히므로, 읽지 않는 클라이언트가 전송 스레드를 계속 붙잡지 않게 함
+    끊긴 클라이언트는 다시 연결해서 전체 현황(snapshot)부터 받음
+     */
+
+    private void evict(Subscriber subscriber, Exception cause) {
+        if (!subscriber.evicted.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.getOrDefault(subscriber.branchId, Set.of()).remove(subscriber);
+        log.warn("실시간 구독자 연결 종료 - Branch: {}, Reason: {}", subscriber.branchId, cause.getMessage());
+        subscriber.emitter.completeWithError(cause);
+    }
+    /* 구독자를 목록에서 빼고 연결을 에러로 끝냄(구독자마다 1번만)
+    completeWithError는 전송 중인 send와 같은 잠금을 쓰지 않아서 스케줄러 스레드가 막히지 않음
+    서버가 응답을 닫으면 막혀 있던 send도 IOException으로 끝나서 전송 스레드가 풀려남
+     */
+
+    private void flush(Subscriber subscriber) {
+        if (!subscriber.resetRequested.get() && subscriber.pending.isEmpty()) {
+            return;
+        }
+        if (!subscriber.sending.compareAndSet(false, true)) {
+            return;
+        }
+        subscriber.sendStartedAt = System.currentTimeMillis();
+        sender.execute(() -> {
+            try {
+                if (subscriber.resetRequested.getAndSet(false)) {
+                    subscriber.pending.clear();
+                    subscriber.emitter.send(SseEmitter.event()
+                            .name("snapshot")
+                            .data(snapshot(subscriber.branchId)));
+                } else {
+                    List<SeatStatusDto> delta = new ArrayList<>();
+                    for (Integer seatNumber : new ArrayList<>(subscriber.pending.keySet())) {
+                        String status = subscriber.pending.remove(seatNumber);
+                        if (status != null) {
+                            delta.add(new SeatStatusDto(seatNumber, status));
+                        }
+                    }
+                    if (!delta.isEmpty()) {
+                        subscriber.emitter.send(SseEmitter.event().name("delta").data(delta));
+                    }
+                }
+            } catch (Exception e) {
+                evict(subscriber, e);
+            } finally {
+                subscriber.sending.set(false);
+            }
+        });
+    }
+    /* 구독자 1명에게 전송
+    sending 깃발로 구독자마다 전송 작업이 동시에 1개만 돌게 함
+    >> 느린 클라이언트에게 보내는 중이면 새 작업을 쌓지 않고 대기 맵에서 계속 합쳐짐
+    >> 느린 클라이언트 때문에 메모리에 메시지가 무한히 쌓이는 문제(backpressure) 방지
+
+    snapshot : 구독한 지점의 전체 좌석 현황 리스트(접속 직후, 전체 초기화 알림 후)
+    대기 맵을 먼저 비우고 나서 마스터에서 읽음
+    >> 비운 변경은 이미 마스터에 반영된 뒤 발행된 것이라 전체 현황에 들어 있고,
+       비운 뒤에 온 변경은 대기 맵에 남아서 다음 delta로 다시 감(같은 상태를 1번 더 보낼 뿐 빠지지 않음)
+    delta : 마지막 전송 이후 바뀐 좌석만 담은 리스트
+    전송을 맡은 시각(sendStartedAt, 스레드를 기다린 시간 포함)을 남겨서 flushAll이 오래 걸리는 전송을 찾게 함
+    전송 실패(연결 끊김)하면 구독자 목록에서 제거
+     */
+
+    private List<SeatStatusDto> snapshot(Long branchId) {
+        List<SeatStatusDto> statusList = seatStatusStore.findAllFromMaster(branchId);
+        return statusList.isEmpty() ? reservationService.getAllSeatStatus(branchId) : statusList;
+    }
+    /* 실시간 구독용 전체 현황 : 현황판을 마스터에서 읽음(복제 지연으로 방금 버린 변경이 빠지지 않게)
+    현황판이 비어 있으면(최초 실행, Redis 재시작) 일반 조회로 재구성한 결과를 사용
+     */
+
+    private static class Subscriber {
+        private final Long branchId;
+        private final SseEmitter emitter;
+        private final Map<Integer, String> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean resetRequested = new AtomicBoolean(false);
+        private final AtomicBoolean sending = new AtomicBoolean(false);
+        private final AtomicBoolean evicted = new AtomicBoolean(false);
+        private volatile long sendStartedAt;
+
+        private Subscriber(Long branchId, SseEmitter emitter) {
+            this.branchId = branchId;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+미래 시간대(15분 단위) 좌석 예약을 처리하는 서비스
+지금 바로 앉는 예약(/confirm)과 달리 좌석 선점 없이 날짜 + 시작 시각 + 이용 시간으로 바로 예약
+겹침 검사는 Redis 시간대 예약표(SeatSlotIndex)에서 먼저 하고 이긴 요청만 DB에 저장
+ */
+package com.studycafe.service;
+
+import com.studycafe.domain.outbox.OutboxEvent;
+import com.studycafe.domain.reservation.Reservation;
+import com.studycafe.domain.reservation.ReservationRepository;
+import com.studycafe.domain.seat.Seat;
+import com.studycafe.domain.seat.SeatRepository;
+import com.studycafe.domain.user.User;
+import com.studycafe.domain.user.UserRepository;
+import com.studycafe.global.exception.CustomException;
+import com.studycafe.global.exception.ErrorCode;
+import com.studycafe.global.metrics.ReservationMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SlotReservationService {
+    private final ReservationRepository reservationRepository;
+    private final SeatRepository seatRepository;
+    private final UserRepository userRepository;
+    private final SeatDirectory seatDirectory;
+    private final SeatSlotIndex seatSlotIndex;
+    private final ReservationExpiryQueue reservationExpiryQueue;
+    private final ReservationMetrics reservationMetrics;
+    private final ReservationOutbox reservationOutbox;
+
+    @Value("${app.slot.max-days-ahead:14}")
+    private int maxDaysAhead;
+
+    @Value("${app.slot.max-hours:12}")
+    private int maxHours;
+    /* 필드(application.yml)
+    maxDaysAhead : 며칠 뒤까지 미리 예약할 수 있는지
+    maxHours : 예약 1건의 최대 이용 시간
+     */
+
+    @Transactional
+    public Long reserveSlot(Long userId, Long branchId, Integer seatNumber, LocalDateTime startTime, int minutes) {
+        LocalDateTime now = LocalDateTime.now();
+        if (userId == null || branchId == null || seatNumber == null || seatNumber <= 0 || startTime == null
+                || minutes <= 0 || minutes % SeatSlotIndex.SLOT_MINUTES != 0 || minutes > maxHours * 60
+                || startTime.getMinute() % SeatSlotIndex.SLOT_MINUTES != 0
+                || startTime.getSecond() != 0 || startTime.getNano() != 0
+                || !startTime.isAfter(now) || startTime.isAfter(now.plusDays(maxDaysAhead))) {
+            throw new CustomException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        LocalDateTime endTime = startTime.plusMinutes(minutes);
+        Long seatId = seatDirectory.resolveId(branchId, seatNumber);
+
+        List<Integer> seats = List.of(seatNumber);
+        if (!seatSlotIndex.claim(branchId, seats, startTime, endTime)) {
+            reservationMetrics.lockAttempt(false, ErrorCode.SLOT_ALREADY_RESERVED.name());
+            throw CustomException.contention(ErrorCode.SLOT_ALREADY_RESERVED);
+        }
+        reservationMetrics.lockAttempt(true, "none");
+        ReservationService.afterRollback(() -> seatSlotIndex.release(branchId, seats, startTime, endTime));
+
+        if (reservationRepository.existsConflictingReservation(seatId, userId, startTime, endTime)) {
+            throw new CustomException(ErrorCode.SLOT_ALREADY_RESERVED);
+        }
+
+        User user = userRepository.getReferenceById(userId);
+        Seat seat = seatRepository.getReferenceById(seatId);
+        Reservation reservation = new Reservation(
+                user, seat, branchId, null, startTime, endTime, Reservation.ReservationStatus.CONFIRMED);
+        try {
+            reservationRepository.save(reservation);
+        } catch (DataIntegrityViolationException e) {
+            throw ReservationService.userNotFoundOrRethrow(e);
+        }
+        reservationOutbox.record(OutboxEvent.EventType.CONFIRMED, reservation, seatNumber);
+
+        ReservationService.afterCommit(() -> reservationExpiryQueue.schedule(branchId, reservation.getId(), endTime));
+        log.info("시간대 예약 - User: {}, Branch: {}, Seat: {}, {} ~ {}", userId, branchId, seatNumber, startTime, endTime);
+        return reservation.getId();
+    }
+    /* 미래 시간대 예약
+    0. 입력값 검사 : 시작 시각과 이용 시간은 15분 단위, 지금 이후 ~ maxDaysAhead일 이내, 최대 maxHours시간
+
+    1. 시간대 잡기(Redis 왕복 1번)
+    SeatSlotIndex에서 그 좌석의 해당 칸이 모두 비어 있을 때만 한 번에 예약 표시
+    이미 차 있으면 DB를 건드리지 않고 바로 SLOT_ALREADY_RESERVED(409)
+    >> 인기 시간대에 몰려도 진 요청은 MySQL까지 가지 않음
+
+    2. DB 최종 검사(이긴 요청만)
+    Redis 예약표가 유실되었다가 다시 만들어지는 사이 등을 대비해
+    같은 좌석 또는 같은 유저의 겹치는 예약이 있는지 existsConflictingReservation(좌석 쿼리 idx_seat_start_end, 유저 쿼리 idx_user_start_end)으로 확인
+
+    3. 저장 + 뒷정리
+    INSERT + 예약 확정 이벤트(CONFIRMED) 기록 후 커밋되면 종료 시각에 자동 퇴실되도록 만료 큐에 등록
+    2~3에서 실패해서 롤백되면 1에서 잡은 칸을 반납(afterRollback)
+    좌석 락(선점)을 거치지 않으므로 펜싱 토큰은 없음(null)
+
+    시작 시각이 되면 정합성 검사(30초 주기)가 현황판의 좌석을 OCCUPIED로 바꿈
+     */
+
+    @Transactional
+    public void cancelSlot(Long userId, Long reservationId) {
+        Reservation reservation = reservationRepository.findById(reservationId)
+                .filter(r -> r.getUser().getId().equals(userId))
+                .filter(r -> r.getStatus() == Reservation.ReservationStatus.CONFIRMED)
+                .filter(r -> r.getStartTime().isAfter(LocalDateTime.now()))
+                .orElseThrow(() -> new CustomException(ErrorCode.RESERVATION_NOT_FOUND));
+
+        reservation.cancel();
+        Long branchId = reservation.getBranchId();
+        List<Integer> seats = List.of(reservation.getSeat().getSeatNumber());
+        reservationOutbox.record(OutboxEvent.EventType.CANCELLED, reservation, seats.get(0));
+        ReservationService.afterCommit(() -> {
+            seatSlotIndex.release(branchId, seats, reservation.getStartTime(), reservation.getEndTime());
+            reservationExpiryQueue.cancel(branchId, reservation.getId());
+        });
+    }
+    /* 시작 전인 시간대 예약 취소
+    본인의 아직 시작하지 않은 CONFIRMED 예약만 취소 가능(이미 시작한 예약은 /end-use로 퇴실)
+    예약 취소 이벤트(CANCELLED)를 함께 기록하고, 커밋 후 예약표의 칸을 반납하고 만료 큐에서 제거
+     */
+
+    public byte[] getDaySlots(Long branchId, LocalDate date) {
+        if (branchId == null || date == null) {
+            throw new CustomException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        return seatSlotIndex.findDay(branchId, date);
+    }
+    /* 하루치 좌석 x 시간대 예약표 조회(GET 1번, 예약 테이블 조회 없음) */
+}
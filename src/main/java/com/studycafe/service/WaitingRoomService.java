@@ -0,0 +1,246 @@
+/*
+좌석 오픈 시간에 몰리는 선점 요청을 줄 세우는 대기열(Waiting Room)
+도착 시각을 점수로 하는 지점별 Redis Sorted Set에 사용자를 세워두고
+스케줄러가 일정 주기마다 빈 좌석 수에 맞춰 앞에서부터 일부만 입장(ADMITTED)시킴
+입장한 사용자만 입장권(admissionToken)을 들고 좌석 선점(/pre-occupy)을 할 수 있음
+>> 수천 명이 한꺼번에 락을 시도해서 대부분 SEAT_ALREADY_LOCKED로 실패하는 대신 일정한 속도로 들어옴
+ */
+package com.studycafe.service;
+
+import com.studycafe.dto.WaitingRoomDto;
+import com.studycafe.global.exception.CustomException;
+import com.studycafe.global.exception.ErrorCode;
+import com.studycafe.global.metrics.ReservationMetrics;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WaitingRoomService {
+    private static final String QUEUE_KEY_PREFIX = "waiting_room:";
+    private static final String ADMITTED_KEY_PREFIX = "waiting_room_admitted:";
+    private static final String TOKEN_KEY_PREFIX = "waiting_room_token:";
+
+    private static final RedisScript<String> ENTER_SCRIPT = new DefaultRedisScript<>(
+            "local token = redis.call('HGET', KEYS[3], ARGV[1]) " +
+            "if token then " +
+            "  if redis.call('ZSCORE', KEYS[1], ARGV[1]) then return token end " +
+            "  local expiresAt = redis.call('ZSCORE', KEYS[2], ARGV[1]) " +
+            "  if expiresAt and tonumber(expiresAt) > tonumber(ARGV[2]) then return token end " +
+            "  redis.call('ZREM', KEYS[2], ARGV[1]) " +
+            "end " +
+            "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) " +
+            "redis.call('HSET', KEYS[3], ARGV[1], ARGV[3]) " +
+            "return ARGV[3]",
+            String.class
+    );
+
+    private static final RedisScript<Long> ADMIT_SCRIPT = new DefaultRedisScript<>(
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1]) " +
+            "for _, user in ipairs(expired) do redis.call('HDEL', KEYS[3], user) end " +
+            "if #expired > 0 then redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', ARGV[1]) end " +
+            "local count = tonumber(ARGV[3]) " +
+            "local capacity = tonumber(ARGV[4]) " +
+            "if capacity >= 0 then count = math.min(count, capacity - redis.call('ZCARD', KEYS[2])) end " +
+            "if count <= 0 then return 0 end " +
+            "local popped = redis.call('ZPOPMIN', KEYS[1], count) " +
+            "local expiresAt = tonumber(ARGV[1]) + tonumber(ARGV[2]) " +
+            "local admitted = 0 " +
+            "for i = 1, #popped, 2 do " +
+            "  redis.call('ZADD', KEYS[2], expiresAt, popped[i]) admitted = admitted + 1 " +
+            "end " +
+            "return admitted",
+            Long.class
+    );
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisScript<List<Long>> STATUS_SCRIPT = new DefaultRedisScript(
+            "local rank = redis.call('ZRANK', KEYS[1], ARGV[1]) " +
+            "local expiresAt = redis.call('ZSCORE', KEYS[2], ARGV[1]) " +
+            "local admitted = 0 " +
+            "if expiresAt and tonumber(expiresAt) > tonumber(ARGV[2]) then admitted = 1 end " +
+            "return {rank or -1, admitted, redis.call('ZCARD', KEYS[1])}",
+            List.class
+    );
+
+    private static final RedisScript<Long> CHECK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[3], ARGV[1]) ~= ARGV[3] then return 0 end " +
+            "local expiresAt = redis.call('ZSCORE', KEYS[2], ARGV[1]) " +
+            "if expiresAt and tonumber(expiresAt) > tonumber(ARGV[2]) then return 1 end " +
+            "return 0",
+            Long.class
+    );
+    /* Lua 스크립트(모두 KEYS = [대기열, 입장 목록, 입장권], 한 지점의 키라 같은 해시 태그)
+    ENTER(입장) : 이미 대기 중이거나 입장 시간이 남아 있으면 기존 입장권 반환(새로고침, 중복 클릭)
+    아니면 도착 시각(ms)을 점수로 대기열에 넣고 새 입장권 저장
+    ADMIT(입장 처리) : 입장 시간이 지난 사용자를 입장 목록과 입장권에서 지우고
+    min(한 번에 입장시킬 인원, 빈 좌석 수 - 입장해 있는 인원)만큼 대기열 앞에서 꺼내(ZPOPMIN) 입장 목록에 추가
+    빈 좌석 수를 모르면(-1, 현황판 없음) 한 번에 입장시킬 인원만 적용
+    STATUS(상태) : {대기 순번(0부터, 없으면 -1), 입장 여부(1/0), 전체 대기 인원}
+    CHECK(입장 확인) : 입장권이 일치하고 입장 시간이 남아 있으면 1
+     */
+
+    private final RedisTemplate<String,String> redisTemplate;
+    private final SeatStatusStore seatStatusStore;
+    private final ReservationMetrics reservationMetrics;
+
+    @Getter
+    @Value("${app.waiting-room.enabled:false}")
+    private boolean enabled;
+
+    @Getter
+    @Value("${app.waiting-room.admit-interval-ms:1000}")
+    private long admitIntervalMs;
+
+    @Value("${app.waiting-room.admit-batch-size:50}")
+    private int admitBatchSize;
+
+    @Value("${app.waiting-room.admission-ttl-ms:60000}")
+    private long admissionTtlMs;
+    /* 필드(application.yml)
+    enabled : 좌석 선점 전에 대기열 입장을 요구할지 여부(좌석 오픈 등 몰리는 시간에만 켜는 용도)
+    admitIntervalMs : 입장 처리 주기
+    admitBatchSize : 한 주기에 최대 몇 명을 입장시킬지(초당 입장 인원 = admitBatchSize / 주기)
+    admissionTtlMs : 입장 후 좌석을 선점할 수 있는 시간, 지나면 입장 자리를 다음 사람에게 넘김
+     */
+
+    private static List<String> keys(Long branchId) {
+        String tag = "{" + branchId + "}";
+        return List.of(QUEUE_KEY_PREFIX + tag, ADMITTED_KEY_PREFIX + tag, TOKEN_KEY_PREFIX + tag);
+    }
+    /* 지점별 키
+    대기열 : waiting_room:{지점ID}(Sorted Set, 사용자ID = 도착 시각)
+    입장 목록 : waiting_room_admitted:{지점ID}(Sorted Set, 사용자ID = 입장 만료 시각)
+    입장권 : waiting_room_token:{지점ID}(Hash, 사용자ID = 입장권)
+     */
+
+    public WaitingRoomDto.Status enter(Long branchId, Long userId) {
+        if (!enabled) {
+            return new WaitingRoomDto.Status("ADMITTED", null, 0, 0, 0, 0);
+        }
+        String token = redisTemplate.execute(
+                ENTER_SCRIPT,
+                keys(branchId),
+                String.valueOf(userId), String.valueOf(System.currentTimeMillis()), UUID.randomUUID().toString()
+        );
+        return status(branchId, userId, token);
+    }
+    /* 대기열 입장, 입장권과 현재 대기 상태를 함께 반환
+    대기열이 꺼져 있으면 바로 ADMITTED(입장권 없이 선점 가능)
+     */
+
+    public WaitingRoomDto.Status status(Long branchId, Long userId) {
+        if (!enabled) {
+            return new WaitingRoomDto.Status("ADMITTED", null, 0, 0, 0, 0);
+        }
+        return status(branchId, userId, null);
+    }
+
+    private WaitingRoomDto.Status status(Long branchId, Long userId, String token) {
+        List<Long> result = redisTemplate.execute(
+                STATUS_SCRIPT,
+                keys(branchId),
+                String.valueOf(userId), String.valueOf(System.currentTimeMillis())
+        );
+        long rank = result.get(0);
+        long waitingCount = result.get(2);
+        if (result.get(1) == 1L) {
+            return new WaitingRoomDto.Status("ADMITTED", token, 0, waitingCount, 0, 0);
+        }
+        if (rank < 0) {
+            return new WaitingRoomDto.Status("NONE", token, 0, waitingCount, 0, 0);
+        }
+
+        long position = rank + 1;
+        long estimatedWaitMs = (position + admitBatchSize - 1) / admitBatchSize * admitIntervalMs;
+        long pollAfterMs = Math.min(Math.max(admitIntervalMs, estimatedWaitMs / 2), 10_000);
+        return new WaitingRoomDto.Status("WAITING", token, position, waitingCount, estimatedWaitMs, pollAfterMs);
+    }
+    /* 대기 상태 조회(Lua 1번, Redis 왕복 1번)
+    position : 내 앞 대기 인원 + 1(ZRANK는 O(log N)이라 대기 인원이 많아도 빠름)
+    estimatedWaitMs : 내 차례까지 남은 입장 주기 수 x 주기(빈 좌석이 부족하면 더 걸릴 수 있음)
+    pollAfterMs : 다음 조회 간격, 멀리 있을수록 드물게(최대 10초) 조회하게 해서 조회 요청 자체가 몰리는 것을 방지
+    입장권은 입장 요청 응답에만 담고 상태 조회 응답에는 담지 않음
+     */
+
+    public int admit(Long branchId) {
+        int capacity = seatStatusStore.countAvailable(branchId);
+        Long admitted = redisTemplate.execute(
+                ADMIT_SCRIPT,
+                keys(branchId),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(admissionTtlMs),
+                String.valueOf(admitBatchSize), String.valueOf(capacity)
+        );
+        int count = admitted == null ? 0 : admitted.intValue();
+        reservationMetrics.waitingRoomAdmitted(count);
+        return count;
+    }
+    /* 입장 처리(ReservationScheduler가 admitIntervalMs마다 지점별로 호출)
+    빈 좌석 수(현황판 AVAILABLE 수)에서 이미 입장해서 선점 중인 인원을 뺀 만큼만 입장
+    >> 빈 좌석이 없으면 아무도 입장시키지 않고, 퇴실/취소로 자리가 나면 그만큼 다시 입장
+     */
+
+    public void checkAdmitted(Long branchId, Long userId, String admissionToken) {
+        if (!enabled) {
+            return;
+        }
+        if (admissionToken == null) {
+            throw CustomException.contention(ErrorCode.WAITING_ROOM_NOT_ADMITTED);
+        }
+        Long admitted;
+        try {
+            admitted = redisTemplate.execute(
+                    CHECK_SCRIPT,
+                    keys(branchId),
+                    String.valueOf(userId), String.valueOf(System.currentTimeMillis()), admissionToken
+            );
+        } catch (DataAccessException e) {
+            log.warn("대기열 입장 확인 실패, 입장 확인 없이 선점 진행: {}", e.getMessage());
+            return;
+        }
+        if (admitted == null || admitted != 1L) {
+            throw CustomException.contention(ErrorCode.WAITING_ROOM_NOT_ADMITTED);
+        }
+    }
+    /* 좌석 선점 전 입장 확인(대기열이 켜져 있을 때만)
+    입장권이 없거나, 다른 사람의 입장권이거나, 입장 시간이 지났으면 WAITING_ROOM_NOT_ADMITTED(429)
+    Redis 장애로 확인할 수 없으면 막지 않고 통과시킴
+    >> 대기열은 부하를 줄이는 장치일 뿐이고 좌석 중복은 락(장애 시 메모리 락)과 DB가 막음
+     */
+
+    public void leave(Long branchId, Long userId) {
+        if (!enabled) {
+            return;
+        }
+        List<String> keys = keys(branchId);
+        String member = String.valueOf(userId);
+        try {
+            redisTemplate.opsForZSet().remove(keys.get(0), member);
+            redisTemplate.opsForZSet().remove(keys.get(1), member);
+            redisTemplate.opsForHash().delete(keys.get(2), member);
+        } catch (DataAccessException e) {
+            log.warn("대기열 퇴장 처리 실패 - Branch: {}, User: {}, Error: {}", branchId, userId, e.getMessage());
+            // 지우지 못해도 입장 시간이 지나면 ADMIT 스크립트가 정리함
+        }
+    }
+    /* 대기열/입장 목록에서 제거
+    좌석 선점에 성공하면 바로 호출해서 입장 자리를 다음 대기자에게 넘김
+    (선점에 실패하면 입장 시간 안에 다른 좌석을 다시 고를 수 있도록 남겨둠)
+     */
+
+    public void reset(Long branchId) {
+        redisTemplate.delete(keys(branchId));
+    }
+    /* 지점 대기열 전체 삭제(관리 작업, 테스트용) */
+}
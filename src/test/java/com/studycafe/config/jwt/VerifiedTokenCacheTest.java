@@ -0,0 +1,91 @@
+package com.studycafe.config.jwt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VerifiedTokenCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L); // 테스트가 직접 움직이는 시계(밀리초)
+
+    @Test
+    @DisplayName("검증된 토큰은 만료 전까지 캐시에서 바로 유저 ID를 돌려줘야 한다.")
+    void hitTest() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, now::get);
+        cache.put("digest-1", "42", now.get() + 60_000);
+
+        assertEquals("42", cache.get("digest-1"));
+        assertNull(cache.get("digest-unknown"));
+    }
+
+    @Test
+    @DisplayName("만료 시각이 지난 토큰은 캐시에 걸리지 않고 바로 지워져야 한다.")
+    void expiryTest() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, now::get);
+        cache.put("digest-1", "42", now.get() + 60_000);
+
+        now.addAndGet(59_999);
+        assertEquals("42", cache.get("digest-1"));
+
+        now.addAndGet(1); // 만료 시각 도달
+        assertNull(cache.get("digest-1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("최대 개수를 넘으면 만료된 토큰 먼저, 그다음 만료가 가장 가까운 토큰부터 지워져야 한다.")
+    void evictionTest() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, now::get);
+        cache.put("expired", "0", now.get() + 1_000);
+        for (int i = 1; i <= 9; i++) {
+            cache.put("digest-" + i, String.valueOf(i), now.get() + 60_000 + i * 1_000L);
+        }
+        now.addAndGet(1_000); // "expired"만 만료
+
+        cache.put("digest-10", "10", now.get() + 60_000 + 10 * 1_000L); // 11개째 >> 정리
+        // 만료된 1개를 지우면 10개, 목표(90% = 9개)까지 만료가 가장 가까운 digest-1 1개를 더 지움
+        assertEquals(9, cache.size());
+        assertNull(cache.get("expired"));
+        assertNull(cache.get("digest-1"));
+        for (int i = 2; i <= 10; i++) {
+            assertEquals(String.valueOf(i), cache.get("digest-" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 넣어도 모두 끝난 뒤에는 최대 개수를 넘지 않아야 한다.")
+    void concurrentBoundTest() throws InterruptedException {
+        int maxSize = 1_000;
+        int threadCount = 8;
+        VerifiedTokenCache cache = new VerifiedTokenCache(maxSize, now::get);
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+
+        for (int t = 0; t < threadCount; t++) {
+            int thread = t;
+            executorService.submit(() -> {
+                try {
+                    for (int i = 0; i < 10_000; i++) {
+                        cache.put("digest-" + thread + "-" + i, "user", now.get() + 60_000 + i);
+                        cache.get("digest-" + thread + "-" + (i / 2));
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // 정리를 건너뛴 스레드가 있어도 정리를 마친 스레드가 다시 확인하므로 끝난 뒤에는 최대치 이하
+        assertTrue(cache.size() <= maxSize, "size = " + cache.size());
+    }
+}
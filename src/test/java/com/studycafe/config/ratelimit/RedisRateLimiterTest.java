@@ -0,0 +1,87 @@
+package com.studycafe.config.ratelimit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class RedisRateLimiterTest {
+
+    @Autowired private RedisRateLimiter redisRateLimiter;
+    @Autowired private RedisTemplate<String, String> redisTemplate;
+
+    private static final String KEY = "rate_limit:test:bucket";
+    private static final String SUBJECT = "rate-limiter-test";
+
+    @BeforeEach
+    @AfterEach
+    void clear() {
+        redisTemplate.delete(KEY);
+        redisTemplate.delete("rate_limit:test:" + SUBJECT);
+    }
+
+    @Test
+    @DisplayName("토큰 버킷: capacity개까지 통과, 이후 거절 시간은 토큰 1개가 찰 때까지 남은 시간, 시간이 지나면 그만큼만 다시 채워져야 한다.")
+    void tokenBucketMathTest() {
+        long t = 1_000_000L;
+        // capacity 2, 1초에 2개(500ms에 1개)
+        assertEquals(0, redisRateLimiter.take(KEY, 2, 2, t));
+        assertEquals(0, redisRateLimiter.take(KEY, 2, 2, t));
+        assertEquals(500, redisRateLimiter.take(KEY, 2, 2, t)); // 토큰 0개 >> 1개까지 500ms
+
+        assertEquals(250, redisRateLimiter.take(KEY, 2, 2, t + 250)); // 0.5개 찼음 >> 남은 0.5개 = 250ms
+        assertEquals(0, redisRateLimiter.take(KEY, 2, 2, t + 500)); // 1개 참 >> 통과(다시 0개)
+        assertEquals(500, redisRateLimiter.take(KEY, 2, 2, t + 500));
+
+        // 오래 쉬어도 capacity(2개)까지만 채워짐
+        assertEquals(0, redisRateLimiter.take(KEY, 2, 2, t + 60_000));
+        assertEquals(0, redisRateLimiter.take(KEY, 2, 2, t + 60_000));
+        assertEquals(500, redisRateLimiter.take(KEY, 2, 2, t + 60_000));
+
+        // 다른 서버의 시계가 조금 늦어도(과거 시각) 토큰이 늘거나 줄지 않음
+        assertEquals(500, redisRateLimiter.take(KEY, 2, 2, t + 59_000));
+
+        // 버킷이 가득 찰 시간 + 1초 뒤에 키가 자동 삭제되도록 만료 시간이 걸려 있음
+        Long ttlMs = redisTemplate.getExpire(KEY, TimeUnit.MILLISECONDS);
+        assertTrue(ttlMs != null && ttlMs > 0 && ttlMs <= 2_000, "ttl = " + ttlMs);
+    }
+
+    @Test
+    @DisplayName("거절된 버킷은 다시 시도할 시각 전까지 Redis에 묻지 않고 서버 메모리(blockedUntil)에서 바로 거절해야 한다.")
+    void blockedUntilPreCheckTest() throws InterruptedException {
+        // capacity 1, 1초에 5개(200ms에 1개)
+        assertEquals(0, redisRateLimiter.tryAcquire("test", SUBJECT, 1, 5));
+        long retryAfterMs = redisRateLimiter.tryAcquire("test", SUBJECT, 1, 5);
+        assertTrue(retryAfterMs > 0 && retryAfterMs <= 200, "retryAfterMs = " + retryAfterMs);
+
+        // Redis 버킷을 지워도(Redis에 물으면 가득 찬 새 버킷) 다시 시도할 시각 전이면 메모리에서 거절
+        redisTemplate.delete("rate_limit:test:" + SUBJECT);
+        long cachedRetryAfterMs = redisRateLimiter.tryAcquire("test", SUBJECT, 1, 5);
+        assertTrue(cachedRetryAfterMs > 0 && cachedRetryAfterMs <= retryAfterMs + 1,
+                "cachedRetryAfterMs = " + cachedRetryAfterMs);
+
+        // 다시 시도할 시각이 지나면 Redis에 물어보고 통과
+        Thread.sleep(retryAfterMs + 50);
+        assertEquals(0, redisRateLimiter.tryAcquire("test", SUBJECT, 1, 5));
+    }
+
+    @Test
+    @DisplayName("Retry-After 헤더는 남은 시간을 초 단위로 올림하고 최소 1초여야 한다.")
+    void retryAfterRoundingTest() {
+        assertEquals("1", RedisRateLimiter.retryAfterSeconds(0));
+        assertEquals("1", RedisRateLimiter.retryAfterSeconds(1));
+        assertEquals("1", RedisRateLimiter.retryAfterSeconds(999));
+        assertEquals("1", RedisRateLimiter.retryAfterSeconds(1000));
+        assertEquals("2", RedisRateLimiter.retryAfterSeconds(1001));
+        assertEquals("3", RedisRateLimiter.retryAfterSeconds(2500));
+    }
+}
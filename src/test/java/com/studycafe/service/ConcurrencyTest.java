@@ -1,22 +1,34 @@
 package com.studycafe.service;
 
+import com.studycafe.domain.reservation.Reservation;
 import com.studycafe.domain.reservation.ReservationRepository;
 import com.studycafe.domain.seat.Seat;
 import com.studycafe.domain.seat.SeatRepository;
 import com.studycafe.domain.user.User;
 import com.studycafe.domain.user.UserRepository;
+import com.studycafe.global.exception.CustomException;
+import com.studycafe.global.exception.ErrorCode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest // 스프링 컨테이너(서버)를 실제로 띄워서 테스트
 public class ConcurrencyTest {
@@ -26,13 +38,17 @@ public class ConcurrencyTest {
     @Autowired private UserRepository userRepository;
     @Autowired private SeatRepository seatRepository;
     @Autowired private RedisLockService redisLockService;
+    @Autowired private GroupReservationService groupReservationService;
+    @Autowired private SlotReservationService slotReservationService;
+    @Autowired private SeatSlotIndex seatSlotIndex;
+    @Autowired private SeatDirectory seatDirectory;
 
     @BeforeEach // 청소
     void setUp() {
         // 테스트 돌릴 때마다 데이터 초기화
         reservationRepository.deleteAll();
         // Redis 락도 초기화
-        redisLockService.unlockSeat("1");
+        redisLockService.forceUnlockSeat(Seat.DEFAULT_BRANCH_ID, "1");
     }
 
     @Test
@@ -70,7 +86,7 @@ AtomicInteger은 CPU 레벨에서 순차적인 계산을 보장함
             executorService.submit(() -> {
                 try {
                     // 우리가 만든 '안전한' 메서드 호출
-                    reservationService.preOccupySeat(userId, 1);
+                    reservationService.preOccupySeat(userId, Seat.DEFAULT_BRANCH_ID, 1);
                     successCount.incrementAndGet(); // 에러 안 나면 성공 +1
                 } catch (Exception e) {
                     failCount.incrementAndGet(); // 에러 나면 실패 +1
@@ -107,4 +123,159 @@ redisService의 preOccupySeat로 핵심 로직을 실행
         // 나머지 99명은 실패해야 함!
         assertEquals(99, failCount.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("빈 좌석 자동 선점: 30명이 동시에 요청해도 모두 서로 다른 좌석을 1개씩 배정받아야 한다.")
+    void anySeatAllocationTest() throws InterruptedException {
+        int threadCount = 30;
+        ExecutorService executorService = Executors.newFixedThreadPool(16);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        Set<Integer> allocated = ConcurrentHashMap.newKeySet();
+
+        for (int i = 0; i < threadCount; i++) {
+            long userId = 1000 + i;
+            executorService.submit(() -> {
+                try {
+                    allocated.add(reservationService.preOccupyAnySeat(userId, Seat.DEFAULT_BRANCH_ID, null, null, null));
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        // 같은 좌석이 두 번 배정되었다면 Set 크기가 30보다 작아짐
+        assertEquals(threadCount, allocated.size());
+
+        allocated.forEach(seat -> redisLockService.forceUnlockSeat(Seat.DEFAULT_BRANCH_ID, String.valueOf(seat)));
+        reservationService.reconcileSeatStatus(Seat.DEFAULT_BRANCH_ID);
+    }
+
+    @Test
+    @DisplayName("단체석 선점: 좌석이 겹치는 두 단체가 동시에 요청하면 한 단체만 전부 잡고, 다른 단체는 하나도 잡지 못해야 한다.")
+    void groupSeatAllOrNothingTest() throws InterruptedException {
+        List<List<Integer>> groups = List.of(List.of(2, 3, 4), List.of(4, 5, 6));
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        CountDownLatch latch = new CountDownLatch(groups.size());
+        AtomicInteger successCount = new AtomicInteger(0);
+
+        for (int i = 0; i < groups.size(); i++) {
+            long userId = 2000 + i;
+            List<Integer> seats = groups.get(i);
+            executorService.submit(() -> {
+                try {
+                    groupReservationService.preOccupyGroupSeats(userId, Seat.DEFAULT_BRANCH_ID, seats, null, null, null);
+                    successCount.incrementAndGet();
+                } catch (Exception e) {
+                    // 겹치는 4번을 놓친 단체
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        assertEquals(1, successCount.get());
+        // 진 단체의 좌석은 하나도 잡혀 있지 않아야 함(2, 3번 또는 5, 6번 중 한쪽은 전부 비어 있음)
+        boolean firstWon = "2000".equals(redisLockService.getLockOwner(Seat.DEFAULT_BRANCH_ID, "4"));
+        List<Integer> loserOnly = firstWon ? List.of(5, 6) : List.of(2, 3);
+        loserOnly.forEach(seat -> assertNull(redisLockService.getLockOwner(Seat.DEFAULT_BRANCH_ID, String.valueOf(seat))));
+
+        List.of(2, 3, 4, 5, 6).forEach(seat -> redisLockService.forceUnlockSeat(Seat.DEFAULT_BRANCH_ID, String.valueOf(seat)));
+        reservationService.reconcileSeatStatus(Seat.DEFAULT_BRANCH_ID);
+    }
+
+    @Test
+    @DisplayName("단체석 선점: 직접 고른 좌석 번호가 이어지지 않으면 400(SEATS_NOT_ADJACENT)이고 아무 좌석도 잡지 않아야 한다.")
+    void groupSeatNotAdjacentTest() {
+        CustomException e = assertThrows(CustomException.class, () ->
+                groupReservationService.preOccupyGroupSeats(2100L, Seat.DEFAULT_BRANCH_ID, List.of(7, 9), null, null, null));
+
+        assertEquals(ErrorCode.SEATS_NOT_ADJACENT, e.getErrorCode());
+        List.of(7, 9).forEach(seat -> assertNull(redisLockService.getLockOwner(Seat.DEFAULT_BRANCH_ID, String.valueOf(seat))));
+
+        // 순서와 관계없이 이어진 번호면 통과
+        List<Integer> locked = groupReservationService.preOccupyGroupSeats(2100L, Seat.DEFAULT_BRANCH_ID, List.of(9, 7, 8), null, null, null);
+        assertEquals(List.of(9, 7, 8), locked);
+
+        List.of(7, 8, 9).forEach(seat -> redisLockService.forceUnlockSeat(Seat.DEFAULT_BRANCH_ID, String.valueOf(seat)));
+        reservationService.reconcileSeatStatus(Seat.DEFAULT_BRANCH_ID);
+    }
+
+    @Test
+    @DisplayName("시간대 예약: 20명이 내일 같은 좌석 같은 시간대를 동시에 예약해도 1명만 성공하고, 예약표에 그 시간대가 표시되어야 한다.")
+    void slotReservationTest() throws InterruptedException {
+        int threadCount = 20;
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            userIds.add(userRepository.save(new User("slot_user_" + System.nanoTime() + "_" + i, "password", null)).getId());
+        }
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        LocalDateTime startTime = tomorrow.atTime(14, 0);
+        int seatNumber = 7;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger successCount = new AtomicInteger(0);
+
+        for (Long userId : userIds) {
+            executorService.submit(() -> {
+                try {
+                    slotReservationService.reserveSlot(userId, Seat.DEFAULT_BRANCH_ID, seatNumber, startTime, 60);
+                    successCount.incrementAndGet();
+                } catch (Exception e) {
+                    // 이미 예약된 시간대(SLOT_ALREADY_RESERVED)
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        assertEquals(1, successCount.get());
+        // 좌석 7번의 14:00~15:00 = 56~59번 칸(4칸)만 예약 표시
+        byte[] day = slotReservationService.getDaySlots(Seat.DEFAULT_BRANCH_ID, tomorrow);
+        int base = (seatNumber - 1) * SeatSlotIndex.SLOTS_PER_DAY;
+        for (int slot = 55; slot <= 60; slot++) {
+            int bit = base + slot;
+            boolean reserved = (day[bit / 8] & (0x80 >>> (bit % 8))) != 0;
+            assertEquals(slot >= 56 && slot < 60, reserved);
+        }
+
+        // 바로 이어지는 시간대(15:00~)는 예약 가능
+        slotReservationService.reserveSlot(userIds.get(0), Seat.DEFAULT_BRANCH_ID, seatNumber, startTime.plusHours(1), 30);
+
+        reservationRepository.deleteAll();
+        seatSlotIndex.release(Seat.DEFAULT_BRANCH_ID, List.of(seatNumber), startTime, startTime.plusHours(2));
+    }
+
+    @Test
+    @DisplayName("지금 바로 이용: 이전 예약이 정상 만료되면 마지막 15분 칸이 반납되어 바로 다음 사람이 같은 좌석을 확정할 수 있어야 한다.")
+    void confirmRightAfterExpiryTest() {
+        int seatNumber = 8;
+        User previous = userRepository.save(new User("expired_user_" + System.nanoTime(), "password", null));
+        User next = userRepository.save(new User("next_user_" + System.nanoTime(), "password", null));
+        Seat seat = seatRepository.findById(seatDirectory.resolveId(Seat.DEFAULT_BRANCH_ID, seatNumber)).orElseThrow();
+
+        // 이전 사람의 지금 바로 이용 예약 : 방금 끝남(종료 시각이 15분 단위가 아니면 마지막 칸이 지금 칸과 겹침)
+        LocalDateTime endTime = LocalDateTime.now().minusSeconds(1);
+        LocalDateTime startTime = endTime.minusHours(2);
+        Reservation expired = reservationRepository.save(new Reservation(previous, seat, Seat.DEFAULT_BRANCH_ID, null,
+                startTime, endTime, Reservation.ReservationStatus.CONFIRMED));
+        seatSlotIndex.claim(Seat.DEFAULT_BRANCH_ID, List.of(seatNumber), startTime, endTime);
+
+        assertEquals(1, reservationService.completeExpiredReservations(List.of(expired.getId()), LocalDateTime.now()));
+
+        // 만료 직후 다음 사람이 같은 좌석을 선점 + 확정(SLOT_ALREADY_RESERVED 없이 성공)
+        reservationService.preOccupySeat(next.getId(), Seat.DEFAULT_BRANCH_ID, seatNumber);
+        Long reservationId = reservationService.confirmReservation(next.getId(), Seat.DEFAULT_BRANCH_ID, seatNumber, 1);
+        assertNotNull(reservationId);
+
+        reservationRepository.deleteAll();
+        seatSlotIndex.release(Seat.DEFAULT_BRANCH_ID, List.of(seatNumber), startTime, LocalDateTime.now().plusHours(2));
+        reservationService.reconcileSeatStatus(Seat.DEFAULT_BRANCH_ID);
+    }
+}
@@ -0,0 +1,78 @@
+package com.studycafe.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "app.lock.local-branch-ids=" + InMemorySeatLockTest.LOCAL_BRANCH_ID)
+public class InMemorySeatLockTest {
+
+    static final long LOCAL_BRANCH_ID = 99L; // 메모리 락만 쓰는 지점
+
+    @Autowired private SeatLockService seatLockService; // FailoverSeatLockService(@Primary)
+    @Autowired private RedisLockService redisLockService;
+
+    @AfterEach
+    void tearDown() {
+        seatLockService.forceUnlockSeat(LOCAL_BRANCH_ID, "1");
+    }
+
+    @Test
+    @DisplayName("메모리 락 지점: 1000명이 동시에 같은 좌석 선점하면 1명만 성공하고 Redis에는 락이 생기지 않음")
+    void onlyOneWinsWithoutRedis() throws InterruptedException {
+        int threadCount = 1000;
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        AtomicInteger successCount = new AtomicInteger();
+
+        for (int i = 0; i < threadCount; i++) {
+            String userId = String.valueOf(i);
+            executorService.submit(() -> {
+                try {
+                    if (seatLockService.lockSeat(LOCAL_BRANCH_ID, "1", userId) != SeatLockService.NO_TOKEN) {
+                        successCount.incrementAndGet();
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        executorService.shutdown();
+
+        assertEquals(1, successCount.get());
+        String owner = seatLockService.getLockOwner(LOCAL_BRANCH_ID, "1");
+        assertEquals(Map.of(1, owner), seatLockService.getLockOwners(LOCAL_BRANCH_ID, List.of(1, 2)));
+        assertNull(redisLockService.getLockOwner(LOCAL_BRANCH_ID, "1"));
+    }
+
+    @Test
+    @DisplayName("메모리 락도 Redis 락과 같은 규칙: 본인만 연장/해제 가능, 해제 후 다른 사용자는 더 큰 펜싱 토큰으로 선점")
+    void ownerRules() {
+        long tokenA = seatLockService.lockSeat(LOCAL_BRANCH_ID, "1", "userA");
+        assertTrue(tokenA > 0);
+        assertEquals(tokenA, seatLockService.lockSeat(LOCAL_BRANCH_ID, "1", "userA")); // 같은 사용자 중복 클릭
+        assertEquals(SeatLockService.NO_TOKEN, seatLockService.lockSeat(LOCAL_BRANCH_ID, "1", "userB"));
+
+        assertEquals(SeatLockService.NO_TOKEN, seatLockService.refreshLock(LOCAL_BRANCH_ID, "1", "userB"));
+        assertEquals(tokenA, seatLockService.refreshLock(LOCAL_BRANCH_ID, "1", "userA"));
+
+        assertFalse(seatLockService.unlockSeat(LOCAL_BRANCH_ID, "1", "userB"));
+        assertTrue(seatLockService.unlockSeat(LOCAL_BRANCH_ID, "1", "userA"));
+        assertTrue(seatLockService.lockSeat(LOCAL_BRANCH_ID, "1", "userB") > tokenA);
+    }
+}
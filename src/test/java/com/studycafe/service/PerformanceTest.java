@@ -1,12 +1,10 @@
 package com.studycafe.service;
 
+import com.studycafe.domain.seat.Seat;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.cache.CacheManager;
-
-import java.util.Objects;
 
 @SpringBootTest
 public class PerformanceTest {
@@ -15,19 +13,19 @@ public class PerformanceTest {
     private ReservationService reservationService;
 
     @Autowired
-    private CacheManager cacheManager;
+    private SeatStatusStore seatStatusStore;
 
     @Test
     @DisplayName("Redis 캐싱 성능 비교: 캐시 미적용 vs 적용")
     void compareCachingPerformance() {
-        // 0. 준비: 기존 캐시 제거 (공정한 테스트를 위해)
-        Objects.requireNonNull(cacheManager.getCache("seatStatus")).clear();
+        // 0. 준비: 기존 좌석 현황판 제거 (공정한 테스트를 위해)
+        seatStatusStore.clear(Seat.DEFAULT_BRANCH_ID);
 
         // ---------------------------------------------------
         // Case 1. 첫 번째 조회 (Cache Miss - DB 조회)
         // ---------------------------------------------------
         long start1 = System.currentTimeMillis();
-        reservationService.getAllSeatStatus(); // DB 다녀옴
+        reservationService.getAllSeatStatus(Seat.DEFAULT_BRANCH_ID); // DB 다녀옴
         long end1 = System.currentTimeMillis();
         long time1 = end1 - start1;
 
@@ -35,7 +33,7 @@ public class PerformanceTest {
         // Case 2. 두 번째 조회 (Cache Hit - Redis 조회)
         // ---------------------------------------------------
         long start2 = System.currentTimeMillis();
-        reservationService.getAllSeatStatus(); // Redis에서 바로 옴
+        reservationService.getAllSeatStatus(Seat.DEFAULT_BRANCH_ID); // Redis에서 바로 옴
         long end2 = System.currentTimeMillis();
         long time2 = end2 - start2;
 
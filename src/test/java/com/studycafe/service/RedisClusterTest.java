@@ -0,0 +1,109 @@
+package com.studycafe.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/*
+로컬에서 띄운 Redis Cluster(프로세스 6개)에 붙여서 slot 단위 조회가 맞게 동작하는지 확인
+REDIS_CLUSTER_NODES 환경변수가 없으면 건너뜀
+
+클러스터 띄우기(마스터 3 + 복제본 3)
+for p in 7000 7001 7002 7003 7004 7005; do
+  redis-server --port $p --cluster-enabled yes --cluster-config-file nodes-$p.conf --daemonize yes
+done
+redis-cli --cluster create 127.0.0.1:7000 127.0.0.1:7001 127.0.0.1:7002 \
+  127.0.0.1:7003 127.0.0.1:7004 127.0.0.1:7005 --cluster-replicas 1 --cluster-yes
+
+실행
+REDIS_CLUSTER_NODES=127.0.0.1:7000,127.0.0.1:7001,127.0.0.1:7002 ./gradlew test --tests RedisClusterTest
+ */
+@SpringBootTest(properties = "app.redis.topology=cluster")
+public class RedisClusterTest {
+
+    private static final String CLUSTER_NODES = System.getenv("REDIS_CLUSTER_NODES");
+    private static final int BRANCH_COUNT = 12; // 여러 노드에 흩어지도록 충분히 많은 지점
+    private static final int SEATS_PER_BRANCH = 20;
+
+    @Autowired private RedisLockService redisLockService;
+    @Autowired private RedisSlotRouter redisSlotRouter;
+
+    @BeforeAll
+    static void requireCluster() {
+        assumeTrue(CLUSTER_NODES != null && !CLUSTER_NODES.isBlank(), "REDIS_CLUSTER_NODES가 없으면 건너뜀");
+    }
+
+    @DynamicPropertySource
+    static void clusterNodes(DynamicPropertyRegistry registry) {
+        registry.add("app.redis.nodes", () -> CLUSTER_NODES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (long branch = 1; branch <= BRANCH_COUNT; branch++) {
+            for (int seat = 1; seat <= SEATS_PER_BRANCH; seat++) {
+                redisLockService.forceUnlockSeat(branch, String.valueOf(seat));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("한 지점의 락 키는 같은 slot, 지점별 락 주인 조회는 지점마다 정확히 분리")
+    void lockOwnersPerBranch() {
+        assertTrue(redisSlotRouter.isCluster());
+
+        List<Integer> seatNumbers = IntStream.rangeClosed(1, SEATS_PER_BRANCH).boxed().toList();
+        for (long branch = 1; branch <= BRANCH_COUNT; branch++) {
+            int slot = ClusterSlotHashUtil.calculateSlot(RedisLockService.lockKey(branch, "1"));
+            for (Integer seat : seatNumbers) {
+                // 해시 태그 {지점ID} 덕분에 같은 지점의 모든 좌석 락은 같은 slot
+                assertEquals(slot, ClusterSlotHashUtil.calculateSlot(RedisLockService.lockKey(branch, String.valueOf(seat))));
+            }
+            for (int seat = 1; seat <= SEATS_PER_BRANCH; seat += 2) {
+                assertTrue(redisLockService.lockSeat(branch, String.valueOf(seat), "user-" + branch + "-" + seat) > 0);
+            }
+        }
+
+        for (long branch = 1; branch <= BRANCH_COUNT; branch++) {
+            Map<Integer, String> owners = redisLockService.getLockOwners(branch, seatNumbers);
+            assertEquals(SEATS_PER_BRANCH / 2, owners.size());
+            assertEquals("user-" + branch + "-1", owners.get(1));
+        }
+    }
+
+    @Test
+    @DisplayName("여러 노드에 흩어진 키도 노드별 병렬 조회와 노드별 SCAN으로 빠짐없이 읽힘")
+    void crossNodeReadAndScan() {
+        List<String> keys = new ArrayList<>();
+        for (long branch = 1; branch <= BRANCH_COUNT; branch++) {
+            for (int seat = 1; seat <= SEATS_PER_BRANCH; seat++) {
+                redisLockService.lockSeat(branch, String.valueOf(seat), "user-" + branch);
+                keys.add(RedisLockService.lockKey(branch, String.valueOf(seat)));
+            }
+        }
+
+        // 여러 지점 키를 한 번에 읽으면 MGET은 CROSSSLOT 에러, RedisSlotRouter는 노드별로 나눠서 조회
+        Map<String, String> values = redisSlotRouter.getAll(keys);
+        assertEquals(keys.size(), values.size());
+        assertEquals("user-3", values.get(RedisLockService.lockKey(3L, "7")));
+
+        // SCAN은 노드 1곳만 훑으므로 마스터마다 SCAN한 결과를 합쳐야 전체 키가 나옴
+        List<String> scanned = redisSlotRouter.scanKeys(RedisLockService.KEY_PREFIX + "*");
+        assertTrue(scanned.containsAll(keys));
+    }
+}
@@ -0,0 +1,54 @@
+package com.studycafe.service;
+
+import com.studycafe.domain.reservation.ReservationRepository;
+import com.studycafe.domain.seat.Seat;
+import com.studycafe.domain.user.User;
+import com.studycafe.domain.user.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+public class ReservationOutboxTest {
+
+    @Autowired private ReservationService reservationService;
+    @Autowired private ReservationRepository reservationRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private OutboxRelay outboxRelay;
+    @Autowired private RedisTemplate<String, String> redisTemplate;
+
+    @Test
+    @DisplayName("예약 확정과 퇴실이 같은 트랜잭션에서 편지함에 기록되고, 릴레이가 순서대로 지점 스트림에 보내야 한다.")
+    void confirmAndEndUseArePublishedInOrder() {
+        Long userId = userRepository.save(new User("outbox_user_" + System.nanoTime(), "password", null)).getId();
+        int seatNumber = 11;
+        String streamKey = OutboxRelay.streamKey(Seat.DEFAULT_BRANCH_ID);
+        outboxRelay.relay(); // 이전 테스트에서 남은 이벤트 먼저 비우기
+        redisTemplate.delete(streamKey);
+
+        reservationService.preOccupySeat(userId, Seat.DEFAULT_BRANCH_ID, seatNumber);
+        Long reservationId = reservationService.confirmReservation(userId, Seat.DEFAULT_BRANCH_ID, seatNumber, 1);
+        reservationService.endUse(userId);
+        outboxRelay.relay();
+
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().range(streamKey, Range.unbounded());
+        List<MapRecord<String, Object, Object>> mine = records.stream()
+                .filter(r -> String.valueOf(reservationId).equals(r.getValue().get("reservationId")))
+                .toList();
+        assertEquals(2, mine.size());
+        assertEquals("CONFIRMED", mine.get(0).getValue().get("type"));
+        assertEquals("CANCELLED", mine.get(1).getValue().get("type"));
+        assertEquals(String.valueOf(seatNumber), mine.get(1).getValue().get("seatNumber"));
+
+        reservationRepository.deleteById(reservationId);
+        reservationService.reconcileSeatStatus(Seat.DEFAULT_BRANCH_ID);
+    }
+}
@@ -0,0 +1,183 @@
+package com.studycafe.service;
+
+import com.studycafe.dto.SeatStatusDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "app.seat.status.stale-max-age-ms=300",
+        "app.seat.status.rebuild-wait-ms=2000"
+})
+public class SeatStatusRebuilderTest {
+
+    // 좌석이 없는 지점 번호대(다른 테스트, 스케줄러와 겹치지 않음)
+    static final long SINGLE_FLIGHT_BRANCH = 9101L;
+    static final long STALE_BRANCH = 9102L;
+    static final long OTHER_NODE_BRANCH = 9103L;
+    static final long LOCAL_BRANCH = 9110L;
+    static final int WAITING_BRANCH_COUNT = 4; // 재구성 스레드(2개)보다 많은 지점이 동시에 다른 서버를 기다림
+
+    @Autowired private SeatStatusRebuilder seatStatusRebuilder;
+    @Autowired private SeatStatusStore seatStatusStore;
+    @Autowired private RedisTemplate<String, String> redisTemplate;
+
+    @AfterEach
+    void tearDown() {
+        List<Long> branchIds = new ArrayList<>(List.of(SINGLE_FLIGHT_BRANCH, STALE_BRANCH, OTHER_NODE_BRANCH, LOCAL_BRANCH));
+        for (int i = 0; i < WAITING_BRANCH_COUNT; i++) {
+            branchIds.add(OTHER_NODE_BRANCH + 1 + i);
+        }
+        for (Long branchId : branchIds) {
+            seatStatusStore.clear(branchId);
+            redisTemplate.delete(lockKey(branchId));
+        }
+    }
+
+    @Test
+    @DisplayName("현황판이 빈 지점에 50명이 동시에 조회해도 원본(DB + 락 정보) 조회는 딱 1번만 일어나야 한다.")
+    void singleFlightTest() throws Exception {
+        int threadCount = 50;
+        AtomicInteger sourceCalls = new AtomicInteger(0);
+        List<SeatStatusDto> board = board(1, 2, 3);
+        Supplier<List<SeatStatusDto>> source = () -> {
+            sourceCalls.incrementAndGet();
+            sleep(300); // 원본 조회가 끝나기 전에 나머지 요청이 모두 도착하게
+            return board;
+        };
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<List<SeatStatusDto>>> results = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            results.add(executorService.submit(() -> {
+                ready.await();
+                return seatStatusRebuilder.rebuild(SINGLE_FLIGHT_BRANCH, source, false);
+            }));
+        }
+        ready.countDown();
+        for (Future<List<SeatStatusDto>> result : results) {
+            assertSame(board, result.get(5, TimeUnit.SECONDS));
+        }
+        executorService.shutdown();
+
+        assertEquals(1, sourceCalls.get());
+        assertEquals(3, seatStatusStore.findAll(SINGLE_FLIGHT_BRANCH).size()); // 재구성한 현황판이 Redis에 채워짐
+    }
+
+    @Test
+    @DisplayName("재구성 중에는 stale-max-age-ms 이내의 직전 현황판을 바로 돌려주고, 그보다 오래됐으면 재구성을 기다려야 한다.")
+    void staleWhileRevalidateTest() {
+        List<SeatStatusDto> stale = board(1);
+        List<SeatStatusDto> fresh = board(1, 2);
+        AtomicInteger sourceCalls = new AtomicInteger(0);
+        Supplier<List<SeatStatusDto>> slowSource = () -> {
+            sourceCalls.incrementAndGet();
+            sleep(500);
+            return fresh;
+        };
+
+        // 1. 직전 현황판이 300ms 이내 >> 재구성(500ms)을 기다리지 않고 직전 현황판 반환
+        seatStatusRebuilder.remember(STALE_BRANCH, stale);
+        long start = System.nanoTime();
+        assertSame(stale, seatStatusRebuilder.rebuild(STALE_BRANCH, slowSource, true));
+        assertTrue(elapsedMs(start) < 300, "elapsedMs = " + elapsedMs(start));
+
+        // 뒤에서 진행된 재구성은 원본 1번으로 현황판을 채움
+        sleep(700);
+        assertEquals(1, sourceCalls.get());
+        assertEquals(2, seatStatusStore.findAll(STALE_BRANCH).size());
+
+        // 2. 직전 현황판이 300ms보다 오래됨 >> 재구성이 끝날 때까지 기다려서 새 현황판 반환
+        seatStatusStore.clear(STALE_BRANCH);
+        seatStatusRebuilder.remember(STALE_BRANCH, stale);
+        sleep(400);
+        start = System.nanoTime();
+        assertSame(fresh, seatStatusRebuilder.rebuild(STALE_BRANCH, slowSource, true));
+        assertTrue(elapsedMs(start) >= 400, "elapsedMs = " + elapsedMs(start));
+        assertEquals(2, sourceCalls.get());
+    }
+
+    @Test
+    @DisplayName("다른 서버가 재구성 중이면 원본을 읽지 않고 그 서버가 채운 현황판을 받아야 한다.")
+    void waitsForOtherNodeTest() {
+        redisTemplate.opsForValue().set(lockKey(OTHER_NODE_BRANCH), "other-node", Duration.ofSeconds(5));
+        AtomicInteger sourceCalls = new AtomicInteger(0);
+        CompletableFuture.runAsync(() -> {
+            sleep(200);
+            seatStatusStore.replaceAll(OTHER_NODE_BRANCH, board(1, 2, 3, 4)); // 다른 서버의 재구성
+        });
+
+        List<SeatStatusDto> result = seatStatusRebuilder.rebuild(OTHER_NODE_BRANCH, () -> {
+            sourceCalls.incrementAndGet();
+            return board(1);
+        }, false);
+
+        assertEquals(4, result.size());
+        assertEquals(0, sourceCalls.get());
+    }
+
+    @Test
+    @DisplayName("재구성 스레드 수보다 많은 지점이 다른 서버를 기다려도 이 서버가 맡은 지점 재구성은 바로 끝나야 한다.")
+    void waitingDoesNotBlockRebuildTest() {
+        List<CompletableFuture<List<SeatStatusDto>>> waiting = new ArrayList<>();
+        for (int i = 0; i < WAITING_BRANCH_COUNT; i++) {
+            long branchId = OTHER_NODE_BRANCH + 1 + i;
+            redisTemplate.opsForValue().set(lockKey(branchId), "other-node", Duration.ofSeconds(5));
+            waiting.add(CompletableFuture.supplyAsync(() -> seatStatusRebuilder.rebuild(branchId, () -> board(1), false)));
+        }
+        sleep(200); // 모든 지점이 다른 서버를 기다리는 중
+
+        long start = System.nanoTime();
+        List<SeatStatusDto> board = board(1, 2);
+        assertSame(board, seatStatusRebuilder.rebuild(LOCAL_BRANCH, () -> board, false));
+        // 기다리는 지점이 스레드를 붙잡고 있었다면 rebuild-wait-ms(2초)가 지나야 시작됨
+        assertTrue(elapsedMs(start) < 1_000, "elapsedMs = " + elapsedMs(start));
+
+        // 기다리던 지점은 rebuild-wait-ms 뒤 이 서버에서 원본을 읽어서 반환
+        waiting.forEach(future -> assertEquals(1, future.join().size()));
+    }
+
+    private static List<SeatStatusDto> board(int... seatNumbers) {
+        List<SeatStatusDto> statusList = new ArrayList<>();
+        for (int seatNumber : seatNumbers) {
+            statusList.add(new SeatStatusDto(seatNumber, "AVAILABLE"));
+        }
+        return statusList;
+    }
+
+    private static String lockKey(Long branchId) {
+        return "seat_status_rebuild_lock:{" + branchId + "}";
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.studycafe.service;
+
+import com.studycafe.Main;
+import com.studycafe.config.jwt.JwtTokenProvider;
+import com.studycafe.domain.seat.Seat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@Tag("load")
+public class VirtualThreadLoadTest {
+
+    private static final int REQUEST_COUNT = 5000; // 동시 선점 요청 수
+    private static final int SEAT_COUNT = 100; // 요청이 몰리는 좌석 수
+    private static final int PLATFORM_POOL_SIZE = 200; // Tomcat 기본 최대 스레드 수
+    private static final int CLIENT_CONCURRENCY = 1000; // 동시에 열어두는 HTTP 요청 수
+    private static final int WARM_UP_COUNT = 500; // 측정 전 JIT 예열용 요청 수
+
+    @Test
+    @DisplayName("5000명 동시 선점(HTTP): Tomcat 플랫폼 스레드 200개 vs 가상 스레드 처리량 비교")
+    void comparePreOccupyThroughput() throws InterruptedException {
+        assumeTrue(Runtime.version().feature() >= 21, "가상 스레드는 Java 21 이상에서만 실행 가능(./gradlew loadTest)");
+
+        LoadResult platform = runServer(false);
+        LoadResult virtual = runServer(true);
+/*
+같은 5000건의 선점 요청을 서버를 두 번 띄워서(spring.threads.virtual.enabled = false/true) HTTP로 보내고 걸린 시간을 비교
+1. 플랫폼 스레드 200개(Tomcat 기본값) : 요청 스레드가 Redis/DB 응답을 기다리는 동안
+   스레드를 붙잡고 있으므로 동시에 200건까지만 처리되고 나머지는 연결 큐에서 줄을 섬
+2. 가상 스레드 : Tomcat이 요청마다 가상 스레드 1개를 쓰고, 응답을 기다리는 동안 OS 스레드를 반납하므로
+   보낸 요청이 모두 동시에 대기 가능 >> 이때는 DB 커넥션 풀(hikari.maximum-pool-size)이 새로운 한계가 됨
+필터(JWT 인증), 컨트롤러, 에러 응답까지 실제 웹 계층을 모두 거침
+ */
+
+        System.out.println("\n=======================================================");
+        System.out.println(" [처리량 비교] 동시 선점 요청 " + REQUEST_COUNT + "건 (HTTP)");
+        System.out.println("=======================================================");
+        System.out.printf("1. 플랫폼 스레드 %d개 : %5d ms (%.0f req/s)%n",
+                PLATFORM_POOL_SIZE, platform.elapsedMs, platform.throughput());
+        System.out.printf("2. 가상 스레드        : %5d ms (%.0f req/s)%n",
+                virtual.elapsedMs, virtual.throughput());
+        System.out.println("=======================================================\n");
+
+        // 검증: 두 방식 모두 좌석당 딱 1명만 선점에 성공해야 함
+        assertEquals(SEAT_COUNT, platform.successCount);
+        assertEquals(SEAT_COUNT, virtual.successCount);
+        // 나머지는 모두 이미 선점된 좌석(409)으로 실패해야 함(커넥션 대기 시간 초과 등 다른 실패 없음)
+        assertEquals(REQUEST_COUNT - SEAT_COUNT, platform.lockedCount);
+        assertEquals(REQUEST_COUNT - SEAT_COUNT, virtual.lockedCount);
+    }
+
+    private LoadResult runServer(boolean virtualThreads) throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Main.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--server.tomcat.threads.max=" + PLATFORM_POOL_SIZE,
+                "--app.rate-limit.enabled=false",
+                "--app.waiting-room.enabled=false")) {
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            JwtTokenProvider jwtTokenProvider = context.getBean(JwtTokenProvider.class);
+            RedisLockService redisLockService = context.getBean(RedisLockService.class);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            unlockAllSeats(redisLockService);
+            runLoad(client, baseUrl, jwtTokenProvider, WARM_UP_COUNT, 200_000L);
+            unlockAllSeats(redisLockService);
+            LoadResult result = runLoad(client, baseUrl, jwtTokenProvider, REQUEST_COUNT, 100_000L);
+            unlockAllSeats(redisLockService);
+            return result;
+        }
+    }
+    /* 서버 1번 띄워서 측정
+    포트는 랜덤(0), 요청 횟수 제한은 꺼서(같은 좌석에 50명씩 몰려도 429 없이 락 경쟁만 측정) 실행
+    예열(JIT, 커넥션 풀) 1번 후 좌석 락을 다 풀고 본 측정, 끝나면 서버를 내림
+     */
+
+    private LoadResult runLoad(HttpClient client, String baseUrl, JwtTokenProvider jwtTokenProvider,
+                               int requestCount, long firstUserId) throws InterruptedException {
+        HttpRequest[] requests = new HttpRequest[requestCount];
+        for (int i = 0; i < requestCount; i++) {
+            long userId = firstUserId + i;
+            int seatNumber = i % SEAT_COUNT + 1;
+            requests[i] = HttpRequest.newBuilder(URI.create(baseUrl + "/api/reservations/pre-occupy"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + jwtTokenProvider.createToken(String.valueOf(userId)))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"userId\":" + userId + ",\"branchId\":" + Seat.DEFAULT_BRANCH_ID + ",\"seatNumber\":" + seatNumber + "}"))
+                    .build();
+        }
+
+        Semaphore inFlight = new Semaphore(CLIENT_CONCURRENCY);
+        CountDownLatch done = new CountDownLatch(requestCount);
+        AtomicInteger successCount = new AtomicInteger(0);
+        AtomicInteger lockedCount = new AtomicInteger(0);
+
+        long start = System.currentTimeMillis();
+        for (HttpRequest request : requests) {
+            inFlight.acquire();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        if (error == null) {
+                            if (response.statusCode() == 200) {
+                                successCount.incrementAndGet();
+                            } else if (response.statusCode() == 409 && response.body().contains("SEAT_ALREADY_LOCKED")) {
+                                lockedCount.incrementAndGet();
+                            }
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        done.await();
+        long elapsedMs = System.currentTimeMillis() - start;
+
+        return new LoadResult(requestCount, elapsedMs, successCount.get(), lockedCount.get());
+    }
+    /* 부하 실행
+    토큰, 요청 본문은 미리 만들어두고 측정 구간에는 HTTP 전송만 포함
+    클라이언트 쪽 동시 요청은 CLIENT_CONCURRENCY개로 묶음(서버 스레드 200개보다 충분히 많게, 테스트 머신 소켓 수 안으로)
+    좌석 100개에 5000명이 몰리므로 좌석마다 1명만 200, 나머지는 409(SEAT_ALREADY_LOCKED)
+    (userId는 실제 예약이 없는 번호대를 사용해서 1인 1좌석 검사에 걸리지 않게 함)
+     */
+
+    private void unlockAllSeats(RedisLockService redisLockService) {
+        for (int seat = 1; seat <= SEAT_COUNT; seat++) {
+            redisLockService.forceUnlockSeat(Seat.DEFAULT_BRANCH_ID, String.valueOf(seat));
+        }
+    }
+
+    private record LoadResult(int requestCount, long elapsedMs, int successCount, int lockedCount) {
+        double throughput() {
+            return requestCount * 1000.0 / Math.max(elapsedMs, 1);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.studycafe.service;
+
+import com.studycafe.dto.WaitingRoomDto;
+import com.studycafe.global.exception.CustomException;
+import com.studycafe.global.exception.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "app.waiting-room.enabled=true",
+        "app.waiting-room.admit-batch-size=2"
+})
+public class WaitingRoomTest {
+
+    static final long BRANCH_ID = 98L; // 좌석이 없는 지점(스케줄러가 입장 처리하지 않음, 빈 좌석 수 제한 없음)
+
+    @Autowired private WaitingRoomService waitingRoomService;
+
+    @AfterEach
+    void tearDown() {
+        waitingRoomService.reset(BRANCH_ID);
+    }
+
+    @Test
+    @DisplayName("도착 순서대로 줄을 서고, 한 번에 입장 인원만큼 앞사람부터 입장해서 입장권으로만 선점 가능")
+    void admitsInArrivalOrder() throws InterruptedException {
+        String firstToken = null;
+        for (long userId = 1; userId <= 5; userId++) {
+            WaitingRoomDto.Status status = waitingRoomService.enter(BRANCH_ID, userId);
+            assertEquals("WAITING", status.getState());
+            assertEquals(userId, status.getPosition());
+            if (userId == 1) {
+                firstToken = status.getAdmissionToken();
+            }
+            Thread.sleep(2); // 도착 시각(ms)이 겹치지 않게
+        }
+        // 다시 입장 요청해도 같은 자리, 같은 입장권
+        assertEquals(firstToken, waitingRoomService.enter(BRANCH_ID, 1L).getAdmissionToken());
+        assertEquals(1, waitingRoomService.status(BRANCH_ID, 1L).getPosition());
+
+        assertEquals(2, waitingRoomService.admit(BRANCH_ID));
+        assertEquals("ADMITTED", waitingRoomService.status(BRANCH_ID, 1L).getState());
+        assertEquals("ADMITTED", waitingRoomService.status(BRANCH_ID, 2L).getState());
+        assertEquals(1, waitingRoomService.status(BRANCH_ID, 3L).getPosition());
+
+        String token = firstToken;
+        assertDoesNotThrow(() -> waitingRoomService.checkAdmitted(BRANCH_ID, 1L, token));
+        CustomException wrongToken = assertThrows(CustomException.class,
+                () -> waitingRoomService.checkAdmitted(BRANCH_ID, 2L, token));
+        assertEquals(ErrorCode.WAITING_ROOM_NOT_ADMITTED, wrongToken.getErrorCode());
+        assertThrows(CustomException.class, () -> waitingRoomService.checkAdmitted(BRANCH_ID, 3L, null));
+
+        // 선점에 성공하면 입장 자리를 반납
+        waitingRoomService.leave(BRANCH_ID, 1L);
+        assertEquals("NONE", waitingRoomService.status(BRANCH_ID, 1L).getState());
+    }
+}